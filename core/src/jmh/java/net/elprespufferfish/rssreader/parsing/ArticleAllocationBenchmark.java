@@ -0,0 +1,81 @@
+package net.elprespufferfish.rssreader.parsing;
+
+import com.google.common.base.Predicate;
+import com.google.common.base.Predicates;
+
+import net.elprespufferfish.rssreader.Article;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.xmlpull.v1.XmlPullParser;
+import org.xmlpull.v1.XmlPullParserException;
+import org.xmlpull.v1.XmlPullParserFactory;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Feed parsing normalised per item, over the synthetic feeds whose item count is known up front.
+ *
+ * <p>Each invocation counts as {@link Corpus#SYNTHETIC_ITEMS} operations, so the score is items per
+ * second and, with {@code -prof gc}, {@code gc.alloc.rate.norm} is the bytes allocated per item.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class ArticleAllocationBenchmark {
+
+    private static final String FEED_ADDRESS = "http://www.example.com/feed";
+    /** Old enough to include every article in the corpora, which date from 2015. */
+    private static final int MAX_AGE_DAYS = 36500;
+
+    @Param({Corpus.SYNTHETIC_RSS, Corpus.SYNTHETIC_ATOM})
+    public String corpus;
+
+    private byte[] document;
+    private XmlPullParser xmlPullParser;
+    private final Predicate<Article> isUnchanged = Predicates.alwaysFalse();
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException, XmlPullParserException {
+        document = Corpus.load(corpus);
+
+        XmlPullParserFactory xmlPullParserFactory = XmlPullParserFactory.newInstance();
+        xmlPullParserFactory.setNamespaceAware(true);
+        xmlPullParser = xmlPullParserFactory.newPullParser();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(Corpus.SYNTHETIC_ITEMS)
+    public int parseArticles(final Blackhole blackhole) throws IOException, XmlPullParserException {
+        xmlPullParser.setInput(new ByteArrayInputStream(document), null);
+        Parser parser = ParserFactory.newParser(xmlPullParser);
+        int numItems = parser.parseArticles(FEED_ADDRESS, xmlPullParser, MAX_AGE_DAYS, isUnchanged, new ArticleSink() {
+            @Override
+            public void accept(Article article) {
+                blackhole.consume(article);
+            }
+        });
+        if (numItems != Corpus.SYNTHETIC_ITEMS) {
+            throw new IllegalStateException("Parsed " + numItems + " items, expected " + Corpus.SYNTHETIC_ITEMS);
+        }
+        return numItems;
+    }
+
+}
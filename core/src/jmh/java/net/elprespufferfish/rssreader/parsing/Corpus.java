@@ -0,0 +1,110 @@
+package net.elprespufferfish.rssreader.parsing;
+
+import com.google.common.io.ByteStreams;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Feed documents to benchmark against.
+ *
+ * <p>Names ending in .xml are the real-world feeds shared with the parser tests.
+ * {@link #SYNTHETIC_RSS} and {@link #SYNTHETIC_ATOM} are generated feeds that are much larger than
+ * anything in the fixtures.
+ */
+final class Corpus {
+
+    static final String SYNTHETIC_RSS = "synthetic-rss";
+    static final String SYNTHETIC_ATOM = "synthetic-atom";
+
+    /** Number of items in each synthetic feed. */
+    static final int SYNTHETIC_ITEMS = 5000;
+
+    private static final String PARAGRAPH = "&lt;p&gt;Lorem ipsum dolor sit amet, consectetur adipiscing elit, "
+            + "sed do eiusmod tempor incididunt ut labore et dolore magna aliqua. Ut enim ad minim veniam, "
+            + "quis nostrud exercitation ullamco laboris nisi ut aliquip ex ea commodo consequat.&lt;/p&gt;";
+
+    private Corpus() {
+        // prevent instantiation
+    }
+
+    static byte[] load(String name) throws IOException {
+        switch (name) {
+            case SYNTHETIC_RSS: {
+                return syntheticRss(SYNTHETIC_ITEMS);
+            }
+            case SYNTHETIC_ATOM: {
+                return syntheticAtom(SYNTHETIC_ITEMS);
+            }
+            default: {
+                InputStream input = Corpus.class.getResourceAsStream("/raw/" + name);
+                if (input == null) {
+                    throw new IllegalArgumentException("Unknown corpus " + name);
+                }
+                try {
+                    return ByteStreams.toByteArray(input);
+                } finally {
+                    input.close();
+                }
+            }
+        }
+    }
+
+    private static byte[] syntheticRss(int numItems) {
+        StringBuilder feed = new StringBuilder();
+        feed.append("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n")
+                .append("<rss version=\"2.0\" xmlns:media=\"http://search.yahoo.com/mrss/\">\n")
+                .append("<channel>\n")
+                .append("<title>Synthetic RSS</title>\n")
+                .append("<link>http://example.com/</link>\n")
+                .append("<description>Generated feed for benchmarks</description>\n");
+        for (int i = 0; i < numItems; i++) {
+            feed.append("<item>\n")
+                    .append("<title>Synthetic article ").append(i).append("</title>\n")
+                    .append("<link>http://example.com/articles/").append(i).append("</link>\n")
+                    .append("<guid isPermaLink=\"false\">synthetic-").append(i).append("</guid>\n")
+                    .append("<pubDate>").append(rfc822(i)).append("</pubDate>\n")
+                    .append("<description>&lt;img src=\"http://example.com/images/").append(i).append(".jpg\"/&gt;")
+                    .append(PARAGRAPH).append(PARAGRAPH).append(PARAGRAPH).append("</description>\n");
+            // alternate between a thumbnail and an image embedded in the description
+            if (i % 2 == 0) {
+                feed.append("<media:thumbnail url=\"http://example.com/thumbnails/").append(i).append(".jpg\"/>\n");
+            }
+            feed.append("</item>\n");
+        }
+        feed.append("</channel>\n</rss>\n");
+        return feed.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static byte[] syntheticAtom(int numEntries) {
+        StringBuilder feed = new StringBuilder();
+        feed.append("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n")
+                .append("<feed xmlns=\"http://www.w3.org/2005/Atom\">\n")
+                .append("<title>Synthetic Atom</title>\n")
+                .append("<id>tag:example.com,2015:synthetic</id>\n")
+                .append("<updated>2015-08-29T23:43:29Z</updated>\n");
+        for (int i = 0; i < numEntries; i++) {
+            feed.append("<entry>\n")
+                    .append("<id>tag:example.com,2015:synthetic-").append(i).append("</id>\n")
+                    .append("<title>Synthetic article ").append(i).append("</title>\n")
+                    .append("<link rel=\"alternate\" type=\"text/html\" href=\"http://example.com/articles/")
+                    .append(i).append("\"/>\n")
+                    .append("<updated>").append(iso8601(i)).append("</updated>\n")
+                    .append("<content type=\"html\">&lt;img src=\"http://example.com/images/").append(i).append(".jpg\"/&gt;")
+                    .append(PARAGRAPH).append(PARAGRAPH).append(PARAGRAPH).append("</content>\n")
+                    .append("</entry>\n");
+        }
+        feed.append("</feed>\n");
+        return feed.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static String rfc822(int i) {
+        return String.format("Sat, %02d Aug 2015 %02d:%02d:%02d +0000", 1 + i % 28, i % 24, i % 60, (i * 7) % 60);
+    }
+
+    private static String iso8601(int i) {
+        return String.format("2015-08-%02dT%02d:%02d:%02d.000-07:00", 1 + i % 28, i % 24, i % 60, (i * 7) % 60);
+    }
+
+}
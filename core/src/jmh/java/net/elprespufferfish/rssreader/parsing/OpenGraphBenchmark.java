@@ -0,0 +1,147 @@
+package net.elprespufferfish.rssreader.parsing;
+
+import com.google.common.io.CountingInputStream;
+
+import org.jsoup.Jsoup;
+import org.jsoup.nodes.Document;
+import org.jsoup.nodes.Element;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link OpenGraphExtractor} versus the Jsoup document it replaced, finding {@code og:image} in article pages.
+ *
+ * <p>Each page is read from memory through a counting stream.  {@code bytesRead} is reported as a rate
+ * alongside ops/s, so {@code bytesRead / score} is the number of bytes taken from the body per page,
+ * which is what a socket would have had to deliver.  Run with {@code -prof gc} for
+ * {@code gc.alloc.rate.norm}, the bytes allocated per page.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class OpenGraphBenchmark {
+
+    private static final String PAGE_ADDRESS = "http://www.example.com/2015/08/29/article";
+    private static final String CONTENT_TYPE = "text/html; charset=UTF-8";
+    private static final String PROPERTY = "og:image";
+
+    /**
+     * Page layouts seen on news sites and blogs.
+     * <ul>
+     *     <li>{@code early}: OpenGraph tags straight after the charset, as most CMS themes emit them.</li>
+     *     <li>{@code late}: OpenGraph tags after inline scripts, styles and analytics snippets.</li>
+     *     <li>{@code missing}: no OpenGraph tags, so the whole head is read.</li>
+     * </ul>
+     */
+    @Param({"early", "late", "missing"})
+    public String layout;
+
+    private byte[] page;
+
+    /**
+     * Bytes read from the page, reported by JMH as a rate alongside the benchmark score.
+     */
+    @State(Scope.Thread)
+    @AuxCounters
+    public static class Counters {
+        public long bytesRead;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            bytesRead = 0;
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        page = articlePage(layout).getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public String extractor(Counters counters) throws IOException {
+        CountingInputStream body = new CountingInputStream(new ByteArrayInputStream(page));
+        String image = OpenGraphExtractor.extract(body, CONTENT_TYPE, PAGE_ADDRESS, PROPERTY);
+        counters.bytesRead += body.getCount();
+        return image;
+    }
+
+    /**
+     * The implementation before {@link OpenGraphExtractor}.
+     */
+    @Benchmark
+    public String jsoup(Counters counters) throws IOException {
+        CountingInputStream body = new CountingInputStream(new ByteArrayInputStream(page));
+        Document document = Jsoup.parse(body, null, PAGE_ADDRESS);
+        counters.bytesRead += body.getCount();
+        Element element = document.select("meta[property=" + PROPERTY).first();
+        return element == null ? null : element.attr("content");
+    }
+
+    /**
+     * @return an article page of roughly 80KB with a 20KB head.
+     */
+    private static String articlePage(String layout) {
+        String openGraph = "missing".equals(layout) ? "" : ""
+                + "<meta property=\"og:type\" content=\"article\">\n"
+                + "<meta property=\"og:title\" content=\"Synthetic article &amp; benchmark\">\n"
+                + "<meta property=\"og:url\" content=\"" + PAGE_ADDRESS + "\">\n"
+                + "<meta property=\"og:image\" content=\"/wp-content/uploads/2015/08/header-1200x630.jpg\">\n";
+
+        StringBuilder page = new StringBuilder();
+        page.append("<!DOCTYPE html>\n<html lang=\"en\">\n<head>\n")
+                .append("<meta charset=\"utf-8\">\n")
+                .append("<meta name=\"viewport\" content=\"width=device-width, initial-scale=1\">\n");
+        if ("early".equals(layout)) {
+            page.append(openGraph);
+        }
+        page.append("<title>Synthetic article &amp; benchmark</title>\n");
+        for (int i = 0; i < 12; i++) {
+            page.append("<link rel=\"stylesheet\" href=\"/static/css/theme-").append(i).append(".css\" type=\"text/css\">\n");
+        }
+        page.append("<style>\n");
+        for (int i = 0; i < 150; i++) {
+            page.append(".widget-").append(i).append(" > a:hover { color: #336699; margin: 0 4px; }\n");
+        }
+        page.append("</style>\n<script>\n");
+        for (int i = 0; i < 150; i++) {
+            page.append("window.dataLayer.push({'event': 'load-").append(i).append("', 'value': a < b && c > d});\n");
+        }
+        page.append("</script>\n")
+                .append("<!-- <meta property=\"og:image\" content=\"commented-out.jpg\"> -->\n");
+        if ("late".equals(layout)) {
+            page.append(openGraph);
+        }
+        page.append("</head>\n<body class=\"single-post\">\n<nav>");
+        for (int i = 0; i < 50; i++) {
+            page.append("<a href=\"/category/").append(i).append("\">Category ").append(i).append("</a>");
+        }
+        page.append("</nav>\n<article>\n");
+        for (int i = 0; i < 250; i++) {
+            page.append("<p>Lorem ipsum dolor sit amet, consectetur adipiscing elit, sed do eiusmod tempor ")
+                    .append("incididunt ut labore et dolore magna aliqua. <a href=\"/related/").append(i)
+                    .append("\">Ut enim</a> ad minim veniam, quis nostrud exercitation ullamco laboris.</p>\n");
+        }
+        page.append("</article>\n</body>\n</html>\n");
+        return page.toString();
+    }
+
+}
@@ -0,0 +1,115 @@
+package net.elprespufferfish.rssreader.parsing;
+
+import com.google.common.base.Predicate;
+import com.google.common.base.Predicates;
+
+import net.elprespufferfish.rssreader.Article;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.xmlpull.v1.XmlPullParser;
+import org.xmlpull.v1.XmlPullParserException;
+import org.xmlpull.v1.XmlPullParserFactory;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of feed parsing over in-memory copies of real and synthetic feeds.
+ *
+ * <p>Each invocation parses the whole document the same way {@code FeedFetcher} does: a fresh pull parser
+ * input, {@link ParserFactory#newParser}, then the returned {@link RssParser} or {@link AtomParser}.
+ * Nothing touches the network; OpenGraph images are only scraped later by {@code ImageEnricher}.
+ *
+ * <p>Besides ops/s, {@link #parseArticles} reports {@code items} and {@code bytes} per second, so
+ * {@code items / score} is the number of items in the corpus.  Run with {@code -prof gc} for allocations;
+ * {@link ArticleAllocationBenchmark} reports them per item.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class ParserBenchmark {
+
+    private static final String FEED_ADDRESS = "http://www.example.com/feed";
+    /** Old enough to include every article in the corpora, which date from 2015. */
+    private static final int MAX_AGE_DAYS = 36500;
+
+    @Param({"netflix.xml", "googledevelopers.xml", "slashfilm.xml", Corpus.SYNTHETIC_RSS, Corpus.SYNTHETIC_ATOM})
+    public String corpus;
+
+    private byte[] document;
+    private XmlPullParser xmlPullParser;
+    private final Predicate<Article> isUnchanged = Predicates.alwaysFalse();
+
+    /**
+     * Items and bytes parsed, reported by JMH as rates alongside the benchmark score.
+     */
+    @State(Scope.Thread)
+    @AuxCounters
+    public static class Counters {
+        public long items;
+        public long bytes;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            items = 0;
+            bytes = 0;
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException, XmlPullParserException {
+        document = Corpus.load(corpus);
+
+        XmlPullParserFactory xmlPullParserFactory = XmlPullParserFactory.newInstance();
+        xmlPullParserFactory.setNamespaceAware(true);
+        xmlPullParser = xmlPullParserFactory.newPullParser();
+    }
+
+    @Benchmark
+    public Parser newParser() throws IOException, XmlPullParserException {
+        xmlPullParser.setInput(new ByteArrayInputStream(document), null);
+        return ParserFactory.newParser(xmlPullParser);
+    }
+
+    @Benchmark
+    public Object parseFeed() throws IOException, XmlPullParserException {
+        Parser parser = newParser();
+        return parser.parseFeed(FEED_ADDRESS, xmlPullParser);
+    }
+
+    @Benchmark
+    public int parseArticles(Counters counters, final Blackhole blackhole) throws IOException, XmlPullParserException {
+        int numItems = parseArticles(new ArticleSink() {
+            @Override
+            public void accept(Article article) {
+                blackhole.consume(article);
+            }
+        });
+        counters.items += numItems;
+        counters.bytes += document.length;
+        return numItems;
+    }
+
+    private int parseArticles(ArticleSink sink) throws IOException, XmlPullParserException {
+        Parser parser = newParser();
+        return parser.parseArticles(FEED_ADDRESS, xmlPullParser, MAX_AGE_DAYS, isUnchanged, sink);
+    }
+
+}
@@ -1,16 +1,15 @@
 package net.elprespufferfish.rssreader;
 
-import android.os.Parcel;
-import android.os.Parcelable;
-
 import org.joda.time.DateTime;
 
+import java.io.Serializable;
+
 /**
  * Represents a single item to be read.
  *
  * @author elprespufferfish
  */
-public class Article implements Parcelable {
+public class Article implements Serializable {
 
     public static class Builder {
 
@@ -22,6 +21,31 @@ public class Article implements Parcelable {
         private String description;
         private String imageUrl;
         private String guid;
+        private String body;
+        private String excerpt;
+        private String text;
+        private int wordCount;
+
+        public Builder() {
+        }
+
+        /**
+         * Start from a copy of an existing article.
+         */
+        public Builder(Article article) {
+            this.id = article.id;
+            this.feed = article.feed;
+            this.title = article.title;
+            this.link = article.link;
+            this.publicationDate = article.publicationDate;
+            this.description = article.description;
+            this.imageUrl = article.imageUrl;
+            this.guid = article.guid;
+            this.body = article.body;
+            this.excerpt = article.excerpt;
+            this.text = article.text;
+            this.wordCount = article.wordCount;
+        }
 
         public void setId(int id) {
             this.id = id;
@@ -55,27 +79,28 @@ public class Article implements Parcelable {
             this.guid = guid;
         }
 
-        public Article build() {
-            return new Article(id, feed, title, link, publicationDate, description, imageUrl, guid);
+        public void setBody(String body) {
+            this.body = body;
+        }
+
+        public void setExcerpt(String excerpt) {
+            this.excerpt = excerpt;
         }
-    }
 
-    public static final Parcelable.Creator<Article> CREATOR = new Parcelable.Creator<Article>() {
-        public Article createFromParcel(Parcel in) {
-            return new Article(in.readInt(),
-                    in.readString(),
-                    in.readString(),
-                    in.readString(),
-                    new DateTime(in.readLong()),
-                    in.readString(),
-                    in.readString(),
-                    in.readString());
+        public void setText(String text) {
+            this.text = text;
         }
 
-        public Article[] newArray(int size) {
-            return new Article[size];
+        public void setWordCount(int wordCount) {
+            this.wordCount = wordCount;
         }
-    };
+
+        public Article build() {
+            return new Article(id, feed, title, link, publicationDate, description, imageUrl, guid, body, excerpt, text, wordCount);
+        }
+    }
+
+    private static final long serialVersionUID = 1L;
 
     private final int id;
     private final String feed;
@@ -85,6 +110,10 @@ public class Article implements Parcelable {
     private final String description;
     private final String imageUrl;
     private final String guid;
+    private final String body;
+    private final String excerpt;
+    private final String text;
+    private final int wordCount;
 
     private Article(
             int id,
@@ -94,7 +123,11 @@ public class Article implements Parcelable {
             DateTime publicationDate,
             String description,
             String imageUrl,
-            String guid) {
+            String guid,
+            String body,
+            String excerpt,
+            String text,
+            int wordCount) {
         this.id = id;
         this.feed = feed;
         this.title = title;
@@ -103,6 +136,10 @@ public class Article implements Parcelable {
         this.description = description;
         this.imageUrl = imageUrl;
         this.guid = guid;
+        this.body = body;
+        this.excerpt = excerpt;
+        this.text = text;
+        this.wordCount = wordCount;
     }
 
     /**
@@ -143,21 +180,29 @@ public class Article implements Parcelable {
         return guid;
     }
 
-    @Override
-    public int describeContents() {
-        return 0;
+    /**
+     * @return sanitized, render-ready HTML of the description, or <code>null</code> if it has not been rendered.
+     */
+    public String getBody() {
+        return body;
+    }
+
+    /**
+     * @return start of the description as plain text, or <code>null</code> if it has not been rendered.
+     */
+    public String getExcerpt() {
+        return excerpt;
+    }
+
+    /**
+     * @return body as plain text, for indexing, or <code>null</code> if it was not rendered during this refresh.
+     */
+    public String getText() {
+        return text;
     }
 
-    @Override
-    public void writeToParcel(Parcel dest, int flags) {
-        dest.writeInt(id);
-        dest.writeString(feed);
-        dest.writeString(title);
-        dest.writeString(link);
-        dest.writeLong(publicationDate.getMillis());
-        dest.writeString(description);
-        dest.writeString(imageUrl);
-        dest.writeString(guid);
+    public int getWordCount() {
+        return wordCount;
     }
 
 }
@@ -1,7 +1,5 @@
 package net.elprespufferfish.rssreader;
 
-import android.content.Context;
-
 import com.google.common.base.Objects;
 import com.google.common.base.Preconditions;
 import com.google.common.hash.HashCode;
@@ -46,8 +44,11 @@ public class Feed {
         }
     }
 
-    public static Feed nullFeed(Context context) {
-        return new Feed(context.getString(R.string.all_feeds), null);
+    /**
+     * @return sentinel Feed, with no URL, standing for all feeds.
+     */
+    public static Feed nullFeed(String name) {
+        return new Feed(name, null);
     }
 
     private final String name;
@@ -0,0 +1,115 @@
+package net.elprespufferfish.rssreader.db;
+
+import net.elprespufferfish.rssreader.Article;
+import net.elprespufferfish.rssreader.net.CacheValidators;
+import net.elprespufferfish.rssreader.net.FeedFetchStatistics;
+import net.elprespufferfish.rssreader.net.FeedHealth;
+import net.elprespufferfish.rssreader.net.RefreshCandidate;
+import net.elprespufferfish.rssreader.net.RefreshStatistics;
+import net.elprespufferfish.rssreader.net.ResolvedImage;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Storage used while refreshing feeds, implemented by the platform's database.
+ *
+ * <p>Methods that write are only called from a single thread at a time.
+ */
+public interface FeedStore {
+
+    /**
+     * @return feeds whose next scheduled refresh is at or before the provided time.
+     */
+    List<RefreshCandidate> getRefreshCandidates(long time);
+
+    /**
+     * @return index of the articles already stored for the feed.
+     */
+    KnownArticles getKnownArticles(int feedId);
+
+    /**
+     * Store new articles and update stored articles whose content has changed, preserving their read state.
+     * @return number of new articles stored.
+     */
+    int addArticles(int feedId, List<Article> articles);
+
+    /**
+     * Remove articles that are older than the retention period.
+     */
+    void removeOldArticles();
+
+    /**
+     * @return validators from the last successful fetch of the feed.
+     */
+    CacheValidators getCacheValidators(int feedId);
+
+    /**
+     * Record validators to be sent with the next fetch of the feed.
+     */
+    void setCacheValidators(int feedId, CacheValidators validators);
+
+    /**
+     * @return publication times of the most recent articles in the feed, newest first.
+     */
+    List<Long> getRecentPublicationDates(int feedId, int limit);
+
+    /**
+     * Record when the feed should next be fetched.
+     */
+    void scheduleNextRefresh(int feedId, long intervalMs, long nextRefresh);
+
+    /**
+     * @return record of consecutive failures fetching the feed.
+     */
+    FeedHealth getFeedHealth(int feedId);
+
+    /**
+     * Record a failed fetch and when the feed should next be attempted.
+     */
+    void recordFailure(int feedId, FeedHealth health, long nextAttempt);
+
+    /**
+     * Forget previous failures after a successful fetch.
+     */
+    void clearFailures(int feedId);
+
+    /**
+     * Record the start of a refresh run.
+     * @return id of the run, to be passed to {@link #addFetchStatistics} and {@link #finishRefreshRun}.
+     */
+    long startRefreshRun(long startTime);
+
+    /**
+     * Record the outcome of a refresh run.
+     */
+    void finishRefreshRun(long runId, long durationMs, RefreshStatistics statistics);
+
+    /**
+     * Record the measurements of fetching a single feed.
+     */
+    void addFetchStatistics(long runId, int feedId, FeedFetchStatistics statistics);
+
+    /**
+     * @return ids and links of articles whose image has not been resolved yet, newest first.
+     */
+    Map<Integer, String> getArticlesPendingImages(int limit);
+
+    /**
+     * @return previously scraped images for the provided pages.  Pages without an image map to <code>null</code>,
+     * pages that have not been scraped are absent.
+     */
+    Map<String, String> getCachedImageUrls(Collection<String> pageUrls);
+
+    /**
+     * Store scraped images against their articles.
+     */
+    void storeResolvedImages(List<ResolvedImage> images);
+
+    /**
+     * Give up on scraping images for the provided articles.
+     */
+    void markImagesFailed(Collection<Integer> articleIds);
+
+}
@@ -0,0 +1,51 @@
+package net.elprespufferfish.rssreader.db;
+
+import com.google.common.base.Predicate;
+
+import net.elprespufferfish.rssreader.Article;
+import net.elprespufferfish.rssreader.parsing.Articles;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * In-memory index of the articles already stored for a feed, so that parsing can skip unchanged
+ * items without querying the database.
+ *
+ * <p>Maps the hash of each stored GUID to the hash of its content.
+ */
+public class KnownArticles implements Predicate<Article> {
+
+    private final Map<Long, Long> contentHashByGuidHash;
+
+    /**
+     * @param contentHashByGuidHash content hash of each stored article, keyed by the hash of its GUID.
+     */
+    public KnownArticles(Map<Long, Long> contentHashByGuidHash) {
+        this.contentHashByGuidHash = contentHashByGuidHash;
+    }
+
+    /**
+     * @return true if the article has already been stored for the feed and has not changed since.
+     */
+    @Override
+    public synchronized boolean apply(Article article) {
+        Long contentHash = contentHashByGuidHash.get(Articles.hashGuid(article.getGuid()));
+        return contentHash != null && contentHash == Articles.hashContent(article);
+    }
+
+    /**
+     * @return true if an article with the GUID hash has been stored for the feed.
+     */
+    public synchronized boolean contains(long guidHash) {
+        return contentHashByGuidHash.containsKey(guidHash);
+    }
+
+    /**
+     * Remember an article once it has been stored.
+     */
+    public synchronized void put(long guidHash, long contentHash) {
+        contentHashByGuidHash.put(guidHash, contentHash);
+    }
+
+}
@@ -0,0 +1,235 @@
+package net.elprespufferfish.rssreader.net;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+import net.elprespufferfish.rssreader.Article;
+import net.elprespufferfish.rssreader.db.FeedStore;
+import net.elprespufferfish.rssreader.parsing.ArticleSink;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * The single thread that writes to the database during a refresh.
+ *
+ * <p>Parsers hand articles over through a bounded queue and block once it is full, so memory use
+ * stays constant however large a feed is.  Articles are stored in batches, each in its own
+ * transaction.  Other work queued through {@link #execute(Runnable)} runs in order with them, so
+ * fetches never contend for the database.
+ */
+class ArticleWriter {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ArticleWriter.class);
+
+    /**
+     * Notified on the writer thread once every article of a feed has been handled.
+     */
+    interface FeedCallback {
+
+        void onStored(int numInserted, long writeMs);
+
+        void onFailed(RuntimeException e, long writeMs);
+
+    }
+
+    private final FeedStore feedStore;
+    private final int batchSize;
+    private final BlockingQueue<Runnable> queue;
+    // only touched by the writer thread
+    private final Map<Integer, FeedBatch> batchesByFeed = new HashMap<>();
+
+    private final Object statisticsLock = new Object();
+    private int peakQueueDepth = 0;
+    private int articlesWritten = 0;
+    private int batchesWritten = 0;
+    private long writeNanos = 0;
+
+    /**
+     * @param capacity number of articles and tasks that may wait to be written.
+     * @param batchSize number of articles of a feed written per transaction.
+     */
+    ArticleWriter(FeedStore feedStore, int capacity, int batchSize) {
+        this.feedStore = feedStore;
+        this.batchSize = batchSize;
+        this.queue = new ArrayBlockingQueue<>(capacity);
+
+        Thread thread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                while (true) {
+                    try {
+                        queue.take().run();
+                    } catch (InterruptedException e) {
+                        return;
+                    } catch (RuntimeException e) {
+                        LOGGER.error("Write failed", e);
+                    }
+                }
+            }
+        }, "ArticleWriter");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * @return sink which queues the feed's articles for writing.
+     */
+    ArticleSink newSink(final int feedId) {
+        return new ArticleSink() {
+            @Override
+            public void accept(final Article article) throws IOException {
+                try {
+                    put(new Runnable() {
+                        @Override
+                        public void run() {
+                            FeedBatch batch = getBatch(feedId);
+                            batch.articles.add(article);
+                            if (batch.articles.size() >= batchSize) {
+                                flush(feedId, batch);
+                            }
+                        }
+                    });
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException("Interrupted while queueing article for " + feedId);
+                }
+            }
+        };
+    }
+
+    /**
+     * Write whatever remains of the feed's articles, then notify the callback.
+     */
+    void completeFeed(final int feedId, final FeedCallback callback) throws InterruptedException {
+        put(new Runnable() {
+            @Override
+            public void run() {
+                FeedBatch batch = getBatch(feedId);
+                flush(feedId, batch);
+                batchesByFeed.remove(feedId);
+                if (batch.error != null) {
+                    callback.onFailed(batch.error, MILLISECONDS.convert(batch.writeNanos, NANOSECONDS));
+                } else {
+                    callback.onStored(batch.numInserted, MILLISECONDS.convert(batch.writeNanos, NANOSECONDS));
+                }
+            }
+        });
+    }
+
+    /**
+     * Discard the feed's articles that have not been written yet.  Articles already written are kept.
+     */
+    void abandonFeed(final int feedId) throws InterruptedException {
+        put(new Runnable() {
+            @Override
+            public void run() {
+                batchesByFeed.remove(feedId);
+            }
+        });
+    }
+
+    /**
+     * Queue a task to run on the writer thread after everything queued before it.
+     */
+    void execute(final Runnable task) throws InterruptedException {
+        put(new Runnable() {
+            @Override
+            public void run() {
+                task.run();
+            }
+        });
+    }
+
+    /**
+     * Block until everything queued so far has been written.
+     */
+    void awaitIdle() throws InterruptedException {
+        final CountDownLatch latch = new CountDownLatch(1);
+        put(new Runnable() {
+            @Override
+            public void run() {
+                latch.countDown();
+            }
+        });
+        latch.await();
+    }
+
+    /**
+     * Record the writer's counters since the last call into the statistics.
+     */
+    void drainStatistics(RefreshStatistics statistics) {
+        synchronized (statisticsLock) {
+            statistics.setWriteStage(articlesWritten, batchesWritten, MILLISECONDS.convert(writeNanos, NANOSECONDS), peakQueueDepth);
+            peakQueueDepth = queue.size();
+            articlesWritten = 0;
+            batchesWritten = 0;
+            writeNanos = 0;
+        }
+    }
+
+    private void put(Runnable item) throws InterruptedException {
+        queue.put(item);
+        int depth = queue.size();
+        synchronized (statisticsLock) {
+            peakQueueDepth = Math.max(peakQueueDepth, depth);
+        }
+    }
+
+    private FeedBatch getBatch(int feedId) {
+        FeedBatch batch = batchesByFeed.get(feedId);
+        if (batch == null) {
+            batch = new FeedBatch();
+            batchesByFeed.put(feedId, batch);
+        }
+        return batch;
+    }
+
+    private void flush(int feedId, FeedBatch batch) {
+        if (batch.articles.isEmpty()) {
+            return;
+        }
+        if (batch.error != null) {
+            // the feed has already failed, nothing more of it will be stored
+            batch.articles.clear();
+            return;
+        }
+        long startTime = System.nanoTime();
+        try {
+            batch.numInserted += feedStore.addArticles(feedId, batch.articles);
+        } catch (RuntimeException e) {
+            batch.error = e;
+        }
+        long durationNanos = System.nanoTime() - startTime;
+        batch.writeNanos += durationNanos;
+        synchronized (statisticsLock) {
+            articlesWritten += batch.articles.size();
+            batchesWritten++;
+            writeNanos += durationNanos;
+        }
+        batch.articles.clear();
+    }
+
+    /**
+     * Articles of a feed waiting to be written, and the outcome of those already written.
+     */
+    private static class FeedBatch {
+
+        private final List<Article> articles = new ArrayList<>();
+        private int numInserted = 0;
+        private long writeNanos = 0;
+        private RuntimeException error;
+
+    }
+
+}
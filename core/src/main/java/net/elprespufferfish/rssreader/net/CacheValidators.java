@@ -0,0 +1,56 @@
+package net.elprespufferfish.rssreader.net;
+
+/**
+ * HTTP cache validators returned with a feed, used to issue conditional GETs on the next refresh.
+ *
+ * <p>Servers that send neither validator are instead recognised as unchanged by a hash of the body.
+ *
+ * @see <a href="https://tools.ietf.org/html/rfc7232">https://tools.ietf.org/html/rfc7232</a>
+ */
+public class CacheValidators {
+
+    /** Validators for a feed that has never been fetched. */
+    public static final CacheValidators NONE = new CacheValidators(null, null, null);
+
+    private final String etag;
+    private final String lastModified;
+    private final Long bodyHash;
+
+    /**
+     * @param etag value of the ETag header, or <code>null</code>.
+     * @param lastModified value of the Last-Modified header, or <code>null</code>.
+     * @param bodyHash hash of the response body, or <code>null</code> if the server sent validators.
+     */
+    public CacheValidators(String etag, String lastModified, Long bodyHash) {
+        this.etag = etag;
+        this.lastModified = lastModified;
+        this.bodyHash = bodyHash;
+    }
+
+    /**
+     * @return ETag to send as If-None-Match, or <code>null</code>.
+     */
+    public String getEtag() {
+        return etag;
+    }
+
+    /**
+     * @return Last-Modified date to send as If-Modified-Since, or <code>null</code>.
+     */
+    public String getLastModified() {
+        return lastModified;
+    }
+
+    /**
+     * @return hash of the previously parsed body, or <code>null</code>.
+     */
+    public Long getBodyHash() {
+        return bodyHash;
+    }
+
+    @Override
+    public String toString() {
+        return "etag=" + etag + ", lastModified=" + lastModified + ", bodyHash=" + bodyHash;
+    }
+
+}
@@ -0,0 +1,75 @@
+package net.elprespufferfish.rssreader.net;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PushbackInputStream;
+import java.util.Locale;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Negotiation and streaming decoding of HTTP content codings.
+ *
+ * @see <a href="https://tools.ietf.org/html/rfc7231#section-3.1.2.1">https://tools.ietf.org/html/rfc7231#section-3.1.2.1</a>
+ */
+public class ContentEncodings {
+
+    /** Value for the Accept-Encoding request header. */
+    public static final String ACCEPT_ENCODING = "gzip, deflate";
+
+    private static final int BUFFER_SIZE = 8192;
+
+    /**
+     * Wrap a raw response body so that it is decompressed as it is read.
+     *
+     * @param contentEncoding value of the Content-Encoding response header, or <code>null</code>.
+     * @throws IOException if the encoding is not supported or the stream header is invalid.
+     */
+    public static InputStream decode(String contentEncoding, InputStream body) throws IOException {
+        if (contentEncoding == null) {
+            return body;
+        }
+
+        String encoding = contentEncoding.trim().toLowerCase(Locale.US);
+        switch (encoding) {
+            case "":
+            case "identity":
+                return body;
+            case "gzip":
+            case "x-gzip":
+                return new GZIPInputStream(body, BUFFER_SIZE);
+            case "deflate":
+                return inflate(body);
+            default:
+                throw new IOException("Unsupported content encoding '" + contentEncoding + "'");
+        }
+    }
+
+    /**
+     * 'deflate' is specified as zlib-wrapped, but some servers send a raw deflate stream.
+     * Peek at the first two bytes to tell them apart.
+     */
+    private static InputStream inflate(InputStream body) throws IOException {
+        PushbackInputStream pushbackBody = new PushbackInputStream(body, 2);
+        int first = pushbackBody.read();
+        int second = pushbackBody.read();
+        if (second != -1) {
+            pushbackBody.unread(second);
+        }
+        if (first != -1) {
+            pushbackBody.unread(first);
+        }
+
+        boolean isZlibWrapped = first != -1
+                && second != -1
+                && (first & 0x0f) == 8 // compression method is deflate
+                && ((first << 8) | second) % 31 == 0; // header checksum
+        return new InflaterInputStream(pushbackBody, new Inflater(!isZlibWrapped), BUFFER_SIZE);
+    }
+
+    private ContentEncodings() {
+        // prevent instantiation
+    }
+
+}
@@ -0,0 +1,58 @@
+package net.elprespufferfish.rssreader.net;
+
+import static java.util.concurrent.TimeUnit.DAYS;
+
+/**
+ * Decides when a failing feed should next be attempted.
+ *
+ * <p>Each consecutive failure doubles the delay before the next attempt.  A feed that has been failing
+ * for {@link #QUARANTINE_AFTER_MS} is quarantined: instead of a full fetch it is only probed with a
+ * HEAD request, once every {@link #PROBE_INTERVAL_MS}, until the probe succeeds.
+ */
+public class FailureBackoff {
+
+    /** How long a feed must fail continuously before it is quarantined. */
+    public static final long QUARANTINE_AFTER_MS = DAYS.toMillis(3);
+
+    /** How often a quarantined feed is probed. */
+    public static final long PROBE_INTERVAL_MS = DAYS.toMillis(1);
+
+    /**
+     * @return health of the feed after another failed attempt at the provided time.
+     */
+    public static FeedHealth afterFailure(FeedHealth health, long now) {
+        long firstFailureTime = health.isHealthy() ? now : health.getFirstFailureTime();
+        boolean isQuarantined = health.isQuarantined() || now - firstFailureTime >= QUARANTINE_AFTER_MS;
+        return new FeedHealth(health.getFailureCount() + 1, firstFailureTime, isQuarantined);
+    }
+
+    /**
+     * @param minIntervalMs the scheduled refresh frequency; attempts are never due more often than this.
+     * @return time at which the failing feed should next be attempted.
+     */
+    public static long computeNextAttempt(int feedId, FeedHealth health, long now, long minIntervalMs) {
+        long maxDelayMs = Math.max(minIntervalMs, PROBE_INTERVAL_MS);
+        long delayMs;
+        if (health.isQuarantined()) {
+            delayMs = maxDelayMs;
+        } else {
+            // cap the shift so the delay cannot overflow
+            int doublings = Math.min(health.getFailureCount() - 1, 30);
+            delayMs = Math.min(maxDelayMs, minIntervalMs << doublings);
+        }
+        return RefreshIntervals.computeNextRefresh(feedId, now, delayMs);
+    }
+
+    /**
+     * @return true if the response to a probe suggests the feed is reachable again.
+     */
+    public static boolean isProbeHealthy(int responseCode) {
+        // some servers refuse HEAD but are otherwise serving content
+        return responseCode < 400 || responseCode == 405;
+    }
+
+    private FailureBackoff() {
+        // prevent instantiation
+    }
+
+}
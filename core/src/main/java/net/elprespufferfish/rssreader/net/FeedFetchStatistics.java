@@ -0,0 +1,106 @@
+package net.elprespufferfish.rssreader.net;
+
+/**
+ * Measurements from fetching a single feed during a refresh.
+ *
+ * <p>Populated by the fetching thread and completed by the writer.
+ */
+public class FeedFetchStatistics {
+
+    private final long fetchTime = System.currentTimeMillis();
+    private long connectMs;
+    private long firstByteMs;
+    private long wireBytes;
+    private long decodedBytes;
+    private long parseMs;
+    private long writeMs;
+    private long totalMs;
+    private int articlesInserted;
+    private int httpStatus;
+    private String errorClass;
+
+    /**
+     * Record the network measurements of the response.
+     */
+    public void setResponse(HttpResponse response) {
+        this.httpStatus = response.getCode();
+        this.connectMs = response.getConnectLatencyMs();
+        this.firstByteMs = response.getTimeToFirstByteMs();
+        this.wireBytes = response.getWireBytes();
+        this.decodedBytes = response.getDecodedBytes();
+    }
+
+    public void setParseMs(long parseMs) {
+        this.parseMs = parseMs;
+    }
+
+    public void setWriteMs(long writeMs) {
+        this.writeMs = writeMs;
+    }
+
+    public void setTotalMs(long totalMs) {
+        this.totalMs = totalMs;
+    }
+
+    public void setArticlesInserted(int articlesInserted) {
+        this.articlesInserted = articlesInserted;
+    }
+
+    /**
+     * Record the failure that ended the fetch.
+     */
+    public void setError(Throwable error) {
+        this.errorClass = error.getClass().getName();
+    }
+
+    public long getFetchTime() {
+        return fetchTime;
+    }
+
+    public long getConnectMs() {
+        return connectMs;
+    }
+
+    public long getFirstByteMs() {
+        return firstByteMs;
+    }
+
+    public long getWireBytes() {
+        return wireBytes;
+    }
+
+    public long getDecodedBytes() {
+        return decodedBytes;
+    }
+
+    public long getParseMs() {
+        return parseMs;
+    }
+
+    public long getWriteMs() {
+        return writeMs;
+    }
+
+    public long getTotalMs() {
+        return totalMs;
+    }
+
+    public int getArticlesInserted() {
+        return articlesInserted;
+    }
+
+    /**
+     * @return HTTP status of the response, or 0 if none was received.
+     */
+    public int getHttpStatus() {
+        return httpStatus;
+    }
+
+    /**
+     * @return class of the failure that ended the fetch, or <code>null</code> if it succeeded.
+     */
+    public String getErrorClass() {
+        return errorClass;
+    }
+
+}
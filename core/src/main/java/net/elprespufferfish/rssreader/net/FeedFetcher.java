@@ -0,0 +1,537 @@
+package net.elprespufferfish.rssreader.net;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+import com.google.common.base.Predicate;
+import com.google.common.base.Throwables;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hashing;
+import com.google.common.hash.HashingInputStream;
+import com.google.common.io.ByteStreams;
+import com.google.common.io.Closeables;
+import com.google.common.net.HttpHeaders;
+
+import net.elprespufferfish.rssreader.Article;
+import net.elprespufferfish.rssreader.Feed;
+import net.elprespufferfish.rssreader.db.FeedStore;
+import net.elprespufferfish.rssreader.parsing.ArticleBodies;
+import net.elprespufferfish.rssreader.parsing.ArticleSink;
+import net.elprespufferfish.rssreader.parsing.Parser;
+import net.elprespufferfish.rssreader.parsing.ParserFactory;
+
+import org.jsoup.Jsoup;
+import org.jsoup.nodes.Document;
+import org.jsoup.nodes.Element;
+import org.jsoup.select.Elements;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.xmlpull.v1.XmlPullParser;
+import org.xmlpull.v1.XmlPullParserException;
+import org.xmlpull.v1.XmlPullParserFactory;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.util.Collections;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * @author elprespufferfish
+ */
+public class FeedFetcher {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(FeedFetcher.class);
+
+    private static final Set<String> HTML_CONTENT_TYPES = ImmutableSet.<String> builder()
+            .add("text/html")
+            .build();
+
+    private static final Set<String> FEED_CONTENT_TYPES = ImmutableSet.<String> builder()
+            .add("application/rss+xml")
+            .add("application/atom+xml")
+            .add("text/xml")
+            .build();
+
+    private static final int MIN_CONCURRENT_FETCHES = 2;
+    private static final int MAX_CONCURRENT_FETCHES = 8;
+    private static final int MAX_CONCURRENT_FETCHES_PER_HOST = 2;
+    /** Articles and writes that may be waiting for the database before parsers block. */
+    private static final int WRITE_QUEUE_CAPACITY = 200;
+    /** Articles of a feed stored per transaction. */
+    private static final int WRITE_BATCH_SIZE = 50;
+
+    private static final HashFunction BODY_HASH = Hashing.murmur3_128();
+
+    private final FetchScheduler fetchScheduler = new FetchScheduler(MIN_CONCURRENT_FETCHES, MAX_CONCURRENT_FETCHES, MAX_CONCURRENT_FETCHES_PER_HOST);
+    private final ArticleWriter articleWriter;
+    private final FeedStore feedStore;
+    private final XmlPullParserFactory xmlPullParserFactory;
+    private final Transport transport;
+    private final AtomicBoolean isRefreshInProgress = new AtomicBoolean(false);
+    private final RefreshSettings settings;
+    private volatile RefreshStatistics lastRefreshStatistics;
+
+    public FeedFetcher(
+            FeedStore feedStore,
+            RefreshSettings settings,
+            Transport transport) {
+        this.feedStore = feedStore;
+        this.articleWriter = new ArticleWriter(feedStore, WRITE_QUEUE_CAPACITY, WRITE_BATCH_SIZE);
+        this.settings = settings;
+        this.transport = transport;
+        try {
+            xmlPullParserFactory = XmlPullParserFactory.newInstance();
+            xmlPullParserFactory.setNamespaceAware(true);
+        } catch (XmlPullParserException e) {
+            throw new RuntimeException("Could not instantiate XmlPullParserFactory", e);
+        }
+    }
+
+    /**
+     * @return Feed present at specified address, or List of autodiscovered feeds.
+     * @throws RuntimeException if the title could not be determined.
+     */
+    public List<Feed> getFeeds(String feedAddress) {
+        HttpResponse response = null;
+        try {
+            response = transport.execute(new HttpRequest.Builder().withUrl(feedAddress).build());
+
+            if (response.getCode() != HttpURLConnection.HTTP_OK) {
+                throw new RuntimeException("Could not fetch " + feedAddress);
+            }
+
+            String contentType = parseContentType(response.getHeader(HttpHeaders.CONTENT_TYPE));
+            if (isHtml(contentType)) {
+                return autoDiscoverFeeds(response, feedAddress);
+            } else if (isFeed(contentType)) {
+                return Collections.singletonList(getFeed(response, feedAddress));
+            } else {
+                throw new RuntimeException("Cannot handle content type '" + contentType + "'");
+            }
+        } catch (Exception e) {
+            throw Throwables.propagate(e);
+        } finally {
+            if (response != null) {
+                response.close();
+            }
+        }
+    }
+
+
+    private String parseContentType(String contentTypeHeader) {
+        // TODO - make less shitty
+        String[] parts = contentTypeHeader.split(";");
+        return parts[0];
+    }
+
+    private boolean isHtml(String contentType) {
+        return HTML_CONTENT_TYPES.contains(contentType);
+    }
+
+    private boolean isFeed(String contentType) {
+        return FEED_CONTENT_TYPES.contains(contentType);
+    }
+
+    /**
+     * Attempt to autodiscover feeds as described at <a href="http://www.rssboard.org/rss-autodiscovery">http://www.rssboard.org/rss-autodiscovery</a>
+     * @return List of autodiscovered RSS feeds
+     */
+    private List<Feed> autoDiscoverFeeds(HttpResponse response, String discoveryAddress) {
+        List<Feed> feeds = new LinkedList<>();
+
+        try {
+            Document document = Jsoup.parse(response.getBody(), null, discoveryAddress);
+            Elements elements = document.select("link[rel=alternate][type=application/rss+xml]");
+            for (Element element : elements) {
+                String feedUrl = element.attr("href");
+                if (feedUrl.startsWith("/")) {
+                    // ensure feedUrl is absolute
+                    URL discoveryUrl = new URL(discoveryAddress);
+                    feedUrl = discoveryUrl.getProtocol() + "://" + discoveryUrl.getHost() + (discoveryUrl.getPort() != -1 ? ":" + discoveryUrl.getPort() : "") + feedUrl;
+                }
+
+                // unfortunately, we can't trust that the provided 'title' is accurate
+                // so we re-fetch
+                Feed feed = getFeed(feedUrl);
+                feeds.add(feed);
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Could not discover feeds at " + discoveryAddress, e);
+        }
+
+        return feeds;
+    }
+
+    private Feed getFeed(String feedAddress) {
+        HttpResponse response = null;
+        try {
+            response = transport.execute(new HttpRequest.Builder().withUrl(feedAddress).build());
+
+            return getFeed(response, feedAddress);
+        } catch (Exception e) {
+            throw Throwables.propagate(e);
+        } finally {
+            if (response != null) {
+                response.close();
+            }
+        }
+    }
+
+    private Feed getFeed(HttpResponse response, String feedAddress) {
+        InputStream feedInput = null;
+        try {
+            feedInput = response.getBody();
+
+            XmlPullParser xmlPullParser = xmlPullParserFactory.newPullParser();
+            xmlPullParser.setInput(feedInput, null);
+
+            Parser feedParser = ParserFactory.newParser(xmlPullParser);
+            return feedParser.parseFeed(feedAddress, xmlPullParser);
+        } catch (Exception e) {
+            throw new UnsupportedOperationException("Unable to parse " + feedAddress, e);
+        } finally {
+            Closeables.closeQuietly(feedInput);
+        }
+    }
+
+
+    /**
+     * @return counters from the most recently completed refresh, or <code>null</code> if none has completed.
+     */
+    public RefreshStatistics getLastRefreshStatistics() {
+        return lastRefreshStatistics;
+    }
+
+    /**
+     * Trigger a refresh of feeds, most important first.
+     * @param includeAllFeeds if true, fetch every feed rather than only those that are due.
+     * @param budgetMs time after which no further feeds are started.  Feeds already being fetched
+     *                 are allowed to finish; feeds not yet started remain due for the next refresh.
+     * @return true iff a refresh was started.
+     */
+    public boolean refresh(boolean includeAllFeeds, long budgetMs) {
+        if (!isRefreshInProgress.compareAndSet(false, true)) {
+            LOGGER.info("Refresh already in progress");
+            return false;
+        }
+        LOGGER.info("Starting refresh");
+        long startTime = System.nanoTime();
+
+        final RefreshStatistics statistics = new RefreshStatistics();
+        final long runId = feedStore.startRefreshRun(System.currentTimeMillis());
+        fetchScheduler.drainPeakConcurrency();
+        fetchScheduler.drainPeakPending();
+        articleWriter.drainStatistics(new RefreshStatistics());
+        int connectionsOpened = transport.getConnectionsOpened();
+        int connectionsReused = transport.getConnectionsReused();
+        long now = System.currentTimeMillis();
+        List<RefreshCandidate> candidates;
+        if (includeAllFeeds) {
+            candidates = feedStore.getRefreshCandidates(Long.MAX_VALUE);
+        } else {
+            // allow some slack since the refresh alarm is inexact
+            candidates = feedStore.getRefreshCandidates(now + getMinRefreshInterval() / 8);
+        }
+        RefreshPriorities.sort(candidates, now);
+        LOGGER.info(candidates.size() + " feeds to refresh");
+        for (RefreshCandidate candidate : candidates) {
+            final String feedAddress = candidate.getFeed().getUrl();
+            final int feedId = candidate.getFeedId();
+            String host;
+            try {
+                host = new URL(feedAddress).getHost();
+            } catch (MalformedURLException e) {
+                statistics.feedFailed();
+                LOGGER.error("Could not parse feed " + feedAddress, e);
+                continue;
+            }
+
+            fetchScheduler.submit(host, new Callable<Boolean>() {
+                @Override
+                public Boolean call() throws InterruptedException {
+                    long startTime = System.nanoTime();
+                    final FeedFetchStatistics fetchStatistics = new FeedFetchStatistics();
+                    final FeedHealth health = feedStore.getFeedHealth(feedId);
+                    try {
+                        if (health.isQuarantined() && !probe(feedAddress, fetchStatistics)) {
+                            LOGGER.info(feedAddress + " is still unreachable");
+                        } else {
+                            parseFeed(feedAddress, feedId, health, runId, startTime, statistics, fetchStatistics);
+                            return true;
+                        }
+                    } catch (Exception e) {
+                        LOGGER.error("Could not parse feed " + feedAddress, e);
+                        fetchStatistics.setError(e);
+                    }
+
+                    statistics.feedFailed();
+                    fetchStatistics.setTotalMs(MILLISECONDS.convert(System.nanoTime() - startTime, NANOSECONDS));
+                    articleWriter.execute(new Runnable() {
+                        @Override
+                        public void run() {
+                            recordFailure(feedId, health);
+                            feedStore.addFetchStatistics(runId, feedId, fetchStatistics);
+                        }
+                    });
+                    return false;
+                }
+            });
+        }
+
+        try {
+            if (!fetchScheduler.awaitIdle(budgetMs, MILLISECONDS)) {
+                int numDeferred = fetchScheduler.cancelPending();
+                statistics.feedsDeferred(numDeferred);
+                LOGGER.info("Refresh budget of " + budgetMs + "ms exhausted, deferring " + numDeferred + " feeds");
+                fetchScheduler.awaitIdle();
+            }
+            // writes are queued in order, so this completes once every feed has been stored
+            articleWriter.awaitIdle();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            LOGGER.error("Interrupted while waiting for refresh", e);
+        }
+        statistics.setPeakConcurrency(fetchScheduler.drainPeakConcurrency());
+        statistics.setPeakPendingFetches(fetchScheduler.drainPeakPending());
+        articleWriter.drainStatistics(statistics);
+        statistics.setConnections(
+                transport.getConnectionsOpened() - connectionsOpened,
+                transport.getConnectionsReused() - connectionsReused);
+
+        long endTime = System.nanoTime();
+        long durationMs = MILLISECONDS.convert(endTime - startTime, NANOSECONDS);
+        LOGGER.info("Refresh complete in " + durationMs + "ms: " + statistics);
+        int numFetched = statistics.getUpdatedFeeds() + statistics.getUnchangedFeeds() + statistics.getFailedFeeds();
+        LOGGER.info("Fetch stage: peak queue " + statistics.getPeakPendingFetches() + ", " + perSecond(numFetched, durationMs) + " feeds/s; "
+                + "parse stage: " + perSecond(statistics.getArticlesParsed(), statistics.getParseMs()) + " articles/s; "
+                + "write stage: peak queue " + statistics.getPeakWriteQueueDepth() + ", " + statistics.getBatchesWritten() + " batches, "
+                + perSecond(statistics.getArticlesWritten(), statistics.getWriteMs()) + " articles/s");
+        lastRefreshStatistics = statistics;
+        feedStore.finishRefreshRun(runId, durationMs, statistics);
+
+        feedStore.removeOldArticles();
+
+        return isRefreshInProgress.getAndSet(false);
+    }
+
+    private void parseFeed(
+            final String feedAddress,
+            final int feedId,
+            final FeedHealth health,
+            final long runId,
+            final long startTime,
+            final RefreshStatistics statistics,
+            final FeedFetchStatistics fetchStatistics) throws IOException, XmlPullParserException, InterruptedException {
+        LOGGER.info("Attempting to parse " + feedAddress);
+
+        CacheValidators validators = feedStore.getCacheValidators(feedId);
+        HttpRequest.Builder requestBuilder = new HttpRequest.Builder().withUrl(feedAddress);
+        if (validators.getEtag() != null) {
+            requestBuilder.withHeader(HttpHeaders.IF_NONE_MATCH, validators.getEtag());
+        }
+        if (validators.getLastModified() != null) {
+            requestBuilder.withHeader(HttpHeaders.IF_MODIFIED_SINCE, validators.getLastModified());
+        }
+
+        HttpResponse response = transport.execute(requestBuilder.build());
+        try {
+            if (response.getCode() == HttpURLConnection.HTTP_NOT_MODIFIED) {
+                LOGGER.info(feedAddress + " has not been modified");
+                fetchStatistics.setResponse(response);
+                feedUnchanged(feedId, health, runId, startTime, statistics, fetchStatistics);
+                return;
+            }
+
+            InputStream feedInput = response.getBody();
+            Long bodyHash = null;
+            // hashed while it is parsed when there is no earlier hash to compare against
+            HashingInputStream streamingHashInput = null;
+            if (response.getHeader(HttpHeaders.ETAG) == null && response.getHeader(HttpHeaders.LAST_MODIFIED) == null) {
+                // nothing to send on a conditional GET, so compare the body itself before paying to parse it
+                HashingInputStream hashingInput = new HashingInputStream(BODY_HASH, feedInput);
+                if (validators.getBodyHash() == null) {
+                    streamingHashInput = hashingInput;
+                    feedInput = hashingInput;
+                } else {
+                    byte[] body = ByteStreams.toByteArray(hashingInput);
+                    bodyHash = hashingInput.hash().asLong();
+                    if (bodyHash.equals(validators.getBodyHash())) {
+                        LOGGER.info(feedAddress + " has an unchanged body");
+                        statistics.feedDownloaded(response.getWireBytes(), response.getDecodedBytes());
+                        fetchStatistics.setResponse(response);
+                        feedUnchanged(feedId, health, runId, startTime, statistics, fetchStatistics);
+                        return;
+                    }
+                    feedInput = new ByteArrayInputStream(body);
+                }
+            }
+
+            // articles stream to the writer as they are parsed, whatever it has not yet stored is dropped on failure
+            long parseStartTime = System.nanoTime();
+            int numParsed;
+            try {
+                Predicate<Article> isUnchanged = feedStore.getKnownArticles(feedId);
+                // bodies are rendered here so the work is spread over the fetch threads rather than the writer
+                ArticleSink sink = ArticleBodies.renderingSink(articleWriter.newSink(feedId));
+                numParsed = parseArticles(feedInput, feedAddress, isUnchanged, sink);
+                if (streamingHashInput != null) {
+                    // the parser may stop before the end of the body, which the hash must still cover
+                    ByteStreams.copy(streamingHashInput, ByteStreams.nullOutputStream());
+                    bodyHash = streamingHashInput.hash().asLong();
+                }
+            } catch (IOException | XmlPullParserException | RuntimeException e) {
+                articleWriter.abandonFeed(feedId);
+                throw e;
+            }
+            long parseMs = MILLISECONDS.convert(System.nanoTime() - parseStartTime, NANOSECONDS);
+            fetchStatistics.setParseMs(parseMs);
+            fetchStatistics.setResponse(response);
+            LOGGER.info("Downloaded " + feedAddress + ": " + response.getWireBytes() + " bytes on the wire, "
+                    + response.getDecodedBytes() + " bytes decoded");
+            statistics.feedDownloaded(response.getWireBytes(), response.getDecodedBytes());
+            statistics.feedParsed(numParsed, parseMs);
+            final CacheValidators newValidators = new CacheValidators(
+                    response.getHeader(HttpHeaders.ETAG),
+                    response.getHeader(HttpHeaders.LAST_MODIFIED),
+                    bodyHash);
+
+            articleWriter.completeFeed(feedId, new ArticleWriter.FeedCallback() {
+                @Override
+                public void onStored(int numInserted, long writeMs) {
+                    // only remember validators once the articles they describe have been stored
+                    feedStore.setCacheValidators(feedId, newValidators);
+                    if (!health.isHealthy()) {
+                        feedStore.clearFailures(feedId);
+                    }
+                    scheduleNextRefresh(feedId);
+                    statistics.feedUpdated(numInserted);
+                    fetchStatistics.setArticlesInserted(numInserted);
+                    finish(writeMs);
+                }
+
+                @Override
+                public void onFailed(RuntimeException e, long writeMs) {
+                    statistics.feedFailed();
+                    fetchStatistics.setError(e);
+                    recordFailure(feedId, health);
+                    LOGGER.error("Could not store articles for " + feedAddress, e);
+                    finish(writeMs);
+                }
+
+                private void finish(long writeMs) {
+                    long durationMs = MILLISECONDS.convert(System.nanoTime() - startTime, NANOSECONDS);
+                    LOGGER.info("Finished parsing " + feedAddress + " in " + durationMs + "ms");
+                    fetchStatistics.setWriteMs(writeMs);
+                    fetchStatistics.setTotalMs(durationMs);
+                    feedStore.addFetchStatistics(runId, feedId, fetchStatistics);
+                }
+            });
+        } catch (IOException | XmlPullParserException | RuntimeException e) {
+            // keep whatever was learned about the response for the failure record
+            fetchStatistics.setResponse(response);
+            throw e;
+        } finally {
+            response.close();
+        }
+    }
+
+    private static long perSecond(long count, long durationMs) {
+        return durationMs > 0 ? count * 1000 / durationMs : 0;
+    }
+
+    /**
+     * Record a feed whose content has not changed since it was last stored.
+     */
+    private void feedUnchanged(
+            final int feedId,
+            final FeedHealth health,
+            final long runId,
+            final long startTime,
+            RefreshStatistics statistics,
+            final FeedFetchStatistics fetchStatistics) throws InterruptedException {
+        statistics.feedUnchanged();
+        articleWriter.execute(new Runnable() {
+            @Override
+            public void run() {
+                if (!health.isHealthy()) {
+                    feedStore.clearFailures(feedId);
+                }
+                scheduleNextRefresh(feedId);
+                fetchStatistics.setTotalMs(MILLISECONDS.convert(System.nanoTime() - startTime, NANOSECONDS));
+                feedStore.addFetchStatistics(runId, feedId, fetchStatistics);
+            }
+        });
+    }
+
+    /**
+     * Cheaply check whether a quarantined feed is reachable again.
+     * @return true if the feed should be fetched in full.
+     */
+    private boolean probe(String feedAddress, FeedFetchStatistics fetchStatistics) throws IOException {
+        LOGGER.info("Probing quarantined feed " + feedAddress);
+        HttpResponse response = transport.execute(new HttpRequest.Builder()
+                .withMethod(HttpRequest.HEAD)
+                .withUrl(feedAddress)
+                .build());
+        try {
+            fetchStatistics.setResponse(response);
+            return FailureBackoff.isProbeHealthy(response.getCode());
+        } finally {
+            response.close();
+        }
+    }
+
+    /**
+     * Back off from a feed that failed, quarantining it if it has been failing for too long.
+     * Must be called on the write executor.
+     */
+    private void recordFailure(int feedId, FeedHealth health) {
+        long now = System.currentTimeMillis();
+        FeedHealth failedHealth = FailureBackoff.afterFailure(health, now);
+        if (failedHealth.isQuarantined() && !health.isQuarantined()) {
+            LOGGER.warn("Quarantining feed " + feedId + " after " + failedHealth.getFailureCount() + " failures");
+        }
+        long nextAttempt = FailureBackoff.computeNextAttempt(feedId, failedHealth, now, getMinRefreshInterval());
+        feedStore.recordFailure(feedId, failedHealth, nextAttempt);
+    }
+
+    /**
+     * Pick the next fetch time for a feed from its publication history.
+     * Must be called on the write executor.
+     */
+    private void scheduleNextRefresh(int feedId) {
+        long now = System.currentTimeMillis();
+        List<Long> publicationDates = feedStore.getRecentPublicationDates(feedId, RefreshIntervals.HISTORY_SIZE);
+        long intervalMs = RefreshIntervals.computeInterval(publicationDates, now, getMinRefreshInterval());
+        feedStore.scheduleNextRefresh(feedId, intervalMs, RefreshIntervals.computeNextRefresh(feedId, now, intervalMs));
+    }
+
+    /**
+     * @return the scheduled refresh frequency chosen by the user.
+     */
+    private long getMinRefreshInterval() {
+        return settings.getRefreshFrequencyMs();
+    }
+
+    /**
+     * Parse articles from the body.  The stream is left open, closing the response releases it.
+     */
+    private int parseArticles(InputStream feedInput, String feedAddress, Predicate<Article> isUnchanged, ArticleSink sink) throws IOException, XmlPullParserException {
+        XmlPullParser xmlPullParser = xmlPullParserFactory.newPullParser();
+        xmlPullParser.setInput(feedInput, null);
+
+        Parser articleParser = ParserFactory.newParser(xmlPullParser);
+        int maxAge = settings.getRetentionDays();
+        return articleParser.parseArticles(feedAddress, xmlPullParser, maxAge, isUnchanged, sink);
+    }
+
+}
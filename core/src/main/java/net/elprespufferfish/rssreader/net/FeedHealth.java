@@ -0,0 +1,57 @@
+package net.elprespufferfish.rssreader.net;
+
+/**
+ * Record of consecutive failures fetching a feed.
+ */
+public class FeedHealth {
+
+    public static final FeedHealth HEALTHY = new FeedHealth(0, 0, false);
+
+    private final int failureCount;
+    private final long firstFailureTime;
+    private final boolean isQuarantined;
+
+    public FeedHealth(int failureCount, long firstFailureTime, boolean isQuarantined) {
+        this.failureCount = failureCount;
+        this.firstFailureTime = firstFailureTime;
+        this.isQuarantined = isQuarantined;
+    }
+
+    /**
+     * @return number of fetches that have failed since the last success.
+     */
+    public int getFailureCount() {
+        return failureCount;
+    }
+
+    /**
+     * @return time of the first failure since the last success, or 0 if the last fetch succeeded.
+     */
+    public long getFirstFailureTime() {
+        return firstFailureTime;
+    }
+
+    /**
+     * @return true if the feed has failed for long enough that it is only probed rather than fetched.
+     */
+    public boolean isQuarantined() {
+        return isQuarantined;
+    }
+
+    /**
+     * @return true if the last fetch succeeded.
+     */
+    public boolean isHealthy() {
+        return failureCount == 0;
+    }
+
+    @Override
+    public String toString() {
+        return "FeedHealth{"
+                + "failureCount=" + failureCount
+                + ", firstFailureTime=" + firstFailureTime
+                + ", isQuarantined=" + isQuarantined
+                + "}";
+    }
+
+}
@@ -0,0 +1,263 @@
+package net.elprespufferfish.rssreader.net;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs feed fetches with a global concurrency limit and a per-host concurrency limit.
+ *
+ * <p>Fetches start in submission order, skipping over those whose host is already at its limit, so
+ * callers submit the most important fetches first.
+ *
+ * <p>The global limit adapts to observed behaviour: it grows by one after a full window of
+ * healthy fetches and shrinks multiplicatively when fetches fail or latency climbs well above
+ * the best latency seen so far.
+ */
+public class FetchScheduler {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(FetchScheduler.class);
+
+    /** Weight of the newest sample in the latency moving average. */
+    private static final double LATENCY_SMOOTHING = 0.2;
+    /** Latency above this multiple of the baseline is treated as congestion. */
+    private static final double CONGESTION_FACTOR = 2.0;
+
+    private final int minConcurrency;
+    private final int maxConcurrency;
+    private final int maxPerHost;
+    private final ThreadPoolExecutor executor;
+
+    private final Object lock = new Object();
+    // pending fetches in submission order
+    private final List<FetchRunnable> pending = new LinkedList<>();
+    private final Map<String, Integer> runningByHost = new HashMap<>();
+    private int numRunning = 0;
+    private int peakRunning = 0;
+    private int peakPending = 0;
+    private int concurrencyLimit;
+    private int completionsSinceAdjustment = 0;
+    private boolean congestedInWindow = false;
+    private double averageLatencyMs = -1;
+    private double baselineLatencyMs = -1;
+
+    /**
+     * @param minConcurrency lower bound on the global number of fetches in flight.
+     * @param maxConcurrency upper bound on the global number of fetches in flight.
+     * @param maxPerHost upper bound on the number of fetches in flight against a single host.
+     */
+    public FetchScheduler(int minConcurrency, int maxConcurrency, int maxPerHost) {
+        this.minConcurrency = minConcurrency;
+        this.maxConcurrency = maxConcurrency;
+        this.maxPerHost = maxPerHost;
+        this.concurrencyLimit = minConcurrency;
+        this.executor = new ThreadPoolExecutor(
+                maxConcurrency,
+                maxConcurrency,
+                30,
+                TimeUnit.SECONDS,
+                new LinkedBlockingQueue<Runnable>());
+        this.executor.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * Queue a fetch against the provided host.
+     *
+     * @param fetch returns true if the fetch succeeded.  Exceptions are treated as failures.
+     */
+    public void submit(String host, Callable<Boolean> fetch) {
+        synchronized (lock) {
+            pending.add(new FetchRunnable(host, fetch));
+            dispatch();
+            peakPending = Math.max(peakPending, pending.size());
+        }
+    }
+
+    /**
+     * Block until all submitted fetches have completed.
+     */
+    public void awaitIdle() throws InterruptedException {
+        synchronized (lock) {
+            while (!pending.isEmpty() || numRunning > 0) {
+                lock.wait();
+            }
+        }
+    }
+
+    /**
+     * Block until all submitted fetches have completed or the timeout elapses.
+     * @return true if all submitted fetches completed.
+     */
+    public boolean awaitIdle(long timeout, TimeUnit unit) throws InterruptedException {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        synchronized (lock) {
+            while (!pending.isEmpty() || numRunning > 0) {
+                long remainingMs = MILLISECONDS.convert(deadline - System.nanoTime(), NANOSECONDS);
+                if (remainingMs <= 0) {
+                    return false;
+                }
+                lock.wait(remainingMs);
+            }
+            return true;
+        }
+    }
+
+    /**
+     * Discard fetches that have not yet started.  Fetches already in flight are unaffected.
+     * @return number of fetches discarded.
+     */
+    public int cancelPending() {
+        synchronized (lock) {
+            int numCancelled = pending.size();
+            pending.clear();
+            lock.notifyAll();
+            return numCancelled;
+        }
+    }
+
+    /**
+     * @return the highest number of simultaneous fetches since the last call.
+     */
+    public int drainPeakConcurrency() {
+        synchronized (lock) {
+            int peak = peakRunning;
+            peakRunning = numRunning;
+            return peak;
+        }
+    }
+
+    /**
+     * @return the highest number of fetches waiting to start since the last call.
+     */
+    public int drainPeakPending() {
+        synchronized (lock) {
+            int peak = peakPending;
+            peakPending = pending.size();
+            return peak;
+        }
+    }
+
+    /**
+     * @return current global concurrency limit.
+     */
+    public int getConcurrencyLimit() {
+        synchronized (lock) {
+            return concurrencyLimit;
+        }
+    }
+
+    /**
+     * Start as many pending fetches as the limits allow, earliest submitted first.
+     * Must be called while holding {@link #lock}.
+     */
+    private void dispatch() {
+        Iterator<FetchRunnable> iterator = pending.iterator();
+        while (iterator.hasNext() && numRunning < concurrencyLimit) {
+            FetchRunnable fetch = iterator.next();
+            int runningForHost = runningByHost.containsKey(fetch.host) ? runningByHost.get(fetch.host) : 0;
+            if (runningForHost >= maxPerHost) {
+                continue;
+            }
+
+            iterator.remove();
+            numRunning++;
+            peakRunning = Math.max(peakRunning, numRunning);
+            runningByHost.put(fetch.host, runningForHost + 1);
+            executor.execute(fetch);
+        }
+    }
+
+    private void onComplete(String host, boolean succeeded, long latencyMs) {
+        synchronized (lock) {
+            numRunning--;
+            int runningForHost = runningByHost.get(host) - 1;
+            if (runningForHost == 0) {
+                runningByHost.remove(host);
+            } else {
+                runningByHost.put(host, runningForHost);
+            }
+
+            adjustConcurrency(succeeded, latencyMs);
+            dispatch();
+            lock.notifyAll();
+        }
+    }
+
+    /**
+     * Additive increase / multiplicative decrease of the global limit.
+     * Must be called while holding {@link #lock}.
+     */
+    private void adjustConcurrency(boolean succeeded, long latencyMs) {
+        completionsSinceAdjustment++;
+
+        boolean isCongested = !succeeded;
+        if (succeeded) {
+            averageLatencyMs = averageLatencyMs < 0
+                    ? latencyMs
+                    : LATENCY_SMOOTHING * latencyMs + (1 - LATENCY_SMOOTHING) * averageLatencyMs;
+            if (baselineLatencyMs < 0 || averageLatencyMs < baselineLatencyMs) {
+                baselineLatencyMs = averageLatencyMs;
+            }
+            isCongested = averageLatencyMs > CONGESTION_FACTOR * baselineLatencyMs;
+        }
+        // a failure early in the window must not be masked by the completions after it
+        congestedInWindow |= isCongested;
+
+        // only adjust once per window of completions so a single burst is not over-counted
+        if (completionsSinceAdjustment < concurrencyLimit) {
+            return;
+        }
+
+        int previousLimit = concurrencyLimit;
+        if (congestedInWindow) {
+            concurrencyLimit = Math.max(minConcurrency, concurrencyLimit / 2);
+        } else {
+            concurrencyLimit = Math.min(maxConcurrency, concurrencyLimit + 1);
+        }
+        completionsSinceAdjustment = 0;
+        congestedInWindow = false;
+
+        if (previousLimit != concurrencyLimit) {
+            LOGGER.debug("Concurrency limit {} -> {} (average latency {}ms, baseline {}ms)",
+                    previousLimit, concurrencyLimit, (long) averageLatencyMs, (long) baselineLatencyMs);
+        }
+    }
+
+    private class FetchRunnable implements Runnable {
+
+        private final String host;
+        private final Callable<Boolean> fetch;
+
+        public FetchRunnable(String host, Callable<Boolean> fetch) {
+            this.host = host;
+            this.fetch = fetch;
+        }
+
+        @Override
+        public void run() {
+            long startTime = System.nanoTime();
+            boolean succeeded = false;
+            try {
+                succeeded = fetch.call();
+            } catch (Exception e) {
+                LOGGER.error("Fetch against " + host + " failed", e);
+            } finally {
+                long latencyMs = MILLISECONDS.convert(System.nanoTime() - startTime, NANOSECONDS);
+                onComplete(host, succeeded, latencyMs);
+            }
+        }
+    }
+
+}
@@ -0,0 +1,87 @@
+package net.elprespufferfish.rssreader.net;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableMap;
+
+import java.util.Map;
+
+/**
+ * An HTTP request to be executed by a {@link Transport}.
+ */
+public class HttpRequest {
+
+    public static final String GET = "GET";
+    public static final String HEAD = "HEAD";
+
+    public static class Builder {
+
+        private String method = GET;
+        private String url;
+        private final ImmutableMap.Builder<String, String> headers = ImmutableMap.builder();
+
+        /**
+         * Sets a non-null URL for the request being built.
+         * @return a Builder for chaining.
+         */
+        public Builder withUrl(String url) {
+            Preconditions.checkNotNull(url);
+            this.url = url;
+            return this;
+        }
+
+        /**
+         * Sets the request method.  Defaults to {@link #GET}.
+         * @return a Builder for chaining.
+         */
+        public Builder withMethod(String method) {
+            Preconditions.checkArgument(GET.equals(method) || HEAD.equals(method), "Unsupported method: %s", method);
+            this.method = method;
+            return this;
+        }
+
+        /**
+         * Adds a request header.
+         * @return a Builder for chaining.
+         */
+        public Builder withHeader(String name, String value) {
+            headers.put(name, value);
+            return this;
+        }
+
+        /**
+         * @return validated HttpRequest object.
+         */
+        public HttpRequest build() {
+            Preconditions.checkNotNull(url);
+            return new HttpRequest(method, url, headers.build());
+        }
+    }
+
+    private final String method;
+    private final String url;
+    private final Map<String, String> headers;
+
+    private HttpRequest(String method, String url, Map<String, String> headers) {
+        this.method = method;
+        this.url = url;
+        this.headers = headers;
+    }
+
+    public String getMethod() {
+        return method;
+    }
+
+    public String getUrl() {
+        return url;
+    }
+
+    public Map<String, String> getHeaders() {
+        return headers;
+    }
+
+    @Override
+    public String toString() {
+        return method + " " + url;
+    }
+
+}
@@ -0,0 +1,60 @@
+package net.elprespufferfish.rssreader.net;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Response to an {@link HttpRequest}.
+ *
+ * <p>Must be closed to release the underlying connection back to the pool.
+ */
+public interface HttpResponse extends Closeable {
+
+    /**
+     * @return HTTP status code.
+     */
+    int getCode();
+
+    /**
+     * @return value of the named response header, or <code>null</code> if absent.
+     */
+    String getHeader(String name);
+
+    /**
+     * @return time from issuing the request until a connection was ready to send it.
+     */
+    long getConnectLatencyMs();
+
+    /**
+     * @return time from issuing the request until the response headers arrived.
+     */
+    long getTimeToFirstByteMs();
+
+    /**
+     * @return final address of the response, after any redirects.
+     */
+    String getUrl();
+
+    /**
+     * @return response body, decompressed according to its Content-Encoding.  May only be read once.
+     */
+    InputStream getBody() throws IOException;
+
+    /**
+     * @return number of body bytes read from the network so far.
+     */
+    long getWireBytes();
+
+    /**
+     * @return number of decompressed body bytes read so far.
+     */
+    long getDecodedBytes();
+
+    /**
+     * Release the connection without throwing.
+     */
+    @Override
+    void close();
+
+}
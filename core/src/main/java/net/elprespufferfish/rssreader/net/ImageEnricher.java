@@ -0,0 +1,146 @@
+package net.elprespufferfish.rssreader.net;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+import net.elprespufferfish.rssreader.db.FeedStore;
+import net.elprespufferfish.rssreader.parsing.Articles;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+
+/**
+ * Fills in images for stored articles by scraping their pages for OpenGraph metadata.
+ *
+ * <p>Runs separately from feed parsing so that new articles are visible before their images are
+ * known.  Pages are scraped with bounded, per-host concurrency and results are written back in
+ * batches.  Scraped pages are remembered so that articles from different feeds linking to the same
+ * page only cause one scrape.
+ */
+public class ImageEnricher {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ImageEnricher.class);
+
+    /** Number of articles resolved per database round trip. */
+    private static final int BATCH_SIZE = 50;
+
+    private static final int MIN_CONCURRENT_SCRAPES = 2;
+    private static final int MAX_CONCURRENT_SCRAPES = 4;
+    private static final int MAX_CONCURRENT_SCRAPES_PER_HOST = 1;
+
+    private final FetchScheduler scrapeScheduler = new FetchScheduler(MIN_CONCURRENT_SCRAPES, MAX_CONCURRENT_SCRAPES, MAX_CONCURRENT_SCRAPES_PER_HOST);
+    private final FeedStore feedStore;
+    private final Transport transport;
+
+    public ImageEnricher(FeedStore feedStore, Transport transport) {
+        this.feedStore = feedStore;
+        this.transport = transport;
+    }
+
+    /**
+     * Resolve images for articles stored without one.
+     * @param budgetMs time after which no further pages are scraped.  Unresolved articles are picked up by the next call.
+     */
+    public void enrich(long budgetMs) {
+        long startTime = System.nanoTime();
+        long deadline = startTime + MILLISECONDS.toNanos(budgetMs);
+        int numResolved = 0;
+        int numScraped = 0;
+
+        try {
+            while (true) {
+                Map<Integer, String> pendingArticles = feedStore.getArticlesPendingImages(BATCH_SIZE);
+                if (pendingArticles.isEmpty()) {
+                    break;
+                }
+
+                // group articles sharing a page so that it is only scraped once
+                Map<String, List<Integer>> articlesByPage = new LinkedHashMap<>();
+                for (Map.Entry<Integer, String> article : pendingArticles.entrySet()) {
+                    List<Integer> articleIds = articlesByPage.get(article.getValue());
+                    if (articleIds == null) {
+                        articleIds = new ArrayList<>();
+                        articlesByPage.put(article.getValue(), articleIds);
+                    }
+                    articleIds.add(article.getKey());
+                }
+
+                final List<ResolvedImage> resolvedImages = Collections.synchronizedList(new ArrayList<ResolvedImage>());
+                final List<Integer> failedArticles = Collections.synchronizedList(new ArrayList<Integer>());
+                Map<String, String> cachedImageUrls = feedStore.getCachedImageUrls(articlesByPage.keySet());
+                for (Map.Entry<String, List<Integer>> page : articlesByPage.entrySet()) {
+                    final String pageUrl = page.getKey();
+                    final List<Integer> articleIds = page.getValue();
+                    if (cachedImageUrls.containsKey(pageUrl)) {
+                        addResolvedImages(resolvedImages, articleIds, pageUrl, cachedImageUrls.get(pageUrl));
+                        continue;
+                    }
+
+                    String host;
+                    try {
+                        host = new URL(pageUrl).getHost();
+                    } catch (MalformedURLException e) {
+                        LOGGER.warn("Cannot scrape malformed link " + pageUrl);
+                        failedArticles.addAll(articleIds);
+                        continue;
+                    }
+                    numScraped++;
+                    scrapeScheduler.submit(host, new Callable<Boolean>() {
+                        @Override
+                        public Boolean call() {
+                            try {
+                                String imageUrl = Articles.getOpenGraphContent(transport, pageUrl, "image");
+                                addResolvedImages(resolvedImages, articleIds, pageUrl, imageUrl);
+                                return true;
+                            } catch (IOException | RuntimeException e) {
+                                LOGGER.warn("Could not scrape " + pageUrl + " for an image: " + e.getMessage());
+                                failedArticles.addAll(articleIds);
+                                return false;
+                            }
+                        }
+                    });
+                }
+
+                long remainingMs = MILLISECONDS.convert(deadline - System.nanoTime(), NANOSECONDS);
+                boolean isComplete = scrapeScheduler.awaitIdle(Math.max(0, remainingMs), MILLISECONDS);
+                if (!isComplete) {
+                    // leave unscraped articles pending for next time
+                    scrapeScheduler.cancelPending();
+                    scrapeScheduler.awaitIdle();
+                }
+
+                feedStore.storeResolvedImages(resolvedImages);
+                feedStore.markImagesFailed(failedArticles);
+                numResolved += resolvedImages.size();
+
+                if (!isComplete || System.nanoTime() >= deadline) {
+                    LOGGER.info("Image enrichment budget of " + budgetMs + "ms exhausted");
+                    break;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            LOGGER.error("Interrupted while resolving images", e);
+        }
+
+        long durationMs = MILLISECONDS.convert(System.nanoTime() - startTime, NANOSECONDS);
+        LOGGER.info("Resolved " + numResolved + " images, scraping " + numScraped + " pages, in " + durationMs + "ms");
+    }
+
+    private static void addResolvedImages(List<ResolvedImage> resolvedImages, List<Integer> articleIds, String pageUrl, String imageUrl) {
+        for (int articleId : articleIds) {
+            resolvedImages.add(new ResolvedImage(articleId, pageUrl, imageUrl));
+        }
+    }
+
+}
@@ -0,0 +1,194 @@
+package net.elprespufferfish.rssreader.net;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.MINUTES;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+import com.google.common.io.Closeables;
+import com.google.common.io.CountingInputStream;
+import com.google.common.net.HttpHeaders;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import okhttp3.Connection;
+import okhttp3.ConnectionPool;
+import okhttp3.Interceptor;
+import okhttp3.OkHttpClient;
+import okhttp3.Protocol;
+import okhttp3.Request;
+import okhttp3.Response;
+
+/**
+ * {@link Transport} backed by a single OkHttp client.
+ *
+ * <p>All requests share one connection pool, so keep-alive connections are reused across feeds,
+ * feeds on the same host are multiplexed over HTTP/2 where the server supports it, and TLS
+ * sessions are resumed from the shared socket factory's session cache.
+ */
+public class OkHttpTransport implements Transport {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(OkHttpTransport.class);
+
+    private static final int TIMEOUT_MS = 10000;
+    private static final int MAX_IDLE_CONNECTIONS = 8;
+    private static final int KEEP_ALIVE_MINUTES = 5;
+
+    private final OkHttpClient client;
+    private final AtomicInteger connectionsOpened = new AtomicInteger(0);
+    private final AtomicInteger connectionsReused = new AtomicInteger(0);
+    private final Set<Connection> seenConnections = Collections.synchronizedSet(
+            Collections.newSetFromMap(new WeakHashMap<Connection, Boolean>()));
+
+    public OkHttpTransport() {
+        this.client = new OkHttpClient.Builder()
+                .connectTimeout(TIMEOUT_MS, MILLISECONDS)
+                .readTimeout(TIMEOUT_MS, MILLISECONDS)
+                .connectionPool(new ConnectionPool(MAX_IDLE_CONNECTIONS, KEEP_ALIVE_MINUTES, MINUTES))
+                .protocols(Arrays.asList(Protocol.HTTP_2, Protocol.HTTP_1_1))
+                .addNetworkInterceptor(new ConnectionReuseInterceptor())
+                .build();
+    }
+
+    @Override
+    public HttpResponse execute(HttpRequest request) throws IOException {
+        Request.Builder builder = new Request.Builder()
+                .url(request.getUrl())
+                .method(request.getMethod(), null)
+                // declaring our own codings disables OkHttp's transparent gzip, so bodies are decoded in OkHttpResponse
+                .header(HttpHeaders.ACCEPT_ENCODING, ContentEncodings.ACCEPT_ENCODING);
+        for (Map.Entry<String, String> header : request.getHeaders().entrySet()) {
+            builder.header(header.getKey(), header.getValue());
+        }
+        Timing timing = new Timing();
+        builder.tag(timing);
+        Response response = client.newCall(builder.build()).execute();
+        return new OkHttpResponse(response, timing);
+    }
+
+    @Override
+    public int getConnectionsOpened() {
+        return connectionsOpened.get();
+    }
+
+    @Override
+    public int getConnectionsReused() {
+        return connectionsReused.get();
+    }
+
+    /**
+     * Timestamps for a single call, shared with the network interceptor via the request tag.
+     */
+    private static class Timing {
+        final long startNanos = System.nanoTime();
+        volatile long connectedNanos;
+        volatile long headersNanos;
+    }
+
+    /**
+     * Count whether each network request was served by a new or a pooled connection,
+     * and record when the connection was ready and when response headers arrived.
+     */
+    private class ConnectionReuseInterceptor implements Interceptor {
+
+        @Override
+        public Response intercept(Chain chain) throws IOException {
+            Timing timing = chain.request().tag() instanceof Timing ? (Timing) chain.request().tag() : null;
+            if (timing != null) {
+                timing.connectedNanos = System.nanoTime();
+            }
+
+            Connection connection = chain.connection();
+            if (connection != null) {
+                if (seenConnections.add(connection)) {
+                    connectionsOpened.incrementAndGet();
+                } else {
+                    connectionsReused.incrementAndGet();
+                }
+                LOGGER.debug("{} over {}", chain.request().url(), connection.protocol());
+            }
+            Response response = chain.proceed(chain.request());
+            if (timing != null) {
+                timing.headersNanos = System.nanoTime();
+            }
+            return response;
+        }
+    }
+
+    private static class OkHttpResponse implements HttpResponse {
+
+        private final Response response;
+        private final Timing timing;
+        private CountingInputStream wireBody;
+        private CountingInputStream decodedBody;
+
+        public OkHttpResponse(Response response, Timing timing) {
+            this.response = response;
+            this.timing = timing;
+        }
+
+        @Override
+        public long getConnectLatencyMs() {
+            return timing.connectedNanos == 0 ? 0 : MILLISECONDS.convert(timing.connectedNanos - timing.startNanos, NANOSECONDS);
+        }
+
+        @Override
+        public long getTimeToFirstByteMs() {
+            return timing.headersNanos == 0 ? 0 : MILLISECONDS.convert(timing.headersNanos - timing.startNanos, NANOSECONDS);
+        }
+
+        @Override
+        public int getCode() {
+            return response.code();
+        }
+
+        @Override
+        public String getHeader(String name) {
+            return response.header(name);
+        }
+
+        @Override
+        public String getUrl() {
+            return response.request().url().toString();
+        }
+
+        @Override
+        public InputStream getBody() throws IOException {
+            if (decodedBody == null) {
+                wireBody = new CountingInputStream(response.body().byteStream());
+                decodedBody = new CountingInputStream(
+                        ContentEncodings.decode(response.header(HttpHeaders.CONTENT_ENCODING), wireBody));
+            }
+            return decodedBody;
+        }
+
+        @Override
+        public long getWireBytes() {
+            return wireBody == null ? 0 : wireBody.getCount();
+        }
+
+        @Override
+        public long getDecodedBytes() {
+            return decodedBody == null ? 0 : decodedBody.getCount();
+        }
+
+        @Override
+        public void close() {
+            if (decodedBody != null) {
+                // also releases the inflater of a compressed body
+                Closeables.closeQuietly(decodedBody);
+            }
+            response.body().close();
+        }
+    }
+
+}
@@ -0,0 +1,62 @@
+package net.elprespufferfish.rssreader.net;
+
+import net.elprespufferfish.rssreader.Feed;
+
+/**
+ * A feed that is due for refresh, along with what is known about its value and cost.
+ */
+public class RefreshCandidate {
+
+    private final Feed feed;
+    private final int feedId;
+    private final long readCount;
+    private final long nextRefresh;
+    private final long refreshIntervalMs;
+    private final long averageCostMs;
+
+    public RefreshCandidate(Feed feed, int feedId, long readCount, long nextRefresh, long refreshIntervalMs, long averageCostMs) {
+        this.feed = feed;
+        this.feedId = feedId;
+        this.readCount = readCount;
+        this.nextRefresh = nextRefresh;
+        this.refreshIntervalMs = refreshIntervalMs;
+        this.averageCostMs = averageCostMs;
+    }
+
+    public Feed getFeed() {
+        return feed;
+    }
+
+    public int getFeedId() {
+        return feedId;
+    }
+
+    /**
+     * @return number of articles from the feed that the user has read.
+     */
+    public long getReadCount() {
+        return readCount;
+    }
+
+    /**
+     * @return time at which the feed was scheduled to be refreshed.
+     */
+    public long getNextRefresh() {
+        return nextRefresh;
+    }
+
+    /**
+     * @return interval the feed is refreshed at, or 0 if it has never been scheduled.
+     */
+    public long getRefreshIntervalMs() {
+        return refreshIntervalMs;
+    }
+
+    /**
+     * @return average time taken by recorded fetches of the feed, or 0 if none were recorded.
+     */
+    public long getAverageCostMs() {
+        return averageCostMs;
+    }
+
+}
@@ -0,0 +1,65 @@
+package net.elprespufferfish.rssreader.net;
+
+import static java.util.concurrent.TimeUnit.DAYS;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Computes how often each feed should be fetched based on how often it publishes.
+ */
+public class RefreshIntervals {
+
+    /** Number of recent articles considered when estimating a feed's publication rate. */
+    public static final int HISTORY_SIZE = 20;
+
+    /** Longest a feed may go between fetches regardless of how rarely it publishes. */
+    private static final long MAX_INTERVAL_MS = DAYS.toMillis(7);
+
+    /**
+     * Estimate a refresh interval from publication history.
+     *
+     * <p>The interval is half the median gap between publications, so a feed is checked roughly
+     * twice per new item.  The current time is included as the newest point so feeds that have gone
+     * quiet are gradually checked less often.
+     *
+     * @param publicationDates recent publication times, newest first.
+     * @param now current time.
+     * @param minIntervalMs the scheduled refresh frequency; feeds are never due more often than this.
+     */
+    public static long computeInterval(List<Long> publicationDates, long now, long minIntervalMs) {
+        long maxIntervalMs = Math.max(minIntervalMs, MAX_INTERVAL_MS);
+        if (publicationDates.isEmpty()) {
+            // nothing published within the retention period
+            return maxIntervalMs;
+        }
+
+        List<Long> gaps = new ArrayList<>(publicationDates.size());
+        long previous = now;
+        for (long publicationDate : publicationDates) {
+            gaps.add(Math.max(0, previous - publicationDate));
+            previous = publicationDate;
+        }
+        Collections.sort(gaps);
+        long medianGap = gaps.get(gaps.size() / 2);
+
+        return Math.min(maxIntervalMs, Math.max(minIntervalMs, medianGap / 2));
+    }
+
+    /**
+     * Pick when a feed is next due, offsetting each feed by a stable fraction of its interval so that
+     * feeds sharing an interval are spread across scheduled runs instead of all falling due together.
+     */
+    public static long computeNextRefresh(int feedId, long now, long intervalMs) {
+        // multiplicative hash of the id gives a well-spread fraction in [0, 1)
+        double phase = ((feedId * 2654435761L) & 0xffffffffL) / (double) (1L << 32);
+        long stagger = (long) (phase * intervalMs / 4);
+        return now + intervalMs - stagger;
+    }
+
+    private RefreshIntervals() {
+        // prevent instantiation
+    }
+
+}
@@ -0,0 +1,68 @@
+package net.elprespufferfish.rssreader.net;
+
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Orders feeds so that a refresh with a limited budget spends it where it matters most.
+ *
+ * <p>A feed's priority grows with how much of it the user reads and how overdue it is, and shrinks
+ * with how long it usually takes to fetch.  Feeds skipped because the budget ran out keep their
+ * scheduled time, so they are more overdue, and so more urgent, on the next run.
+ */
+public class RefreshPriorities {
+
+    /** Cap on how much being overdue can boost a feed, so it cannot drown out engagement. */
+    private static final double MAX_OVERDUE_INTERVALS = 4.0;
+
+    /**
+     * Sort candidates in place, highest priority first.
+     */
+    public static void sort(List<RefreshCandidate> candidates, long now) {
+        long maxReadCount = 0;
+        for (RefreshCandidate candidate : candidates) {
+            maxReadCount = Math.max(maxReadCount, candidate.getReadCount());
+        }
+
+        final Map<RefreshCandidate, Double> priorities = new HashMap<>();
+        for (RefreshCandidate candidate : candidates) {
+            priorities.put(candidate, computePriority(candidate, maxReadCount, now));
+        }
+        Collections.sort(candidates, new Comparator<RefreshCandidate>() {
+            @Override
+            public int compare(RefreshCandidate lhs, RefreshCandidate rhs) {
+                return Double.compare(priorities.get(rhs), priorities.get(lhs));
+            }
+        });
+    }
+
+    /**
+     * @param maxReadCount highest read count among the feeds being compared.
+     * @return relative priority of refreshing the feed; larger is more urgent.
+     */
+    public static double computePriority(RefreshCandidate candidate, long maxReadCount, long now) {
+        // feeds that have never been read still get a share
+        double engagement = (1.0 + candidate.getReadCount()) / (1.0 + maxReadCount);
+
+        double overdue;
+        if (candidate.getRefreshIntervalMs() <= 0) {
+            // never fetched successfully
+            overdue = MAX_OVERDUE_INTERVALS;
+        } else {
+            overdue = (now - candidate.getNextRefresh()) / (double) candidate.getRefreshIntervalMs();
+            overdue = Math.min(MAX_OVERDUE_INTERVALS, Math.max(0, overdue));
+        }
+
+        double costSeconds = candidate.getAverageCostMs() / 1000.0;
+
+        return engagement * (1 + overdue) / (1 + costSeconds);
+    }
+
+    private RefreshPriorities() {
+        // prevent instantiation
+    }
+
+}
@@ -0,0 +1,18 @@
+package net.elprespufferfish.rssreader.net;
+
+/**
+ * User settings that govern refreshes, supplied by the platform.
+ */
+public interface RefreshSettings {
+
+    /**
+     * @return how often scheduled refreshes run, which is also the shortest interval between fetches of a feed.
+     */
+    long getRefreshFrequencyMs();
+
+    /**
+     * @return age in days beyond which articles are not kept.
+     */
+    int getRetentionDays();
+
+}
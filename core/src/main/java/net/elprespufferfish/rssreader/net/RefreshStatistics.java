@@ -0,0 +1,198 @@
+package net.elprespufferfish.rssreader.net;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Counters for a single refresh run.
+ *
+ * <p>Updated concurrently by the tasks fetching each feed.
+ */
+public class RefreshStatistics {
+
+    private final AtomicInteger updatedFeeds = new AtomicInteger(0);
+    private final AtomicInteger unchangedFeeds = new AtomicInteger(0);
+    private final AtomicInteger failedFeeds = new AtomicInteger(0);
+    private final AtomicInteger deferredFeeds = new AtomicInteger(0);
+    private final AtomicInteger newArticles = new AtomicInteger(0);
+    private final AtomicLong wireBytes = new AtomicLong(0);
+    private final AtomicLong decodedBytes = new AtomicLong(0);
+    private final AtomicInteger articlesParsed = new AtomicInteger(0);
+    private final AtomicLong parseMs = new AtomicLong(0);
+    private volatile int peakPendingFetches = 0;
+    private volatile int peakConcurrency = 0;
+    private volatile int peakWriteQueueDepth = 0;
+    private volatile int articlesWritten = 0;
+    private volatile int batchesWritten = 0;
+    private volatile long writeMs = 0;
+    private volatile int connectionsOpened = 0;
+    private volatile int connectionsReused = 0;
+
+    /**
+     * Record a feed that was downloaded and parsed.
+     */
+    public void feedUpdated(int numNewArticles) {
+        updatedFeeds.incrementAndGet();
+        newArticles.addAndGet(numNewArticles);
+    }
+
+    /**
+     * Record a feed that the server reported as not modified.
+     */
+    public void feedUnchanged() {
+        unchangedFeeds.incrementAndGet();
+    }
+
+    /**
+     * Record a feed that could not be refreshed.
+     */
+    public void feedFailed() {
+        failedFeeds.incrementAndGet();
+    }
+
+    /**
+     * Record feeds that were not attempted because the refresh ran out of time.
+     */
+    public void feedsDeferred(int numFeeds) {
+        deferredFeeds.addAndGet(numFeeds);
+    }
+
+    /**
+     * Record the size of a downloaded feed, both as transferred and after decompression.
+     */
+    public void feedDownloaded(long numWireBytes, long numDecodedBytes) {
+        wireBytes.addAndGet(numWireBytes);
+        decodedBytes.addAndGet(numDecodedBytes);
+    }
+
+    /**
+     * Record the articles a feed yielded and the time spent parsing them, including any time spent
+     * waiting for the writer to catch up.
+     */
+    public void feedParsed(int numArticles, long feedParseMs) {
+        articlesParsed.addAndGet(numArticles);
+        parseMs.addAndGet(feedParseMs);
+    }
+
+    /**
+     * Record the most feeds that were waiting to be fetched at once.
+     */
+    public void setPeakPendingFetches(int peakPendingFetches) {
+        this.peakPendingFetches = peakPendingFetches;
+    }
+
+    /**
+     * Record the work done by the database writer.
+     */
+    public void setWriteStage(int articlesWritten, int batchesWritten, long writeMs, int peakWriteQueueDepth) {
+        this.articlesWritten = articlesWritten;
+        this.batchesWritten = batchesWritten;
+        this.writeMs = writeMs;
+        this.peakWriteQueueDepth = peakWriteQueueDepth;
+    }
+
+    /**
+     * Record the highest number of feeds fetched simultaneously.
+     */
+    public void setPeakConcurrency(int peakConcurrency) {
+        this.peakConcurrency = peakConcurrency;
+    }
+
+    /**
+     * Record how many requests needed a new connection and how many reused a pooled one.
+     */
+    public void setConnections(int connectionsOpened, int connectionsReused) {
+        this.connectionsOpened = connectionsOpened;
+        this.connectionsReused = connectionsReused;
+    }
+
+    public int getUpdatedFeeds() {
+        return updatedFeeds.get();
+    }
+
+    public int getUnchangedFeeds() {
+        return unchangedFeeds.get();
+    }
+
+    public int getFailedFeeds() {
+        return failedFeeds.get();
+    }
+
+    public int getDeferredFeeds() {
+        return deferredFeeds.get();
+    }
+
+    public int getNewArticles() {
+        return newArticles.get();
+    }
+
+    public long getWireBytes() {
+        return wireBytes.get();
+    }
+
+    public long getDecodedBytes() {
+        return decodedBytes.get();
+    }
+
+    public int getArticlesParsed() {
+        return articlesParsed.get();
+    }
+
+    public long getParseMs() {
+        return parseMs.get();
+    }
+
+    public int getPeakPendingFetches() {
+        return peakPendingFetches;
+    }
+
+    public int getPeakWriteQueueDepth() {
+        return peakWriteQueueDepth;
+    }
+
+    public int getArticlesWritten() {
+        return articlesWritten;
+    }
+
+    public int getBatchesWritten() {
+        return batchesWritten;
+    }
+
+    public long getWriteMs() {
+        return writeMs;
+    }
+
+    public int getPeakConcurrency() {
+        return peakConcurrency;
+    }
+
+    public int getConnectionsOpened() {
+        return connectionsOpened;
+    }
+
+    public int getConnectionsReused() {
+        return connectionsReused;
+    }
+
+    @Override
+    public String toString() {
+        return "updated=" + updatedFeeds
+                + ", unchanged=" + unchangedFeeds
+                + ", failed=" + failedFeeds
+                + ", deferred=" + deferredFeeds
+                + ", newArticles=" + newArticles
+                + ", wireBytes=" + wireBytes
+                + ", decodedBytes=" + decodedBytes
+                + ", peakConcurrency=" + peakConcurrency
+                + ", connectionsOpened=" + connectionsOpened
+                + ", connectionsReused=" + connectionsReused
+                + ", peakPendingFetches=" + peakPendingFetches
+                + ", articlesParsed=" + articlesParsed
+                + ", parseMs=" + parseMs
+                + ", peakWriteQueueDepth=" + peakWriteQueueDepth
+                + ", articlesWritten=" + articlesWritten
+                + ", batchesWritten=" + batchesWritten
+                + ", writeMs=" + writeMs;
+    }
+
+}
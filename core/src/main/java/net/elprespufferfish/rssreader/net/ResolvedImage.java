@@ -0,0 +1,33 @@
+package net.elprespufferfish.rssreader.net;
+
+/**
+ * Image found for an article by scraping its page.
+ */
+public class ResolvedImage {
+
+    private final int articleId;
+    private final String pageUrl;
+    private final String imageUrl;
+
+    public ResolvedImage(int articleId, String pageUrl, String imageUrl) {
+        this.articleId = articleId;
+        this.pageUrl = pageUrl;
+        this.imageUrl = imageUrl;
+    }
+
+    public int getArticleId() {
+        return articleId;
+    }
+
+    public String getPageUrl() {
+        return pageUrl;
+    }
+
+    /**
+     * @return URL of the page's image, or <code>null</code> if the page has none.
+     */
+    public String getImageUrl() {
+        return imageUrl;
+    }
+
+}
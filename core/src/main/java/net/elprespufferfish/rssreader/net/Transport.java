@@ -0,0 +1,28 @@
+package net.elprespufferfish.rssreader.net;
+
+import java.io.IOException;
+
+/**
+ * Executes HTTP requests on behalf of feed refresh, feed autodiscovery and article scraping.
+ *
+ * <p>Implementations are expected to be shared so that connections can be reused across requests.
+ */
+public interface Transport {
+
+    /**
+     * @return response to the request.  Callers must close it.
+     * @throws IOException if no response could be obtained.
+     */
+    HttpResponse execute(HttpRequest request) throws IOException;
+
+    /**
+     * @return number of requests that required a new connection.
+     */
+    int getConnectionsOpened();
+
+    /**
+     * @return number of requests served over an already-open connection.
+     */
+    int getConnectionsReused();
+
+}
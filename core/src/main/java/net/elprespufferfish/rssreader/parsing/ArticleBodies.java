@@ -0,0 +1,139 @@
+package net.elprespufferfish.rssreader.parsing;
+
+import com.google.common.collect.ImmutableSet;
+
+import net.elprespufferfish.rssreader.Article;
+
+import org.jsoup.Jsoup;
+import org.jsoup.nodes.Document;
+import org.jsoup.nodes.Element;
+import org.jsoup.parser.Tag;
+import org.jsoup.safety.Cleaner;
+import org.jsoup.safety.Whitelist;
+
+import java.io.IOException;
+import java.util.Set;
+
+/**
+ * Turns an article's description into the body that is displayed, once, when the article is stored.
+ *
+ * <p>Scripts, styles, tracking pixels and anything else outside a whitelist of presentational markup
+ * are removed, URLs are made absolute, and images are marked for lazy loading.  A plain-text excerpt
+ * and word count are taken from the result, along with the full text for the search index.
+ */
+public class ArticleBodies {
+
+    /** Characters of plain text kept as the excerpt. */
+    public static final int EXCERPT_LENGTH = 200;
+
+    private static final Whitelist WHITELIST = Whitelist.relaxed()
+            .addTags("figure", "figcaption", "hr", "s", "del", "ins")
+            .addAttributes("img", "loading");
+
+    /**
+     * Hosts of embedded video players.  Bodies are displayed without JavaScript, so their frames are
+     * replaced with a link to the player rather than kept.
+     */
+    private static final Set<String> PLAYER_HOSTS = ImmutableSet.of(
+            "www.youtube.com",
+            "youtube.com",
+            "www.youtube-nocookie.com",
+            "player.vimeo.com");
+    static final String PLAYER_LINK_TEXT = "\u25B6 Play video";
+
+    /**
+     * @return copy of the article with its body, excerpt and word count filled in.
+     */
+    public static Article render(Article article) {
+        String description = article.getDescription() == null ? "" : article.getDescription();
+        String baseUri = article.getLink() == null ? "" : article.getLink();
+        Document document = sanitize(description, baseUri);
+        String text = document.body().text();
+
+        Article.Builder builder = new Article.Builder(article);
+        builder.setBody(document.body().html());
+        builder.setExcerpt(excerpt(text));
+        builder.setText(text);
+        builder.setWordCount(countWords(text));
+        return builder.build();
+    }
+
+    /**
+     * @return plain text of a body returned by {@link #render(Article)}, as indexed for search.
+     */
+    public static String text(String body) {
+        return Jsoup.parseBodyFragment(body).body().text();
+    }
+
+    /**
+     * @return sink which renders each article before handing it to the provided sink.
+     */
+    public static ArticleSink renderingSink(final ArticleSink sink) {
+        return new ArticleSink() {
+            @Override
+            public void accept(Article article) throws IOException {
+                sink.accept(render(article));
+            }
+        };
+    }
+
+    private static Document sanitize(String html, String baseUri) {
+        Document dirty = Jsoup.parseBodyFragment(html, baseUri);
+        // the cleaner keeps the text of elements it drops, so remove these outright
+        dirty.select("noscript, div.feedflare").remove();
+        for (Element frame : dirty.select("iframe")) {
+            String source = frame.absUrl("src");
+            if (PLAYER_HOSTS.contains(Trackers.host(source))) {
+                Element link = new Element(Tag.valueOf("a"), baseUri).attr("href", source).text(PLAYER_LINK_TEXT);
+                frame.replaceWith(new Element(Tag.valueOf("p"), baseUri).appendChild(link));
+            } else {
+                frame.remove();
+            }
+        }
+        for (Element image : dirty.select("img")) {
+            if (Trackers.isTrackingImage(image.absUrl("src"), image.attr("width"), image.attr("height"))) {
+                image.remove();
+            }
+        }
+
+        Document clean = new Cleaner(WHITELIST).clean(dirty);
+        clean.outputSettings().prettyPrint(false);
+        for (Element image : clean.select("img")) {
+            image.attr("loading", "lazy");
+        }
+        return clean;
+    }
+
+    /**
+     * @return text cut at the last word boundary within {@link #EXCERPT_LENGTH} characters.
+     */
+    static String excerpt(String text) {
+        if (text.length() <= EXCERPT_LENGTH) {
+            return text;
+        }
+        int end = text.lastIndexOf(' ', EXCERPT_LENGTH);
+        if (end <= 0) {
+            end = EXCERPT_LENGTH;
+        }
+        return text.substring(0, end) + "\u2026";
+    }
+
+    static int countWords(String text) {
+        int numWords = 0;
+        boolean isInWord = false;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            boolean isSpace = Character.isWhitespace(c) || Character.isSpaceChar(c);
+            if (!isSpace && !isInWord) {
+                numWords++;
+            }
+            isInWord = !isSpace;
+        }
+        return numWords;
+    }
+
+    private ArticleBodies() {
+        // prevent instantiation
+    }
+
+}
@@ -0,0 +1,18 @@
+package net.elprespufferfish.rssreader.parsing;
+
+import net.elprespufferfish.rssreader.Article;
+
+import java.io.IOException;
+
+/**
+ * Receives articles as they are parsed, so that a feed never needs to be held in memory whole.
+ */
+public interface ArticleSink {
+
+    /**
+     * Accept the next article, blocking until there is room for it.
+     * @throws IOException if the article cannot be accepted, which ends parsing.
+     */
+    void accept(Article article) throws IOException;
+
+}
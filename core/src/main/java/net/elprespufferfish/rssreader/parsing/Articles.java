@@ -0,0 +1,75 @@
+package net.elprespufferfish.rssreader.parsing;
+
+import com.google.common.base.Charsets;
+import com.google.common.base.CharMatcher;
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import com.google.common.net.HttpHeaders;
+
+import net.elprespufferfish.rssreader.Article;
+import net.elprespufferfish.rssreader.net.HttpRequest;
+import net.elprespufferfish.rssreader.net.HttpResponse;
+import net.elprespufferfish.rssreader.net.Transport;
+
+import java.io.IOException;
+import java.net.HttpURLConnection;
+
+public class Articles {
+
+    private static final HashFunction GUID_HASH = Hashing.murmur3_128();
+    private static final HashFunction CONTENT_HASH = Hashing.murmur3_128();
+
+    /**
+     * @return 64-bit hash identifying an article's GUID within its feed.
+     */
+    public static long hashGuid(String guid) {
+        return GUID_HASH.hashString(guid, Charsets.UTF_8).asLong();
+    }
+
+    /**
+     * @return 64-bit hash of an article's visible content.
+     */
+    public static long hashContent(Article article) {
+        return hashContent(article.getTitle(), article.getDescription(), article.getLink());
+    }
+
+    /**
+     * @return 64-bit hash of an article's visible content, ignoring differences in whitespace.
+     */
+    public static long hashContent(String title, String description, String link) {
+        Hasher hasher = CONTENT_HASH.newHasher();
+        for (String field : new String[] { title, description, link }) {
+            String normalized = field == null ? "" : CharMatcher.WHITESPACE.trimAndCollapseFrom(field, ' ');
+            // separate fields so that text moving between them changes the hash
+            hasher.putString(normalized, Charsets.UTF_8).putChar('\0');
+        }
+        return hasher.hash().asLong();
+    }
+
+    /**
+     * @return opengraph content at provided content if available, or <code>null</code>.
+     * @throws IOException if the page could not be fetched.
+     */
+    public static String getOpenGraphContent(Transport transport, String articleAddress, String type) throws IOException {
+        HttpResponse response = transport.execute(new HttpRequest.Builder().withUrl(articleAddress).build());
+        try {
+            if (response.getCode() != HttpURLConnection.HTTP_OK) {
+                throw new IOException("Could not crawl " + articleAddress + " for opengraph content: HTTP " + response.getCode());
+            }
+            // only the head is read, closing the response abandons the rest of the page
+            return OpenGraphExtractor.extract(
+                    response.getBody(),
+                    response.getHeader(HttpHeaders.CONTENT_TYPE),
+                    response.getUrl(),
+                    "og:" + type);
+        } finally {
+            response.close();
+        }
+    }
+
+    private Articles() {
+        // prevent instantiation
+    }
+
+}
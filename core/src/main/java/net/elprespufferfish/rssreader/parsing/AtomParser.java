@@ -2,12 +2,9 @@ package net.elprespufferfish.rssreader.parsing;
 
 import net.elprespufferfish.rssreader.Article;
 import net.elprespufferfish.rssreader.Feed;
-import net.elprespufferfish.rssreader.parsing.Articles;
 import net.elprespufferfish.rssreader.parsing.BaseParser;
 import net.elprespufferfish.rssreader.parsing.Parser;
 
-import org.joda.time.DateTime;
-import org.joda.time.format.ISODateTimeFormat;
 import org.xmlpull.v1.XmlPullParser;
 import org.xmlpull.v1.XmlPullParserException;
 
@@ -57,44 +54,64 @@ public class AtomParser extends BaseParser implements Parser {
         Article.Builder builder = new Article.Builder();
         builder.setFeed(feed);
 
-        String text = null;
+        ImageCandidates imageCandidates = new ImageCandidates();
+        String link = null;
         int eventType = xmlPullParser.getEventType();
         while (eventType != XmlPullParser.END_DOCUMENT) {
             switch (eventType) {
                 case XmlPullParser.START_TAG: {
-                    String namespace = xmlPullParser.getNamespace();
-
-                    String nodeName = xmlPullParser.getName();
-                    if (ATOM_NAMESPACE.equals(namespace) && "link".equals(nodeName)) {
-                        if ("alternate".equals(xmlPullParser.getAttributeValue(null, "rel"))) {
-                            String link = xmlPullParser.getAttributeValue(null, "href");
+                    clearText();
+                    if (ATOM_NAMESPACE.equals(xmlPullParser.getNamespace()) && "link".equals(xmlPullParser.getName())) {
+                        String rel = xmlPullParser.getAttributeValue(null, "rel");
+                        if ("alternate".equals(rel)) {
+                            link = xmlPullParser.getAttributeValue(null, "href");
                             builder.setLink(link);
-                            String imageUrl = Articles.getOpenGraphContent(link, "image");
-                            builder.setImageUrl(imageUrl);
+                        } else if ("enclosure".equals(rel)) {
+                            imageCandidates.offerEnclosure(
+                                    xmlPullParser.getAttributeValue(null, "href"),
+                                    xmlPullParser.getAttributeValue(null, "type"));
                         }
+                    } else {
+                        imageCandidates.offerMedia(xmlPullParser);
                     }
                     break;
                 }
                 case XmlPullParser.TEXT: {
-                    text = xmlPullParser.getText();
+                    appendText(xmlPullParser);
                     break;
                 }
                 case XmlPullParser.END_TAG: {
-                    String namespace = xmlPullParser.getNamespace();
-                    String nodeName = xmlPullParser.getName();
-                    if (ATOM_NAMESPACE.equals(namespace) && "title".equals(nodeName)) {
-                        builder.setTitle(text);
-                    } else if (ATOM_NAMESPACE.equals(namespace) && "updated".equals(nodeName)) {
-                        DateTime publicationDate = ISODateTimeFormat.dateTime().parseDateTime(text);
-                        builder.setPublicationDate(publicationDate);
-                    } else if (ATOM_NAMESPACE.equals(namespace) && "content".equals(nodeName)) {
-                        builder.setDescription(text);
-                    } else if (ATOM_NAMESPACE.equals(namespace) && "id".equals(nodeName)) {
-                        builder.setGuid(text);
-                    } else if (ATOM_NAMESPACE.equals(namespace) && "entry".equals(nodeName)) {
-                        // return immediately to ensure we do not advance the
-                        // pull parser too far
-                        return builder.build();
+                    if (!ATOM_NAMESPACE.equals(xmlPullParser.getNamespace())) {
+                        break;
+                    }
+                    switch (xmlPullParser.getName()) {
+                        case "title": {
+                            builder.setTitle(getText());
+                            break;
+                        }
+                        case "updated": {
+                            builder.setPublicationDate(getTextAsDate());
+                            break;
+                        }
+                        case "content": {
+                            String content = getText();
+                            builder.setDescription(content);
+                            imageCandidates.offerEmbedded(content);
+                            break;
+                        }
+                        case "id": {
+                            builder.setGuid(getText());
+                            break;
+                        }
+                        case "entry": {
+                            builder.setImageUrl(imageCandidates.get(link));
+                            // return immediately to ensure we do not advance the
+                            // pull parser too far
+                            return builder.build();
+                        }
+                        default: {
+                            // no-op
+                        }
                     }
                     break;
                 }
@@ -0,0 +1,104 @@
+package net.elprespufferfish.rssreader.parsing;
+
+import com.google.common.base.Predicate;
+
+import net.elprespufferfish.rssreader.Article;
+
+import org.joda.time.DateTime;
+import org.xmlpull.v1.XmlPullParser;
+import org.xmlpull.v1.XmlPullParserException;
+
+import java.io.IOException;
+
+/**
+ * Base class to implement common Article parsing logic.
+ */
+public abstract class BaseParser implements Parser {
+
+    private final String articleKey;
+    // reused across elements so that text nobody asks for is never turned into a String
+    private final StringBuilder text = new StringBuilder();
+    private final int[] textRange = new int[2];
+    private final DateParser dateParser = new DateParser();
+
+    protected BaseParser(String articleKey) {
+        this.articleKey = articleKey;
+    }
+
+    @Override
+    public int parseArticles(String feedAddress, XmlPullParser xmlPullParser, int maxAgeDays, Predicate<Article> isUnchanged, ArticleSink sink) throws IOException, XmlPullParserException {
+        int numArticles = 0;
+
+        DateTime maxArticleAge = DateTime.now().minusDays(maxAgeDays);
+
+        int eventType = xmlPullParser.getEventType();
+        while (eventType != XmlPullParser.END_DOCUMENT) {
+            switch (eventType) {
+                case XmlPullParser.START_TAG: {
+                    if (articleKey.equals(xmlPullParser.getName())) {
+                        Article article = parseArticle(feedAddress, xmlPullParser);
+
+                        // feeds may reorder or edit items, so keep going past old and unchanged ones
+                        boolean isTooOld = article.getPublicationDate().isBefore(maxArticleAge);
+                        if (!isTooOld && !isUnchanged.apply(article)) {
+                            sink.accept(article);
+                            numArticles++;
+                        }
+                    }
+                    break;
+                }
+                default: {
+                    // no-op
+                }
+            }
+            eventType = xmlPullParser.next();
+        }
+        return numArticles;
+    }
+
+
+    /**
+     * Forget the text of the previous element.  Call at each start tag.
+     */
+    protected void clearText() {
+        text.setLength(0);
+    }
+
+    /**
+     * Collect the parser's current text event.
+     */
+    protected void appendText(XmlPullParser xmlPullParser) {
+        char[] characters = xmlPullParser.getTextCharacters(textRange);
+        text.append(characters, textRange[0], textRange[1]);
+    }
+
+    /**
+     * @return text collected since the last start tag.
+     */
+    protected String getText() {
+        return text.toString();
+    }
+
+    /**
+     * @return text collected since the last start tag, parsed as an RFC 822 or ISO 8601 date.
+     * @throws IllegalArgumentException if the text is not a date.
+     */
+    protected DateTime getTextAsDate() {
+        long millis = dateParser.parse(text);
+        if (millis == DateParser.INVALID) {
+            throw new IllegalArgumentException("Could not parse " + text);
+        }
+        return new DateTime(millis);
+    }
+
+    /**
+     * Parse the next Article in the feed.
+     *
+     * <p>Should be called immediately after reading an open article tag.
+     * Will not advance parser beyond closing article tag.
+     *
+     * @return parsed {@link Article} from XML stream.
+     */
+    protected abstract Article parseArticle(String feed, XmlPullParser xmlPullParser) throws XmlPullParserException, IOException;
+
+}
@@ -0,0 +1,376 @@
+package net.elprespufferfish.rssreader.parsing;
+
+/**
+ * Parses the RFC 822 and ISO 8601 dates found in feeds without allocating or throwing.
+ *
+ * <p>A feed almost always uses the same format throughout, so whichever format last succeeded is
+ * tried first.  Not thread-safe, use one instance per feed being parsed.
+ *
+ * @see <a href="https://tools.ietf.org/html/rfc822#section-5">https://tools.ietf.org/html/rfc822#section-5</a>
+ * @see <a href="https://tools.ietf.org/html/rfc3339">https://tools.ietf.org/html/rfc3339</a>
+ */
+class DateParser {
+
+    /** Returned for text that is not a date in either format. */
+    static final long INVALID = Long.MIN_VALUE;
+
+    private static final String[] MONTHS = {
+            "jan", "feb", "mar", "apr", "may", "jun", "jul", "aug", "sep", "oct", "nov", "dec"
+    };
+
+    private static final int[] DAYS_IN_MONTH = { 31, 29, 31, 30, 31, 30, 31, 31, 30, 31, 30, 31 };
+
+    private boolean preferIso8601 = false;
+    // cursor into the text being parsed
+    private CharSequence text;
+    private int position;
+
+    /**
+     * @return milliseconds since the epoch, or {@link #INVALID}.
+     */
+    long parse(CharSequence dateText) {
+        long millis = preferIso8601 ? parseIso8601(dateText) : parseRfc822(dateText);
+        if (millis != INVALID) {
+            return millis;
+        }
+        millis = preferIso8601 ? parseRfc822(dateText) : parseIso8601(dateText);
+        if (millis != INVALID) {
+            preferIso8601 = !preferIso8601;
+        }
+        return millis;
+    }
+
+    /**
+     * Parse dates such as <code>Sat, 07 Sep 2002 09:42:31 GMT</code>.
+     * @return milliseconds since the epoch, or {@link #INVALID}.
+     */
+    long parseRfc822(CharSequence dateText) {
+        reset(dateText);
+        skipWhitespace();
+        // optional day of week, which is redundant
+        if (Character.isLetter(peek())) {
+            skipLetters();
+            if (peek() != ',') {
+                return INVALID;
+            }
+            position++;
+            skipWhitespace();
+        }
+        int day = readNumber(1, 2);
+        if (!skipWhitespace()) {
+            return INVALID;
+        }
+        int month = readMonth();
+        if (!skipWhitespace()) {
+            return INVALID;
+        }
+        int yearStart = position;
+        int year = readNumber(2, 4);
+        if (position - yearStart == 2) {
+            year += year < 50 ? 2000 : 1900;
+        } else if (position - yearStart == 3) {
+            return INVALID;
+        }
+        if (!skipWhitespace()) {
+            return INVALID;
+        }
+        int hour = readNumber(1, 2);
+        if (!expect(':')) {
+            return INVALID;
+        }
+        int minute = readNumber(2, 2);
+        int second = 0;
+        if (peek() == ':') {
+            position++;
+            second = readNumber(2, 2);
+        }
+        skipWhitespace();
+        int offsetMinutes = readRfc822Zone();
+        skipWhitespace();
+        if (position != text.length() || offsetMinutes == Integer.MIN_VALUE) {
+            return INVALID;
+        }
+        return toMillis(year, month, day, hour, minute, second, 0, offsetMinutes);
+    }
+
+    /**
+     * Parse dates such as <code>2002-09-07T09:42:31.123+02:00</code>.
+     * @return milliseconds since the epoch, or {@link #INVALID}.
+     */
+    long parseIso8601(CharSequence dateText) {
+        reset(dateText);
+        skipWhitespace();
+        int year = readNumber(4, 4);
+        if (!expect('-')) {
+            return INVALID;
+        }
+        int month = readNumber(2, 2);
+        if (!expect('-')) {
+            return INVALID;
+        }
+        int day = readNumber(2, 2);
+        int hour = 0;
+        int minute = 0;
+        int second = 0;
+        int millisecond = 0;
+        int offsetMinutes = 0;
+        if (peek() == 'T' || peek() == 't' || peek() == ' ') {
+            position++;
+            hour = readNumber(2, 2);
+            if (!expect(':')) {
+                return INVALID;
+            }
+            minute = readNumber(2, 2);
+            if (peek() == ':') {
+                position++;
+                second = readNumber(2, 2);
+                if (peek() == '.' || peek() == ',') {
+                    position++;
+                    millisecond = readFraction();
+                }
+            }
+            offsetMinutes = readIso8601Zone();
+        }
+        skipWhitespace();
+        if (position != text.length() || offsetMinutes == Integer.MIN_VALUE) {
+            return INVALID;
+        }
+        return toMillis(year, month, day, hour, minute, second, millisecond, offsetMinutes);
+    }
+
+    private void reset(CharSequence dateText) {
+        text = dateText;
+        position = 0;
+    }
+
+    /**
+     * @return current character, or <code>0</code> at the end of the text.
+     */
+    private char peek() {
+        return position < text.length() ? text.charAt(position) : 0;
+    }
+
+    private boolean expect(char c) {
+        if (peek() != c) {
+            return false;
+        }
+        position++;
+        return true;
+    }
+
+    /**
+     * @return true if any whitespace was skipped.
+     */
+    private boolean skipWhitespace() {
+        int start = position;
+        while (position < text.length() && Character.isWhitespace(text.charAt(position))) {
+            position++;
+        }
+        return position > start;
+    }
+
+    private void skipLetters() {
+        while (position < text.length() && Character.isLetter(text.charAt(position))) {
+            position++;
+        }
+    }
+
+    /**
+     * @return value of the next digits, up to <code>maxDigits</code> of them, or <code>-1</code> if there are too few.
+     */
+    private int readNumber(int minDigits, int maxDigits) {
+        int start = position;
+        int value = 0;
+        while (position < text.length() && position - start < maxDigits) {
+            char c = text.charAt(position);
+            if (c < '0' || c > '9') {
+                break;
+            }
+            value = value * 10 + (c - '0');
+            position++;
+        }
+        if (position - start < minDigits) {
+            return -1;
+        }
+        return value;
+    }
+
+    /**
+     * @return milliseconds from a decimal fraction of a second, ignoring digits beyond the third.
+     */
+    private int readFraction() {
+        int millisecond = 0;
+        int digits = 0;
+        while (position < text.length() && Character.isDigit(text.charAt(position))) {
+            if (digits < 3) {
+                millisecond = millisecond * 10 + (text.charAt(position) - '0');
+            }
+            digits++;
+            position++;
+        }
+        if (digits == 0) {
+            return -1;
+        }
+        for (; digits < 3; digits++) {
+            millisecond *= 10;
+        }
+        return millisecond;
+    }
+
+    /**
+     * @return month from 1 to 12, or <code>-1</code>.
+     */
+    private int readMonth() {
+        int start = position;
+        skipLetters();
+        if (position - start < 3) {
+            return -1;
+        }
+        for (int month = 0; month < MONTHS.length; month++) {
+            if (regionMatchesIgnoreCase(start, MONTHS[month])) {
+                return month + 1;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @return offset from UTC in minutes, or {@link Integer#MIN_VALUE} if the zone is not recognised.
+     */
+    private int readRfc822Zone() {
+        char c = peek();
+        if (c == '+' || c == '-') {
+            return readNumericOffset();
+        }
+        int start = position;
+        skipLetters();
+        int length = position - start;
+        if (length == 0) {
+            // not allowed by the RFC, but common enough to assume UTC
+            return 0;
+        }
+        if (length == 1) {
+            // military zones were specified with the wrong sign, RFC 1123 says to treat them as UTC
+            return 0;
+        }
+        if (regionMatchesIgnoreCase(start, "UT") && length == 2
+                || regionMatchesIgnoreCase(start, "UTC") && length == 3
+                || regionMatchesIgnoreCase(start, "GMT") && length == 3) {
+            return 0;
+        }
+        if (length != 3 || Character.toUpperCase(text.charAt(start + 2)) != 'T') {
+            return Integer.MIN_VALUE;
+        }
+        int standardOffset;
+        switch (Character.toUpperCase(text.charAt(start))) {
+            case 'E': {
+                standardOffset = -5 * 60;
+                break;
+            }
+            case 'C': {
+                standardOffset = -6 * 60;
+                break;
+            }
+            case 'M': {
+                standardOffset = -7 * 60;
+                break;
+            }
+            case 'P': {
+                standardOffset = -8 * 60;
+                break;
+            }
+            default: {
+                return Integer.MIN_VALUE;
+            }
+        }
+        switch (Character.toUpperCase(text.charAt(start + 1))) {
+            case 'S': {
+                return standardOffset;
+            }
+            case 'D': {
+                return standardOffset + 60;
+            }
+            default: {
+                return Integer.MIN_VALUE;
+            }
+        }
+    }
+
+    /**
+     * @return offset from UTC in minutes, or {@link Integer#MIN_VALUE} if the zone is not recognised.
+     */
+    private int readIso8601Zone() {
+        char c = peek();
+        if (c == 'Z' || c == 'z') {
+            position++;
+            return 0;
+        }
+        if (c == '+' || c == '-') {
+            return readNumericOffset();
+        }
+        // local time, which feeds only use when they mean UTC
+        return 0;
+    }
+
+    /**
+     * Read an offset such as <code>+0200</code>, <code>+02:00</code> or <code>+02</code>.
+     */
+    private int readNumericOffset() {
+        int sign = text.charAt(position) == '-' ? -1 : 1;
+        position++;
+        int hours = readNumber(2, 2);
+        int minutes = 0;
+        if (peek() == ':') {
+            position++;
+            minutes = readNumber(2, 2);
+        } else if (Character.isDigit(peek())) {
+            minutes = readNumber(2, 2);
+        }
+        if (hours < 0 || hours > 23 || minutes < 0 || minutes > 59) {
+            return Integer.MIN_VALUE;
+        }
+        return sign * (hours * 60 + minutes);
+    }
+
+    private boolean regionMatchesIgnoreCase(int start, String expected) {
+        if (start + expected.length() > text.length()) {
+            return false;
+        }
+        for (int i = 0; i < expected.length(); i++) {
+            if (Character.toLowerCase(text.charAt(start + i)) != Character.toLowerCase(expected.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static long toMillis(int year, int month, int day, int hour, int minute, int second, int millisecond, int offsetMinutes) {
+        if (year < 0 || month < 1 || month > 12 || day < 1 || day > DAYS_IN_MONTH[month - 1]
+                || (month == 2 && day == 29 && !isLeapYear(year))
+                || hour < 0 || hour > 23 || minute < 0 || minute > 59 || second < 0 || second > 60 || millisecond < 0) {
+            return INVALID;
+        }
+        // leap seconds are not representable, fold them into the preceding second
+        second = Math.min(second, 59);
+        long days = daysSinceEpoch(year, month, day);
+        long seconds = ((days * 24 + hour) * 60 + minute - offsetMinutes) * 60 + second;
+        return seconds * 1000 + millisecond;
+    }
+
+    private static boolean isLeapYear(int year) {
+        return (year % 4 == 0 && year % 100 != 0) || year % 400 == 0;
+    }
+
+    /**
+     * @see <a href="http://howardhinnant.github.io/date_algorithms.html#days_from_civil">days_from_civil</a>
+     */
+    private static long daysSinceEpoch(int year, int month, int day) {
+        int y = month <= 2 ? year - 1 : year;
+        int era = (y >= 0 ? y : y - 399) / 400;
+        int yearOfEra = y - era * 400;
+        int dayOfYear = (153 * (month + (month > 2 ? -3 : 9)) + 2) / 5 + day - 1;
+        int dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+        return era * 146097L + dayOfEra - 719468;
+    }
+
+}
@@ -0,0 +1,123 @@
+package net.elprespufferfish.rssreader.parsing;
+
+import org.xmlpull.v1.XmlPullParser;
+
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.util.Locale;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Collects image URLs that a feed supplies for an article, keeping the most reliable one.
+ *
+ * <p>Feeds that provide an image this way spare the article page from being scraped.
+ */
+class ImageCandidates {
+
+    /** Media RSS namespace, used by both RSS and Atom feeds. */
+    static final String MEDIA_NAMESPACE = "http://search.yahoo.com/mrss/";
+
+    private static final Pattern IMG_PATTERN = Pattern.compile("<img\\s[^>]*>", Pattern.CASE_INSENSITIVE);
+    private static final Pattern ATTRIBUTE_PATTERN = Pattern.compile(
+            "\\s(src|width|height)\\s*=\\s*(?:\"([^\"]*)\"|'([^']*)'|([^\\s\"'>]+))", Pattern.CASE_INSENSITIVE);
+
+    // lower is better
+    private static final int RANK_THUMBNAIL = 0;
+    private static final int RANK_MEDIA_CONTENT = 1;
+    private static final int RANK_ENCLOSURE = 2;
+    private static final int RANK_EMBEDDED = 3;
+    private static final int RANK_NONE = Integer.MAX_VALUE;
+
+    private String imageUrl;
+    private int rank = RANK_NONE;
+
+    /**
+     * Consider a Media RSS element at the parser's current start tag.
+     */
+    void offerMedia(XmlPullParser xmlPullParser) {
+        if (!MEDIA_NAMESPACE.equals(xmlPullParser.getNamespace())) {
+            return;
+        }
+        String nodeName = xmlPullParser.getName();
+        if ("thumbnail".equals(nodeName)) {
+            offer(RANK_THUMBNAIL, xmlPullParser.getAttributeValue(null, "url"));
+        } else if ("content".equals(nodeName)) {
+            String medium = xmlPullParser.getAttributeValue(null, "medium");
+            String type = xmlPullParser.getAttributeValue(null, "type");
+            if ("image".equals(medium) || isImageType(type)) {
+                offer(RANK_MEDIA_CONTENT, xmlPullParser.getAttributeValue(null, "url"));
+            }
+        }
+    }
+
+    /**
+     * Consider an enclosure, which is only an image if its type says so.
+     */
+    void offerEnclosure(String url, String type) {
+        if (isImageType(type)) {
+            offer(RANK_ENCLOSURE, url);
+        }
+    }
+
+    /**
+     * Consider the first &lt;img&gt; embedded in an article's HTML content, skipping tracking pixels.
+     */
+    void offerEmbedded(String html) {
+        if (html == null || rank <= RANK_EMBEDDED) {
+            return;
+        }
+        Matcher imgMatcher = IMG_PATTERN.matcher(html);
+        while (imgMatcher.find()) {
+            String src = null;
+            String width = null;
+            String height = null;
+            Matcher attributeMatcher = ATTRIBUTE_PATTERN.matcher(imgMatcher.group());
+            while (attributeMatcher.find()) {
+                String value = attributeMatcher.group(2) != null ? attributeMatcher.group(2)
+                        : attributeMatcher.group(3) != null ? attributeMatcher.group(3)
+                        : attributeMatcher.group(4);
+                String name = attributeMatcher.group(1).toLowerCase(Locale.US);
+                if ("src".equals(name)) {
+                    src = OpenGraphExtractor.decodeEntities(value);
+                } else if ("width".equals(name)) {
+                    width = value;
+                } else {
+                    height = value;
+                }
+            }
+            if (src != null && !src.trim().isEmpty() && !Trackers.isTrackingImage(src.trim(), width, height)) {
+                offer(RANK_EMBEDDED, src);
+                return;
+            }
+        }
+    }
+
+    /**
+     * @param articleUrl used to resolve relative image URLs, may be <code>null</code>.
+     * @return best image offered, or <code>null</code> if none was.
+     */
+    String get(String articleUrl) {
+        if (imageUrl == null || articleUrl == null) {
+            return imageUrl;
+        }
+        try {
+            return new URL(new URL(articleUrl), imageUrl).toString();
+        } catch (MalformedURLException e) {
+            return imageUrl;
+        }
+    }
+
+    private void offer(int candidateRank, String candidateUrl) {
+        if (candidateUrl == null || candidateUrl.trim().isEmpty() || candidateRank >= rank) {
+            return;
+        }
+        imageUrl = candidateUrl.trim();
+        rank = candidateRank;
+    }
+
+    private static boolean isImageType(String type) {
+        return type != null && type.toLowerCase(Locale.US).startsWith("image/");
+    }
+
+}
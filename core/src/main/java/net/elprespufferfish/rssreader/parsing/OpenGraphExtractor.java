@@ -0,0 +1,474 @@
+package net.elprespufferfish.rssreader.parsing;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.PushbackInputStream;
+import java.io.Reader;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.nio.charset.Charset;
+import java.nio.charset.IllegalCharsetNameException;
+import java.nio.charset.StandardCharsets;
+import java.nio.charset.UnsupportedCharsetException;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Reads OpenGraph metadata from the head of an HTML page without building a document.
+ *
+ * <p>The page is tokenized as it streams in and reading stops as soon as the requested property is
+ * found, the head ends, or the body starts, so the bulk of the page is never downloaded.
+ *
+ * <p>Unless a byte order mark says otherwise, the page is scanned as ISO-8859-1 so that markup can be
+ * recognised before the real charset is known.  Attribute values are then re-decoded with the charset
+ * from the Content-Type header, or failing that a &lt;meta&gt; charset declaration, or UTF-8.
+ *
+ * @see <a href="http://ogp.me/">http://ogp.me/</a>
+ */
+public class OpenGraphExtractor {
+
+    /** Give up on pages whose head is unreasonably large. */
+    private static final int MAX_HEAD_LENGTH = 256 * 1024;
+    private static final int BUFFER_SIZE = 4096;
+
+    /**
+     * @param body page content.  Not closed.
+     * @param contentType value of the Content-Type response header, or <code>null</code>.
+     * @param pageUrl address the page was fetched from, used to resolve relative URLs.
+     * @param property name of the property, e.g. <code>og:image</code>.
+     * @return value of the property, or <code>null</code> if the page head does not declare it.
+     */
+    public static String extract(InputStream body, String contentType, String pageUrl, String property) throws IOException {
+        PushbackInputStream input = new PushbackInputStream(body, 3);
+        Charset bomCharset = readByteOrderMark(input);
+        Charset headerCharset = parseCharset(contentType);
+
+        Reader reader = new InputStreamReader(input, bomCharset != null ? bomCharset : StandardCharsets.ISO_8859_1);
+        Tokenizer tokenizer = new Tokenizer(reader, bomCharset == null, headerCharset);
+        String value = tokenizer.findMetaContent(property.toLowerCase(Locale.US));
+        if (value == null) {
+            return null;
+        }
+        return resolve(tokenizer.getBaseUrl() != null ? tokenizer.getBaseUrl() : pageUrl, value);
+    }
+
+    /**
+     * Consume a byte order mark if present.
+     * @return charset indicated by the byte order mark, or <code>null</code>.
+     */
+    private static Charset readByteOrderMark(PushbackInputStream input) throws IOException {
+        byte[] bom = new byte[3];
+        int length = 0;
+        int read;
+        while (length < bom.length && (read = input.read(bom, length, bom.length - length)) != -1) {
+            length += read;
+        }
+
+        if (length >= 3 && (bom[0] & 0xff) == 0xef && (bom[1] & 0xff) == 0xbb && (bom[2] & 0xff) == 0xbf) {
+            return StandardCharsets.UTF_8;
+        }
+        if (length >= 2 && (bom[0] & 0xff) == 0xfe && (bom[1] & 0xff) == 0xff) {
+            input.unread(bom, 2, length - 2);
+            return StandardCharsets.UTF_16BE;
+        }
+        if (length >= 2 && (bom[0] & 0xff) == 0xff && (bom[1] & 0xff) == 0xfe) {
+            input.unread(bom, 2, length - 2);
+            return StandardCharsets.UTF_16LE;
+        }
+        input.unread(bom, 0, length);
+        return null;
+    }
+
+    /**
+     * @return charset parameter of a Content-Type value, or <code>null</code> if absent or unsupported.
+     */
+    static Charset parseCharset(String contentType) {
+        if (contentType == null) {
+            return null;
+        }
+        int index = contentType.toLowerCase(Locale.US).indexOf("charset=");
+        if (index == -1) {
+            return null;
+        }
+        String name = contentType.substring(index + "charset=".length()).trim();
+        int end = 0;
+        while (end < name.length() && name.charAt(end) != ';' && !Character.isWhitespace(name.charAt(end))) {
+            end++;
+        }
+        name = name.substring(0, end).replace("\"", "").replace("'", "");
+        try {
+            return Charset.forName(name);
+        } catch (IllegalCharsetNameException | UnsupportedCharsetException e) {
+            return null;
+        }
+    }
+
+    private static String resolve(String baseUrl, String url) {
+        if (baseUrl == null) {
+            return url;
+        }
+        try {
+            return new URL(new URL(baseUrl), url).toString();
+        } catch (MalformedURLException e) {
+            return url;
+        }
+    }
+
+    /**
+     * Decode the character references commonly found in attribute values.
+     */
+    static String decodeEntities(String value) {
+        int ampersand = value.indexOf('&');
+        if (ampersand == -1) {
+            return value;
+        }
+
+        StringBuilder decoded = new StringBuilder(value.length());
+        decoded.append(value, 0, ampersand);
+        int i = ampersand;
+        while (i < value.length()) {
+            char c = value.charAt(i);
+            int semicolon = c == '&' ? value.indexOf(';', i) : -1;
+            if (semicolon == -1 || semicolon - i > 10) {
+                decoded.append(c);
+                i++;
+                continue;
+            }
+
+            String entity = value.substring(i + 1, semicolon);
+            int codePoint = -1;
+            if (entity.startsWith("#x") || entity.startsWith("#X")) {
+                codePoint = parseCodePoint(entity.substring(2), 16);
+            } else if (entity.startsWith("#")) {
+                codePoint = parseCodePoint(entity.substring(1), 10);
+            } else {
+                switch (entity) {
+                    case "amp":
+                        codePoint = '&';
+                        break;
+                    case "lt":
+                        codePoint = '<';
+                        break;
+                    case "gt":
+                        codePoint = '>';
+                        break;
+                    case "quot":
+                        codePoint = '"';
+                        break;
+                    case "apos":
+                        codePoint = '\'';
+                        break;
+                    default:
+                        // unknown entity, keep as is
+                }
+            }
+
+            if (codePoint == -1) {
+                decoded.append(c);
+                i++;
+            } else {
+                decoded.appendCodePoint(codePoint);
+                i = semicolon + 1;
+            }
+        }
+        return decoded.toString();
+    }
+
+    private static int parseCodePoint(String digits, int radix) {
+        try {
+            int codePoint = Integer.parseInt(digits, radix);
+            return Character.isValidCodePoint(codePoint) ? codePoint : -1;
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * Minimal HTML tokenizer covering what can appear in a document head.
+     */
+    private static class Tokenizer {
+
+        private final Reader reader;
+        private final char[] buffer = new char[BUFFER_SIZE];
+        private int position = 0;
+        private int limit = 0;
+        private int numRead = 0;
+
+        /** True if the reader yields raw bytes as ISO-8859-1 rather than the page's real characters. */
+        private final boolean isScanningBytes;
+        /** Charset from the Content-Type header, or <code>null</code>. */
+        private final Charset headerCharset;
+        private Charset metaCharset;
+        private String baseUrl;
+
+        public Tokenizer(Reader reader, boolean isScanningBytes, Charset headerCharset) {
+            this.reader = reader;
+            this.isScanningBytes = isScanningBytes;
+            this.headerCharset = headerCharset;
+        }
+
+        /**
+         * @return href of a &lt;base&gt; tag seen while scanning, or <code>null</code>.
+         */
+        public String getBaseUrl() {
+            return baseUrl;
+        }
+
+        /**
+         * @return content of the first &lt;meta&gt; whose property or name matches, or <code>null</code>.
+         */
+        public String findMetaContent(String property) throws IOException {
+            int c;
+            while ((c = read()) != -1) {
+                if (c != '<') {
+                    continue;
+                }
+
+                c = read();
+                if (c == '!') {
+                    if (read() == '-' && read() == '-') {
+                        skipPast("-->");
+                    } else {
+                        skipPast(">");
+                    }
+                } else if (c == '/') {
+                    String name = readTagName(read());
+                    if ("head".equals(name)) {
+                        return null;
+                    }
+                    skipPast(">");
+                } else if (isLetter(c)) {
+                    String name = readTagName(c);
+                    if ("body".equals(name)) {
+                        return null;
+                    } else if ("meta".equals(name) || "base".equals(name)) {
+                        Map<String, String> attributes = readAttributes();
+                        String content = "meta".equals(name)
+                                ? handleMeta(attributes, property)
+                                : handleBase(attributes);
+                        if (content != null) {
+                            return content;
+                        }
+                    } else {
+                        boolean isSelfClosing = skipAttributes();
+                        if (!isSelfClosing && ("script".equals(name) || "style".equals(name) || "title".equals(name))) {
+                            skipRawText(name);
+                        }
+                    }
+                } else if (c == '?') {
+                    skipPast(">");
+                } else {
+                    // stray '<' in text
+                    unread(c);
+                }
+            }
+            return null;
+        }
+
+        private String handleMeta(Map<String, String> attributes, String property) {
+            String charset = attributes.get("charset");
+            if (charset == null && "content-type".equalsIgnoreCase(attributes.get("http-equiv"))) {
+                charset = attributes.get("content");
+            }
+            if (charset != null && metaCharset == null) {
+                metaCharset = charset.contains("=") ? parseCharset(charset) : parseCharset("charset=" + charset);
+            }
+
+            String name = attributes.get("property");
+            if (name == null) {
+                name = attributes.get("name");
+            }
+            String content = attributes.get("content");
+            if (name == null || content == null || !property.equals(name.trim().toLowerCase(Locale.US))) {
+                return null;
+            }
+            content = decode(content).trim();
+            return content.isEmpty() ? null : content;
+        }
+
+        private String handleBase(Map<String, String> attributes) {
+            String href = attributes.get("href");
+            if (href != null && baseUrl == null) {
+                baseUrl = decode(href).trim();
+            }
+            return null;
+        }
+
+        /**
+         * Turn a value scanned from the page into its real characters.
+         */
+        private String decode(String value) {
+            if (isScanningBytes) {
+                Charset charset = headerCharset != null ? headerCharset : (metaCharset != null ? metaCharset : StandardCharsets.UTF_8);
+                value = new String(value.getBytes(StandardCharsets.ISO_8859_1), charset);
+            }
+            return decodeEntities(value);
+        }
+
+        private String readTagName(int c) throws IOException {
+            StringBuilder name = new StringBuilder(8);
+            while (c != -1 && (isLetter(c) || Character.isDigit(c))) {
+                name.append(Character.toLowerCase((char) c));
+                c = read();
+            }
+            unread(c);
+            return name.toString();
+        }
+
+        /**
+         * Read attributes up to and including the end of the tag.
+         */
+        private Map<String, String> readAttributes() throws IOException {
+            Map<String, String> attributes = new HashMap<>();
+            while (true) {
+                int c = skipWhitespace();
+                if (c == -1 || c == '>') {
+                    return attributes;
+                }
+                if (c == '/') {
+                    continue;
+                }
+
+                StringBuilder name = new StringBuilder();
+                while (c != -1 && c != '=' && c != '>' && c != '/' && !isWhitespace(c)) {
+                    name.append(Character.toLowerCase((char) c));
+                    c = read();
+                }
+                if (isWhitespace(c)) {
+                    c = skipWhitespace();
+                }
+
+                String value = "";
+                if (c == '=') {
+                    value = readAttributeValue();
+                } else {
+                    unread(c);
+                }
+                if (!attributes.containsKey(name.toString())) {
+                    attributes.put(name.toString(), value);
+                }
+            }
+        }
+
+        private String readAttributeValue() throws IOException {
+            int c = skipWhitespace();
+            StringBuilder value = new StringBuilder();
+            if (c == '"' || c == '\'') {
+                int quote = c;
+                while ((c = read()) != -1 && c != quote) {
+                    value.append((char) c);
+                }
+            } else {
+                while (c != -1 && c != '>' && !isWhitespace(c)) {
+                    value.append((char) c);
+                    c = read();
+                }
+                unread(c);
+            }
+            return value.toString();
+        }
+
+        /**
+         * Skip to the end of the current tag.
+         * @return true if the tag was self-closing.
+         */
+        private boolean skipAttributes() throws IOException {
+            int previous = -1;
+            int quote = -1;
+            int c;
+            while ((c = read()) != -1) {
+                if (quote != -1) {
+                    if (c == quote) {
+                        quote = -1;
+                    }
+                } else if (c == '"' || c == '\'') {
+                    quote = c;
+                } else if (c == '>') {
+                    return previous == '/';
+                } else if (!isWhitespace(c)) {
+                    previous = c;
+                }
+            }
+            return false;
+        }
+
+        /**
+         * Skip the content of an element whose text is not markup, up to and including its end tag.
+         */
+        private void skipRawText(String name) throws IOException {
+            int c;
+            while ((c = read()) != -1) {
+                if (c != '<') {
+                    continue;
+                }
+                c = read();
+                if (c != '/') {
+                    unread(c);
+                    continue;
+                }
+                if (name.equals(readTagName(read()))) {
+                    skipPast(">");
+                    return;
+                }
+            }
+        }
+
+        private void skipPast(String terminator) throws IOException {
+            int matched = 0;
+            int c;
+            while (matched < terminator.length() && (c = read()) != -1) {
+                if (c == terminator.charAt(matched)) {
+                    matched++;
+                } else {
+                    matched = c == terminator.charAt(0) ? 1 : 0;
+                }
+            }
+        }
+
+        private int skipWhitespace() throws IOException {
+            int c;
+            do {
+                c = read();
+            } while (isWhitespace(c));
+            return c;
+        }
+
+        private int read() throws IOException {
+            if (position == limit) {
+                if (numRead >= MAX_HEAD_LENGTH) {
+                    return -1;
+                }
+                limit = reader.read(buffer, 0, buffer.length);
+                position = 0;
+                if (limit <= 0) {
+                    limit = 0;
+                    return -1;
+                }
+                numRead += limit;
+            }
+            return buffer[position++];
+        }
+
+        private void unread(int c) {
+            if (c != -1) {
+                position--;
+            }
+        }
+
+        private static boolean isLetter(int c) {
+            return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z');
+        }
+
+        private static boolean isWhitespace(int c) {
+            return c == ' ' || c == '\t' || c == '\n' || c == '\r' || c == '\f';
+        }
+
+    }
+
+    private OpenGraphExtractor() {
+        // prevent instantiation
+    }
+
+}
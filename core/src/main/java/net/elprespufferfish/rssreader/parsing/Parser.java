@@ -1,5 +1,7 @@
 package net.elprespufferfish.rssreader.parsing;
 
+import com.google.common.base.Predicate;
+
 import net.elprespufferfish.rssreader.Article;
 import net.elprespufferfish.rssreader.Feed;
 
@@ -7,7 +9,6 @@ import org.xmlpull.v1.XmlPullParser;
 import org.xmlpull.v1.XmlPullParserException;
 
 import java.io.IOException;
-import java.util.List;
 
 /**
  * Parses article feeds.
@@ -20,8 +21,10 @@ public interface Parser {
     Feed parseFeed(String feedAddress, XmlPullParser xmlPullParser) throws XmlPullParserException, IOException;
 
     /**
-     * Parse {@link Article} objects from the provided XML stream.
+     * Parse {@link Article} objects from the provided XML stream, handing each to the sink as soon as it is parsed.
+     * @param isUnchanged identifies articles that are already stored as parsed and should be skipped.
+     * @return number of articles handed to the sink.
      */
-    List<Article> parseArticles(String feedAddress, XmlPullParser xmlPullParser, int maxAgeDays, String latestGuid) throws IOException, XmlPullParserException;
+    int parseArticles(String feedAddress, XmlPullParser xmlPullParser, int maxAgeDays, Predicate<Article> isUnchanged, ArticleSink sink) throws IOException, XmlPullParserException;
 
 }
\ No newline at end of file
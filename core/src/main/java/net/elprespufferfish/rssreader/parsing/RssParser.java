@@ -2,13 +2,9 @@ package net.elprespufferfish.rssreader.parsing;
 
 import net.elprespufferfish.rssreader.Article;
 import net.elprespufferfish.rssreader.Feed;
-import net.elprespufferfish.rssreader.parsing.Articles;
 import net.elprespufferfish.rssreader.parsing.BaseParser;
 import net.elprespufferfish.rssreader.parsing.Parser;
 
-import org.joda.time.DateTime;
-import org.joda.time.format.DateTimeFormat;
-import org.joda.time.format.DateTimeFormatter;
 import org.xmlpull.v1.XmlPullParser;
 import org.xmlpull.v1.XmlPullParserException;
 
@@ -21,11 +17,6 @@ import java.io.IOException;
  */
 public class RssParser extends BaseParser implements Parser {
 
-    private static final DateTimeFormatter[] RFC822_FORMATTERS = new DateTimeFormatter[] {
-            DateTimeFormat.forPattern("EEE, dd MMM yyyy HH:mm:ss Z"),
-            DateTimeFormat.forPattern("EEE, dd MMM yyyy HH:mm:ss z")
-    };
-
     public RssParser() {
         super("item");
     }
@@ -73,50 +64,63 @@ public class RssParser extends BaseParser implements Parser {
         Article.Builder builder = new Article.Builder();
         builder.setFeed(feed);
 
-        String text = null;
+        ImageCandidates imageCandidates = new ImageCandidates();
+        String link = null;
         int eventType = xmlPullParser.getEventType();
         while (eventType != XmlPullParser.END_DOCUMENT) {
             switch (eventType) {
                 case XmlPullParser.START_TAG: {
-                    // no-op
+                    clearText();
+                    if (xmlPullParser.getNamespace().isEmpty() && "enclosure".equals(xmlPullParser.getName())) {
+                        imageCandidates.offerEnclosure(
+                                xmlPullParser.getAttributeValue(null, "url"),
+                                xmlPullParser.getAttributeValue(null, "type"));
+                    } else {
+                        imageCandidates.offerMedia(xmlPullParser);
+                    }
                     break;
                 }
                 case XmlPullParser.TEXT: {
-                    text = xmlPullParser.getText();
+                    appendText(xmlPullParser);
                     break;
                 }
                 case XmlPullParser.END_TAG: {
-                    String namespace = xmlPullParser.getNamespace();
-
-                    String nodeName = xmlPullParser.getName();
-                    if ("".equals(namespace) && "title".equals(nodeName)) {
-                        builder.setTitle(text);
-                    } else if ("".equals(namespace) && "link".equals(nodeName)) {
-                        builder.setLink(text);
-                        String imageUrl = Articles.getOpenGraphContent(text, "image");
-                        builder.setImageUrl(imageUrl);
-                    } else if ("".equals(namespace) && "pubDate".equals(nodeName)) {
-                        DateTime publicationDate = null;
-                        for (DateTimeFormatter dateTimeFormatter : RFC822_FORMATTERS) {
-                            try {
-                                publicationDate = dateTimeFormatter.parseDateTime(text);
-                                break;
-                            } catch (IllegalArgumentException e) {
-                                // ignore
-                            }
+                    if (!xmlPullParser.getNamespace().isEmpty()) {
+                        break;
+                    }
+                    switch (xmlPullParser.getName()) {
+                        case "title": {
+                            builder.setTitle(getText());
+                            break;
+                        }
+                        case "link": {
+                            link = getText();
+                            builder.setLink(link);
+                            break;
+                        }
+                        case "pubDate": {
+                            builder.setPublicationDate(getTextAsDate());
+                            break;
+                        }
+                        case "description": {
+                            String description = getText();
+                            builder.setDescription(description);
+                            imageCandidates.offerEmbedded(description);
+                            break;
+                        }
+                        case "guid": {
+                            builder.setGuid(getText());
+                            break;
+                        }
+                        case "item": {
+                            builder.setImageUrl(imageCandidates.get(link));
+                            // return immediately to ensure we do not advance the
+                            // pull parser too far
+                            return builder.build();
                         }
-                        if (publicationDate == null) {
-                            throw new IllegalArgumentException("Could not parse " + text);
+                        default: {
+                            // no-op
                         }
-                        builder.setPublicationDate(publicationDate);
-                    } else if ("".equals(namespace) && "description".equals(nodeName)) {
-                        builder.setDescription(text);
-                    } else if ("".equals(namespace) && "guid".equals(nodeName)) {
-                        builder.setGuid(text);
-                    } else if ("".equals(namespace) && "item".equals(nodeName)) {
-                        // return immediately to ensure we do not advance the
-                        // pull parser too far
-                        return builder.build();
                     }
                     break;
                 }
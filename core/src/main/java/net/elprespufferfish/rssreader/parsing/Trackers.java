@@ -0,0 +1,66 @@
+package net.elprespufferfish.rssreader.parsing;
+
+import com.google.common.collect.ImmutableSet;
+
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.util.Set;
+
+/**
+ * Recognises images that are only there to track readers, such as 1x1 pixels and images served by
+ * analytics, ad and share button hosts.
+ */
+class Trackers {
+
+    /** Hosts that only serve tracking pixels, ads or share buttons. */
+    private static final Set<String> TRACKER_HOSTS = ImmutableSet.<String> builder()
+            .add("feeds.feedburner.com")
+            .add("feedads.g.doubleclick.net")
+            .add("pixel.wp.com")
+            .add("stats.wordpress.com")
+            .add("pixel.quantserve.com")
+            .add("www.google-analytics.com")
+            .add("da.feedsportal.com")
+            .add("pi.feedsportal.com")
+            .build();
+
+    /**
+     * @param url absolute address of the image.
+     * @param width value of the image's width attribute, may be <code>null</code>.
+     * @param height value of the image's height attribute, may be <code>null</code>.
+     */
+    static boolean isTrackingImage(String url, String width, String height) {
+        return isAtMostOnePixel(width) || isAtMostOnePixel(height) || TRACKER_HOSTS.contains(host(url));
+    }
+
+    /**
+     * @return host of the provided URL, or <code>null</code> if it is not a valid absolute URL.
+     */
+    static String host(String url) {
+        try {
+            return new URL(url).getHost();
+        } catch (MalformedURLException e) {
+            return null;
+        }
+    }
+
+    private static boolean isAtMostOnePixel(String dimension) {
+        if (dimension == null) {
+            return false;
+        }
+        String digits = dimension.trim();
+        if (digits.endsWith("px")) {
+            digits = digits.substring(0, digits.length() - 2);
+        }
+        try {
+            return Integer.parseInt(digits) <= 1;
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+
+    private Trackers() {
+        // prevent instantiation
+    }
+
+}
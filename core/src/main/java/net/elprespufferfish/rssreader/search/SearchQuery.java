@@ -0,0 +1,109 @@
+package net.elprespufferfish.rssreader.search;
+
+import com.google.common.base.Joiner;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Translates what the user typed into a full-text MATCH expression.
+ *
+ * <p>Words must all match, {@code OR} between two terms matches either, a trailing {@code *} matches
+ * words with that prefix, and double quotes match a phrase.  Punctuation is dropped, so nothing the user
+ * types can produce an invalid expression.  As in SQLite's standard query syntax, {@code OR} binds more
+ * tightly than the implicit AND: {@code a b OR c} matches {@code a} and either {@code b} or {@code c}.
+ */
+public class SearchQuery {
+
+    private static final String OR = "OR";
+
+    /**
+     * @return expression to MATCH against, or an empty string if the query contains nothing to search for.
+     */
+    public static String toMatchExpression(String query) {
+        List<String> terms = new ArrayList<>();
+        int length = query.length();
+        int i = 0;
+        while (i < length) {
+            char c = query.charAt(i);
+            if (Character.isWhitespace(c)) {
+                i++;
+                continue;
+            }
+
+            if (c == '"') {
+                int end = query.indexOf('"', i + 1);
+                if (end == -1) {
+                    end = length;
+                }
+                boolean isPrefix = end + 1 < length && query.charAt(end + 1) == '*';
+                String phrase = clean(query.substring(i + 1, end));
+                if (!phrase.isEmpty()) {
+                    terms.add(quote(phrase, isPrefix));
+                }
+                i = isPrefix ? end + 2 : end + 1;
+                continue;
+            }
+
+            int end = i;
+            while (end < length && !Character.isWhitespace(query.charAt(end)) && query.charAt(end) != '"') {
+                end++;
+            }
+            String word = query.substring(i, end);
+            i = end;
+
+            if (OR.equals(word)) {
+                if (!terms.isEmpty() && !OR.equals(terms.get(terms.size() - 1))) {
+                    terms.add(OR);
+                }
+                continue;
+            }
+            boolean isPrefix = word.endsWith("*");
+            String cleaned = clean(word);
+            if (cleaned.isEmpty()) {
+                continue;
+            }
+            if (cleaned.indexOf(' ') == -1) {
+                terms.add(isPrefix ? cleaned + "*" : cleaned);
+            } else {
+                // e.g. "e-mail", which the tokenizer also splits
+                terms.add(quote(cleaned, isPrefix));
+            }
+        }
+
+        if (!terms.isEmpty() && OR.equals(terms.get(terms.size() - 1))) {
+            terms.remove(terms.size() - 1);
+        }
+        return Joiner.on(' ').join(terms);
+    }
+
+    /**
+     * @return letters and digits of the text as space separated words, with ASCII folded to lower case
+     * so that no word is read as an operator.
+     */
+    private static String clean(String text) {
+        StringBuilder cleaned = new StringBuilder(text.length());
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (Character.isLetterOrDigit(c)) {
+                cleaned.append(c < 128 ? Character.toLowerCase(c) : c);
+            } else if (cleaned.length() > 0 && cleaned.charAt(cleaned.length() - 1) != ' ') {
+                cleaned.append(' ');
+            }
+        }
+        int end = cleaned.length();
+        if (end > 0 && cleaned.charAt(end - 1) == ' ') {
+            cleaned.setLength(end - 1);
+        }
+        return cleaned.toString();
+    }
+
+    private static String quote(String phrase, boolean isPrefix) {
+        return '"' + phrase + (isPrefix ? "*" : "") + '"';
+    }
+
+    private SearchQuery() {
+        // prevent instantiation
+    }
+
+}
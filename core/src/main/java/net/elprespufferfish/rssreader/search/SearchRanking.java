@@ -0,0 +1,61 @@
+package net.elprespufferfish.rssreader.search;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+
+/**
+ * Okapi BM25 relevance of a full-text match, computed from SQLite's {@code matchinfo(table, 'pcnalx')}.
+ *
+ * <p>FTS4 has no ranking function of its own, and Android offers no way to register one, so the
+ * statistics are read back and scored here.
+ */
+public class SearchRanking {
+
+    /** Format string to pass to {@code matchinfo}. */
+    public static final String MATCHINFO_FORMAT = "pcnalx";
+
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+
+    /**
+     * @param matchinfo blob of 32-bit unsigned integers in native byte order.
+     * @param columnWeights multiplier for matches in each column of the table.
+     * @return score of the row, higher is more relevant.
+     */
+    public static double score(byte[] matchinfo, double... columnWeights) {
+        IntBuffer values = ByteBuffer.wrap(matchinfo).order(ByteOrder.nativeOrder()).asIntBuffer();
+        int numPhrases = values.get(0);
+        int numColumns = values.get(1);
+        int numRows = values.get(2);
+        int averageLengths = 3;
+        int lengths = averageLengths + numColumns;
+        int hits = lengths + numColumns;
+
+        double score = 0;
+        for (int phrase = 0; phrase < numPhrases; phrase++) {
+            for (int column = 0; column < numColumns; column++) {
+                int hit = hits + 3 * (phrase * numColumns + column);
+                int hitsInRow = values.get(hit);
+                int rowsWithHits = values.get(hit + 2);
+                int averageLength = values.get(averageLengths + column);
+                if (hitsInRow == 0 || averageLength == 0) {
+                    continue;
+                }
+
+                // common terms would otherwise score negative
+                double idf = Math.max(Math.log((numRows - rowsWithHits + 0.5) / (rowsWithHits + 0.5)), 1e-6);
+                double lengthRatio = (double) values.get(lengths + column) / averageLength;
+                double tf = hitsInRow * (K1 + 1) / (hitsInRow + K1 * (1 - B + B * lengthRatio));
+                double weight = column < columnWeights.length ? columnWeights[column] : 1;
+                score += weight * idf * tf;
+            }
+        }
+        return score;
+    }
+
+    private SearchRanking() {
+        // prevent instantiation
+    }
+
+}
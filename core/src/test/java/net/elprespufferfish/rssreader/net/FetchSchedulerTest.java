@@ -0,0 +1,228 @@
+package net.elprespufferfish.rssreader.net;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+public class FetchSchedulerTest {
+
+    private static final long TIMEOUT_MS = 5000;
+    /** Long enough that scheduling jitter does not look like congestion. */
+    private static final long HEALTHY_LATENCY_MS = 20;
+
+    private final List<String> started = new ArrayList<>();
+
+    @Test
+    public void testLimitsFetchesPerHost() throws Exception {
+        // given
+        FetchScheduler fetchScheduler = new FetchScheduler(4, 4, 2);
+        Fetch first = new Fetch("first");
+        Fetch second = new Fetch("second");
+        Fetch third = new Fetch("third");
+
+        // when
+        fetchScheduler.submit("a", first);
+        fetchScheduler.submit("a", second);
+        fetchScheduler.submit("a", third);
+        awaitStarted(2);
+
+        // then
+        assertThat(startedFetches(), containsInAnyOrder("first", "second"));
+
+        // when
+        first.release();
+        awaitStarted(3);
+
+        // then
+        assertThat(startedFetches().get(2), is("third"));
+        second.release();
+        third.release();
+        assertThat(fetchScheduler.awaitIdle(TIMEOUT_MS, TimeUnit.MILLISECONDS), is(true));
+    }
+
+    @Test
+    public void testStartsFetchesInSubmissionOrder() throws Exception {
+        // given
+        FetchScheduler fetchScheduler = new FetchScheduler(1, 1, 1);
+        List<Fetch> fetches = Arrays.asList(new Fetch("a"), new Fetch("b"), new Fetch("c"), new Fetch("d"));
+        for (Fetch fetch : fetches) {
+            fetchScheduler.submit(fetch.name, fetch);
+        }
+
+        // when
+        for (int i = 0; i < fetches.size(); i++) {
+            awaitStarted(i + 1);
+            fetches.get(i).release();
+        }
+
+        // then
+        assertThat(fetchScheduler.awaitIdle(TIMEOUT_MS, TimeUnit.MILLISECONDS), is(true));
+        assertThat(startedFetches(), contains("a", "b", "c", "d"));
+    }
+
+    @Test
+    public void testSkipsHostsAtLimit() throws Exception {
+        // given
+        FetchScheduler fetchScheduler = new FetchScheduler(2, 2, 1);
+        Fetch a1 = new Fetch("a1");
+        Fetch a2 = new Fetch("a2");
+        Fetch b1 = new Fetch("b1");
+        Fetch c1 = new Fetch("c1");
+
+        // when
+        fetchScheduler.submit("a", a1);
+        fetchScheduler.submit("a", a2);
+        fetchScheduler.submit("b", b1);
+        fetchScheduler.submit("c", c1);
+        awaitStarted(2);
+
+        // then
+        assertThat(startedFetches(), containsInAnyOrder("a1", "b1"));
+
+        // when
+        b1.release();
+        awaitStarted(3);
+
+        // then
+        assertThat(startedFetches().get(2), is("c1"));
+
+        // when
+        a1.release();
+        awaitStarted(4);
+
+        // then
+        assertThat(startedFetches().get(3), is("a2"));
+        a2.release();
+        c1.release();
+        assertThat(fetchScheduler.awaitIdle(TIMEOUT_MS, TimeUnit.MILLISECONDS), is(true));
+    }
+
+    @Test
+    public void testGrowsLimitAfterHealthyWindows() throws Exception {
+        // given
+        FetchScheduler fetchScheduler = new FetchScheduler(1, 8, 8);
+
+        // when
+        // windows of 1, 2 and 3 healthy completions
+        for (int i = 0; i < 6; i++) {
+            fetchScheduler.submit("a", healthy());
+            assertThat(fetchScheduler.awaitIdle(TIMEOUT_MS, TimeUnit.MILLISECONDS), is(true));
+        }
+
+        // then
+        assertThat(fetchScheduler.getConcurrencyLimit(), is(4));
+    }
+
+    @Test
+    public void testHalvesLimitWhenAnyFetchInWindowFails() throws Exception {
+        // given
+        FetchScheduler fetchScheduler = new FetchScheduler(1, 8, 8);
+        for (int i = 0; i < 6; i++) {
+            fetchScheduler.submit("a", healthy());
+            assertThat(fetchScheduler.awaitIdle(TIMEOUT_MS, TimeUnit.MILLISECONDS), is(true));
+        }
+        assertThat(fetchScheduler.getConcurrencyLimit(), is(4));
+
+        // when
+        // the failure completes first and healthy fetches close the window
+        fetchScheduler.submit("a", failed());
+        for (int i = 0; i < 3; i++) {
+            fetchScheduler.submit("a", healthy());
+        }
+        assertThat(fetchScheduler.awaitIdle(TIMEOUT_MS, TimeUnit.MILLISECONDS), is(true));
+
+        // then
+        assertThat(fetchScheduler.getConcurrencyLimit(), is(2));
+    }
+
+    @Test
+    public void testCancelPendingLeavesRunningFetches() throws Exception {
+        // given
+        FetchScheduler fetchScheduler = new FetchScheduler(1, 1, 1);
+        Fetch running = new Fetch("running");
+        fetchScheduler.submit("a", running);
+        fetchScheduler.submit("b", new Fetch("b"));
+        fetchScheduler.submit("c", new Fetch("c"));
+        awaitStarted(1);
+
+        // when
+        int numCancelled = fetchScheduler.cancelPending();
+        running.release();
+
+        // then
+        assertThat(numCancelled, is(2));
+        assertThat(fetchScheduler.awaitIdle(TIMEOUT_MS, TimeUnit.MILLISECONDS), is(true));
+        assertThat(startedFetches(), contains("running"));
+    }
+
+    private List<String> startedFetches() {
+        synchronized (started) {
+            return new ArrayList<>(started);
+        }
+    }
+
+    private void awaitStarted(int numStarted) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + TIMEOUT_MS;
+        synchronized (started) {
+            while (started.size() < numStarted) {
+                long remainingMs = deadline - System.currentTimeMillis();
+                assertThat("fetch " + numStarted + " did not start", remainingMs, greaterThan(0L));
+                started.wait(remainingMs);
+            }
+        }
+    }
+
+    private static Callable<Boolean> healthy() {
+        return new Callable<Boolean>() {
+            @Override
+            public Boolean call() throws Exception {
+                Thread.sleep(HEALTHY_LATENCY_MS);
+                return true;
+            }
+        };
+    }
+
+    private static Callable<Boolean> failed() {
+        return new Callable<Boolean>() {
+            @Override
+            public Boolean call() {
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Records when it starts and succeeds once released.
+     */
+    private class Fetch implements Callable<Boolean> {
+
+        private final String name;
+        private final CountDownLatch released = new CountDownLatch(1);
+
+        private Fetch(String name) {
+            this.name = name;
+        }
+
+        void release() {
+            released.countDown();
+        }
+
+        @Override
+        public Boolean call() throws Exception {
+            synchronized (started) {
+                started.add(name);
+                started.notifyAll();
+            }
+            return released.await(TIMEOUT_MS, TimeUnit.MILLISECONDS);
+        }
+    }
+
+}
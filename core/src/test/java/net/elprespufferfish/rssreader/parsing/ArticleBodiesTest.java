@@ -0,0 +1,110 @@
+package net.elprespufferfish.rssreader.parsing;
+
+import com.google.common.base.Strings;
+
+import net.elprespufferfish.rssreader.Article;
+
+import org.joda.time.DateTime;
+import org.junit.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+public class ArticleBodiesTest {
+
+    private static final String ARTICLE_URL = "http://www.todo.com/articles/1.html";
+
+    @Test
+    public void testRemovesScriptsAndTrackers() throws Exception {
+        // given
+        Article article = article("<p onclick=\"steal()\">Hello <b>world</b></p>"
+                + "<script>steal();</script>"
+                + "<noscript>Enable JavaScript</noscript>"
+                + "<img src=\"http://www.todo.com/pixel.gif\" width=\"1\" height=\"1\">"
+                + "<img src=\"http://feeds.feedburner.com/~r/todo/~4/abc\">"
+                + "<div class=\"feedflare\"><a href=\"http://www.todo.com/share\">Share</a></div>");
+
+        // when
+        Article rendered = ArticleBodies.render(article);
+
+        // then
+        assertThat(rendered.getBody(), is("<p>Hello <b>world</b></p>"));
+        assertThat(rendered.getExcerpt(), is("Hello world"));
+        assertThat(rendered.getWordCount(), is(2));
+        assertThat(rendered.getDescription(), is(article.getDescription()));
+    }
+
+    @Test
+    public void testReplacesPlayersWithLinksAndDropsOtherFrames() throws Exception {
+        // given
+        Article article = article("<p>Trailer</p>"
+                + "<iframe src=\"//www.youtube.com/embed/abc\" width=\"640\" allowfullscreen></iframe>"
+                + "<iframe src=\"http://ads.todo.com/frame.html\"></iframe>"
+                + "<iframe src=\"javascript:steal()\"></iframe>");
+
+        // when
+        Article rendered = ArticleBodies.render(article);
+
+        // then
+        assertThat(rendered.getBody(), not(containsString("iframe")));
+        assertThat(rendered.getBody(), not(containsString("ads.todo.com")));
+        assertThat(rendered.getBody(), containsString("<a href=\"http://www.youtube.com/embed/abc\">" + ArticleBodies.PLAYER_LINK_TEXT + "</a>"));
+    }
+
+    @Test
+    public void testLazyLoadsAbsoluteImages() throws Exception {
+        // given
+        Article article = article("<img src=\"../images/1.jpg\" width=\"640\"><a href=\"2.html\">next</a>");
+
+        // when
+        Article rendered = ArticleBodies.render(article);
+
+        // then
+        assertThat(rendered.getBody(), containsString("src=\"http://www.todo.com/images/1.jpg\""));
+        assertThat(rendered.getBody(), containsString("loading=\"lazy\""));
+        assertThat(rendered.getBody(), containsString("href=\"http://www.todo.com/articles/2.html\""));
+    }
+
+    @Test
+    public void testTextOfStoredBodyMatchesRenderedText() throws Exception {
+        // given
+        Article rendered = ArticleBodies.render(article("<p>Hello <b>world</b></p><ul><li>one</li><li>two &amp; three</li></ul>"));
+
+        // when
+        String text = ArticleBodies.text(rendered.getBody());
+
+        // then
+        assertThat(text, is(rendered.getText()));
+    }
+
+    @Test
+    public void testExcerptEndsAtWordBoundary() {
+        // given
+        String text = Strings.repeat("word ", 100);
+
+        // when
+        String excerpt = ArticleBodies.excerpt(text);
+
+        // then
+        assertThat(excerpt.length(), lessThanOrEqualTo(ArticleBodies.EXCERPT_LENGTH + 1));
+        assertThat(excerpt, endsWith("word\u2026"));
+    }
+
+    @Test
+    public void testCountWords() {
+        assertThat(ArticleBodies.countWords(""), is(0));
+        assertThat(ArticleBodies.countWords("  one\ttwo\u00a0three \n"), is(3));
+    }
+
+    private static Article article(String description) {
+        Article.Builder builder = new Article.Builder();
+        builder.setFeed("http://www.todo.com/feed");
+        builder.setTitle("title");
+        builder.setLink(ARTICLE_URL);
+        builder.setGuid(ARTICLE_URL);
+        builder.setPublicationDate(new DateTime(0));
+        builder.setDescription(description);
+        return builder.build();
+    }
+
+}
@@ -0,0 +1,109 @@
+package net.elprespufferfish.rssreader.parsing;
+
+import com.google.common.base.Predicates;
+
+import net.elprespufferfish.rssreader.Article;
+import net.elprespufferfish.rssreader.Feed;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.xmlpull.v1.XmlPullParser;
+import org.xmlpull.v1.XmlPullParserFactory;
+
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+public class AtomParserTest {
+
+    /** Old enough to include every article in the fixtures, which date from 2015. */
+    private static final int MAX_AGE_DAYS = 36500;
+
+    private AtomParser parser;
+
+    @Before
+    public void setUp() throws Exception {
+        parser = new AtomParser();
+    }
+
+    @Test
+    public void testParseFeed() throws Exception {
+        // given
+        String feedAddress = "http://www.todo.com";
+        XmlPullParserFactory xmlPullParserFactory = XmlPullParserFactory.newInstance();
+        xmlPullParserFactory.setNamespaceAware(true);
+        XmlPullParser xmlPullParser = xmlPullParserFactory.newPullParser();
+        InputStream input = getClass().getResourceAsStream("/raw/googledevelopers.xml");
+        xmlPullParser.setInput(input, null);
+
+        // when
+        Feed feed = parser.parseFeed(feedAddress, xmlPullParser);
+
+        // then
+        assertThat(feed.getName(), is("Google Developers Blog"));
+        assertThat(feed.getUrl(), is(feedAddress));
+    }
+
+    @Test
+    public void testParseAllArticles() throws Exception {
+        // given
+        String feedAddress = "http://www.todo.com";
+        XmlPullParserFactory xmlPullParserFactory = XmlPullParserFactory.newInstance();
+        xmlPullParserFactory.setNamespaceAware(true);
+        XmlPullParser xmlPullParser = xmlPullParserFactory.newPullParser();
+
+        InputStream input = getClass().getResourceAsStream("/raw/googledevelopers.xml");
+        xmlPullParser.setInput(input, null);
+
+        // when
+        final List<Article> articles = new ArrayList<>();
+        int numArticles = parser.parseArticles(feedAddress, xmlPullParser, MAX_AGE_DAYS, Predicates.<Article>alwaysFalse(), new ArticleSink() {
+            @Override
+            public void accept(Article article) {
+                articles.add(article);
+            }
+        });
+
+        // then
+        assertThat(numArticles, is(articles.size()));
+        assertThat(articles.size(), is(25));
+        // TODO - validate contents
+    }
+
+    @Test
+    public void testSkipsTrackingPixels() throws Exception {
+        // given
+        String feedAddress = "http://www.todo.com";
+        XmlPullParserFactory xmlPullParserFactory = XmlPullParserFactory.newInstance();
+        xmlPullParserFactory.setNamespaceAware(true);
+        XmlPullParser xmlPullParser = xmlPullParserFactory.newPullParser();
+        InputStream input = getClass().getResourceAsStream("/raw/googledevelopers.xml");
+        xmlPullParser.setInput(input, null);
+
+        // when
+        final List<Article> articles = new ArrayList<>();
+        parser.parseArticles(feedAddress, xmlPullParser, MAX_AGE_DAYS, Predicates.<Article>alwaysFalse(), new ArticleSink() {
+            @Override
+            public void accept(Article article) {
+                articles.add(article);
+            }
+        });
+
+        // then
+        int numWithoutImage = 0;
+        for (Article article : articles) {
+            if (article.getImageUrl() == null) {
+                // these only embed the feedburner pixel, and are left for the page to be scraped
+                assertThat(article.getTitle(), anyOf(startsWith("Beacons, the Internet of things"), startsWith("Easier Auth for Google Cloud APIs")));
+                numWithoutImage++;
+            } else {
+                assertThat(article.getImageUrl(), not(containsString("feeds.feedburner.com")));
+            }
+        }
+        assertThat(numWithoutImage, is(2));
+    }
+
+}
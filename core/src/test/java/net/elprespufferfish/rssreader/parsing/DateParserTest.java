@@ -0,0 +1,64 @@
+package net.elprespufferfish.rssreader.parsing;
+
+import org.joda.time.DateTime;
+import org.joda.time.DateTimeZone;
+import org.junit.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+public class DateParserTest {
+
+    private static final long SEP_7_2002 = new DateTime(2002, 9, 7, 9, 42, 31, DateTimeZone.UTC).getMillis();
+
+    @Test
+    public void testParseRfc822() throws Exception {
+        // given
+        DateParser dateParser = new DateParser();
+
+        // when
+        long named = dateParser.parse("Sat, 07 Sep 2002 09:42:31 GMT");
+        long numeric = dateParser.parse("Sat, 07 Sep 2002 11:42:31 +0200");
+        long americanZone = dateParser.parse("7 Sep 02 05:42:31 EDT");
+
+        // then
+        assertThat(named, is(SEP_7_2002));
+        assertThat(numeric, is(SEP_7_2002));
+        assertThat(americanZone, is(SEP_7_2002));
+    }
+
+    @Test
+    public void testParseIso8601() throws Exception {
+        // given
+        DateParser dateParser = new DateParser();
+
+        // when
+        long utc = dateParser.parse("2002-09-07T09:42:31Z");
+        long offset = dateParser.parse("2002-09-07T11:42:31+02:00");
+        long fraction = dateParser.parse("2002-09-07T09:42:31.250Z");
+
+        // then
+        assertThat(utc, is(SEP_7_2002));
+        assertThat(offset, is(SEP_7_2002));
+        assertThat(fraction, is(SEP_7_2002 + 250));
+    }
+
+    @Test
+    public void testRejectsInvalidDates() throws Exception {
+        // given
+        DateParser dateParser = new DateParser();
+
+        // when
+        long garbage = dateParser.parse("yesterday");
+        long unknownZone = dateParser.parse("Sat, 07 Sep 2002 09:42:31 XYZ");
+        long notLeapYear = dateParser.parse("Thu, 29 Feb 2001 09:42:31 GMT");
+        long badMonth = dateParser.parse("2002-13-07T09:42:31Z");
+
+        // then
+        assertThat(garbage, is(DateParser.INVALID));
+        assertThat(unknownZone, is(DateParser.INVALID));
+        assertThat(notLeapYear, is(DateParser.INVALID));
+        assertThat(badMonth, is(DateParser.INVALID));
+    }
+
+}
@@ -0,0 +1,97 @@
+package net.elprespufferfish.rssreader.parsing;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+public class OpenGraphExtractorTest {
+
+    private static final String PAGE_URL = "http://www.todo.com/articles/1.html";
+
+    @Test
+    public void testExtractImage() throws Exception {
+        // given
+        InputStream input = page("<html><head><meta property=\"og:image\" content=\"http://www.todo.com/1.jpg\"/></head></html>");
+
+        // when
+        String imageUrl = OpenGraphExtractor.extract(input, "text/html", PAGE_URL, "og:image");
+
+        // then
+        assertThat(imageUrl, is("http://www.todo.com/1.jpg"));
+    }
+
+    @Test
+    public void testIgnoresCommentsAndScripts() throws Exception {
+        // given
+        InputStream input = page("<html><head>"
+                + "<!-- <meta property=\"og:image\" content=\"comment.jpg\"> -->"
+                + "<script>var s = '<meta property=\"og:image\" content=\"script.jpg\">';</script>"
+                + "<meta property=\"og:image\" content=\"real.jpg\">"
+                + "</head></html>");
+
+        // when
+        String imageUrl = OpenGraphExtractor.extract(input, "text/html", PAGE_URL, "og:image");
+
+        // then
+        assertThat(imageUrl, is("http://www.todo.com/articles/real.jpg"));
+    }
+
+    @Test
+    public void testResolvesAgainstBase() throws Exception {
+        // given
+        InputStream input = page("<html><head><base href=\"http://cdn.todo.com/\"><meta property=og:image content=/1.jpg?a=1&amp;b=2></head>");
+
+        // when
+        String imageUrl = OpenGraphExtractor.extract(input, "text/html", PAGE_URL, "og:image");
+
+        // then
+        assertThat(imageUrl, is("http://cdn.todo.com/1.jpg?a=1&b=2"));
+    }
+
+    @Test
+    public void testStopsAtBody() throws Exception {
+        // given
+        InputStream input = page("<html><head><title>1 < 2</title></head><body><meta property=\"og:image\" content=\"1.jpg\"></body></html>");
+
+        // when
+        String imageUrl = OpenGraphExtractor.extract(input, "text/html", PAGE_URL, "og:image");
+
+        // then
+        assertThat(imageUrl, is(nullValue()));
+    }
+
+    @Test
+    public void testUsesMetaCharset() throws Exception {
+        // given
+        byte[] html = "<html><head><meta charset=\"iso-8859-1\"><meta property=\"og:image\" content=\"caf\u00e9.jpg\"></head>"
+                .getBytes(StandardCharsets.ISO_8859_1);
+
+        // when
+        String imageUrl = OpenGraphExtractor.extract(new ByteArrayInputStream(html), "text/html", PAGE_URL, "og:image");
+
+        // then
+        assertThat(imageUrl, is("http://www.todo.com/articles/caf\u00e9.jpg"));
+    }
+
+    @Test
+    public void testUsesHeaderCharset() throws Exception {
+        // given
+        InputStream input = page("<html><head><meta property=\"og:image\" content=\"caf\u00e9.jpg\"></head>");
+
+        // when
+        String imageUrl = OpenGraphExtractor.extract(input, "text/html; charset=UTF-8", PAGE_URL, "og:image");
+
+        // then
+        assertThat(imageUrl, is("http://www.todo.com/articles/caf\u00e9.jpg"));
+    }
+
+    private static InputStream page(String html) {
+        return new ByteArrayInputStream(html.getBytes(StandardCharsets.UTF_8));
+    }
+
+}
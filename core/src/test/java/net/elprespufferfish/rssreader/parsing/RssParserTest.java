@@ -0,0 +1,124 @@
+package net.elprespufferfish.rssreader.parsing;
+
+import com.google.common.base.Predicates;
+
+import net.elprespufferfish.rssreader.Article;
+import net.elprespufferfish.rssreader.Feed;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.xmlpull.v1.XmlPullParser;
+import org.xmlpull.v1.XmlPullParserFactory;
+
+import java.io.InputStream;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+public class RssParserTest {
+
+    /** Old enough to include every article in the fixtures, which date from 2015. */
+    private static final int MAX_AGE_DAYS = 36500;
+
+    private RssParser parser;
+
+    @Before
+    public void setUp() throws Exception {
+        parser = new RssParser();
+    }
+
+    @Test
+    public void testParseFeed() throws Exception {
+        // given
+        String feedAddress = "http://www.todo.com";
+        XmlPullParserFactory xmlPullParserFactory = XmlPullParserFactory.newInstance();
+        xmlPullParserFactory.setNamespaceAware(true);
+        XmlPullParser xmlPullParser = xmlPullParserFactory.newPullParser();
+        InputStream input = getClass().getResourceAsStream("/raw/slashfilm.xml");
+        xmlPullParser.setInput(input, null);
+
+        // when
+        Feed feed = parser.parseFeed(feedAddress, xmlPullParser);
+
+        // then
+        assertThat(feed.getName(), is("/Film"));
+        assertThat(feed.getUrl(), is(feedAddress));
+    }
+
+    @Test
+    public void testParseAllArticles() throws Exception {
+        // given
+        String feedAddress = "http://www.todo.com";
+        XmlPullParserFactory xmlPullParserFactory = XmlPullParserFactory.newInstance();
+        xmlPullParserFactory.setNamespaceAware(true);
+        XmlPullParser xmlPullParser = xmlPullParserFactory.newPullParser();
+        InputStream input = getClass().getResourceAsStream("/raw/slashfilm.xml");
+        xmlPullParser.setInput(input, null);
+
+        // when
+        final List<Article> articles = new ArrayList<>();
+        int numArticles = parser.parseArticles(feedAddress, xmlPullParser, MAX_AGE_DAYS, Predicates.<Article>alwaysFalse(), new ArticleSink() {
+            @Override
+            public void accept(Article article) {
+                articles.add(article);
+            }
+        });
+
+        // then
+        assertThat(numArticles, is(articles.size()));
+        assertThat(articles.size(), is(20));
+        // TODO - validate contents
+    }
+
+    @Test
+    public void testTitleNotFirst() throws Exception {
+        // given
+        String feedAddress = "http://www.todo.com";
+        XmlPullParserFactory xmlPullParserFactory = XmlPullParserFactory.newInstance();
+        xmlPullParserFactory.setNamespaceAware(true);
+        XmlPullParser xmlPullParser = xmlPullParserFactory.newPullParser();
+        InputStream input = getClass().getResourceAsStream("/raw/netflix.xml");
+        xmlPullParser.setInput(input, null);
+
+        // when
+        parser.parseFeed(feedAddress, xmlPullParser);
+
+        // then
+        // success
+    }
+
+    @Test
+    public void testEmbeddedImageSkipsTrackingPixels() throws Exception {
+        // given
+        String feedAddress = "http://www.todo.com";
+        String description = "&lt;img src=&quot;http://feeds.feedburner.com/~r/todo/~4/abc&quot;&gt;"
+                + "&lt;img src=&quot;/spacer.gif&quot; width=&quot;1&quot; height=&quot;1&quot;&gt;"
+                + "&lt;img src=&quot;/images/header.jpg&quot; width=&quot;640&quot;&gt;";
+        XmlPullParserFactory xmlPullParserFactory = XmlPullParserFactory.newInstance();
+        xmlPullParserFactory.setNamespaceAware(true);
+        XmlPullParser xmlPullParser = xmlPullParserFactory.newPullParser();
+        xmlPullParser.setInput(new StringReader("<rss version=\"2.0\"><channel><title>todo</title><item>"
+                + "<title>title</title>"
+                + "<link>http://www.todo.com/articles/1.html</link>"
+                + "<pubDate>Sat, 29 Aug 2015 12:00:00 GMT</pubDate>"
+                + "<description>" + description + "</description>"
+                + "</item></channel></rss>"));
+
+        // when
+        final List<Article> articles = new ArrayList<>();
+        parser.parseArticles(feedAddress, xmlPullParser, MAX_AGE_DAYS, Predicates.<Article>alwaysFalse(), new ArticleSink() {
+            @Override
+            public void accept(Article article) {
+                articles.add(article);
+            }
+        });
+
+        // then
+        assertThat(articles, hasSize(1));
+        assertThat(articles.get(0).getImageUrl(), is("http://www.todo.com/images/header.jpg"));
+    }
+
+}
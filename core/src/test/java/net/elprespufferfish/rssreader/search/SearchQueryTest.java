@@ -0,0 +1,38 @@
+package net.elprespufferfish.rssreader.search;
+
+import org.junit.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+public class SearchQueryTest {
+
+    @Test
+    public void testTerms() {
+        assertThat(SearchQuery.toMatchExpression("Android  Studio"), is("android studio"));
+        assertThat(SearchQuery.toMatchExpression("android OR ios"), is("android OR ios"));
+        assertThat(SearchQuery.toMatchExpression("andr*"), is("andr*"));
+    }
+
+    @Test
+    public void testPhrases() {
+        assertThat(SearchQuery.toMatchExpression("\"Google I/O\" keynote"), is("\"google i o\" keynote"));
+        assertThat(SearchQuery.toMatchExpression("\"google dev\"*"), is("\"google dev*\""));
+        assertThat(SearchQuery.toMatchExpression("e-mail"), is("\"e mail\""));
+        assertThat(SearchQuery.toMatchExpression("\"unterminated phrase"), is("\"unterminated phrase\""));
+    }
+
+    @Test
+    public void testOperatorsAreNotInjected() {
+        assertThat(SearchQuery.toMatchExpression("or and NOT near"), is("or and not near"));
+        assertThat(SearchQuery.toMatchExpression("OR android OR OR ios OR"), is("android OR ios"));
+        assertThat(SearchQuery.toMatchExpression("title:android -ios (x)"), is("\"title android\" ios x"));
+    }
+
+    @Test
+    public void testNothingToSearch() {
+        assertThat(SearchQuery.toMatchExpression(""), is(""));
+        assertThat(SearchQuery.toMatchExpression(" * \"\" - "), is(""));
+    }
+
+}
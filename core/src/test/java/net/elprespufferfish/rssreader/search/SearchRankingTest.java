@@ -0,0 +1,69 @@
+package net.elprespufferfish.rssreader.search;
+
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+public class SearchRankingTest {
+
+    @Test
+    public void testMoreHitsScoreHigher() {
+        // given one phrase, two columns of 10 and 100 tokens on average, 1000 rows of which 10 match
+        byte[] once = matchinfo(1, 2, 1000, 10, 100, 10, 100, 0, 0, 0, 1, 20, 10);
+        byte[] twice = matchinfo(1, 2, 1000, 10, 100, 10, 100, 0, 0, 0, 2, 20, 10);
+
+        // when
+        double onceScore = SearchRanking.score(once, 1, 1);
+        double twiceScore = SearchRanking.score(twice, 1, 1);
+
+        // then
+        assertThat(onceScore, greaterThan(0.0));
+        assertThat(twiceScore, greaterThan(onceScore));
+    }
+
+    @Test
+    public void testColumnWeights() {
+        // given a hit in the title of one row and in the text of another
+        byte[] inTitle = matchinfo(1, 2, 1000, 10, 100, 10, 100, 1, 20, 10, 0, 20, 10);
+        byte[] inText = matchinfo(1, 2, 1000, 10, 100, 10, 100, 0, 20, 10, 1, 20, 10);
+
+        // when
+        double titleScore = SearchRanking.score(inTitle, 4, 1);
+        double textScore = SearchRanking.score(inText, 4, 1);
+
+        // then
+        assertThat(titleScore, greaterThan(textScore));
+    }
+
+    @Test
+    public void testShorterRowsScoreHigher() {
+        // given
+        byte[] shortRow = matchinfo(1, 1, 1000, 100, 50, 1, 1, 10);
+        byte[] longRow = matchinfo(1, 1, 1000, 100, 500, 1, 1, 10);
+
+        // then
+        assertThat(SearchRanking.score(shortRow), greaterThan(SearchRanking.score(longRow)));
+    }
+
+    @Test
+    public void testCommonTermsStillScore() {
+        // given a term in every row
+        byte[] common = matchinfo(1, 1, 10, 100, 100, 1, 10, 10);
+
+        // then
+        assertThat(SearchRanking.score(common), greaterThan(0.0));
+    }
+
+    private static byte[] matchinfo(int... values) {
+        ByteBuffer buffer = ByteBuffer.allocate(4 * values.length).order(ByteOrder.nativeOrder());
+        for (int value : values) {
+            buffer.putInt(value);
+        }
+        return buffer.array();
+    }
+
+}
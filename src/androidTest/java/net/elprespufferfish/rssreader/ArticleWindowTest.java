@@ -0,0 +1,220 @@
+package net.elprespufferfish.rssreader;
+
+import android.support.test.runner.AndroidJUnit4;
+
+import com.google.common.base.Strings;
+import com.google.common.eventbus.EventBus;
+
+import org.joda.time.DateTime;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+@RunWith(AndroidJUnit4.class)
+public class ArticleWindowTest {
+
+    private static final int NUM_ARTICLES = 100;
+
+    private final long[] articleIds = new long[NUM_ARTICLES];
+    private final QueuedLoader loader = new QueuedLoader();
+    private ArticleWindow articleWindow;
+
+    @Before
+    public void setUp() {
+        for (int i = 0; i < NUM_ARTICLES; i++) {
+            articleIds[i] = 1000 + i;
+        }
+        articleWindow = new ArticleWindow(loader, new EventBus());
+    }
+
+    @Test
+    public void testLoadsAroundFirstPage() {
+        // when
+        articleWindow.reset(articleIds);
+        loader.completeAll(0);
+
+        // then
+        assertThat(loader.requests.size(), is(1));
+        for (int i = 0; i <= ArticleWindow.RADIUS; i++) {
+            assertThat(articleWindow.peek(i), is(notNullValue()));
+        }
+        assertThat(articleWindow.peek(ArticleWindow.RADIUS + 1), is(nullValue()));
+    }
+
+    @Test
+    public void testRefillsOnceNearerHalfHasGaps() {
+        // given
+        articleWindow.reset(articleIds);
+        loader.completeAll(0);
+
+        // when
+        articleWindow.moveTo(ArticleWindow.RADIUS / 2);
+
+        // then
+        assertThat(loader.requests.size(), is(1));
+
+        // when
+        articleWindow.moveTo(ArticleWindow.RADIUS / 2 + 1);
+
+        // then
+        assertThat(loader.requests.size(), is(2));
+        assertThat(loader.requests.get(1).articleIds, is(idsBetween(ArticleWindow.RADIUS + 1, ArticleWindow.RADIUS * 3 / 2 + 1)));
+    }
+
+    @Test
+    public void testEvictsByDistance() {
+        // given
+        articleWindow.reset(articleIds);
+        loader.completeAll(0);
+
+        // when
+        articleWindow.moveTo(50);
+
+        // then
+        for (int i = 0; i <= ArticleWindow.RADIUS; i++) {
+            assertThat(articleWindow.peek(i), is(nullValue()));
+        }
+        assertThat(loader.requests.get(1).articleIds, is(idsBetween(50 - ArticleWindow.RADIUS, 50 + ArticleWindow.RADIUS)));
+    }
+
+    @Test
+    public void testEvictsBySizeOutsideNearerHalf() {
+        // given
+        int bodyLength = ArticleWindow.MAX_BYTES / 4;
+        articleWindow.reset(articleIds);
+        loader.completeAll(0);
+        articleWindow.moveTo(50);
+
+        // when
+        loader.completeAll(bodyLength);
+
+        // then
+        for (int i = 50 - ArticleWindow.RADIUS / 2; i <= 50 + ArticleWindow.RADIUS / 2; i++) {
+            assertThat(articleWindow.peek(i), is(notNullValue()));
+        }
+        assertThat(articleWindow.peek(50 - ArticleWindow.RADIUS / 2 - 1), is(nullValue()));
+        assertThat(articleWindow.peek(50 + ArticleWindow.RADIUS / 2 + 1), is(nullValue()));
+
+        // when
+        articleWindow.moveTo(50);
+
+        // then
+        assertThat("size eviction left no gap to refill", loader.requests.size(), is(2));
+    }
+
+    @Test
+    public void testDiscardsBatchForPreviousPager() {
+        // given
+        articleWindow.reset(articleIds);
+        long[] otherArticleIds = new long[] { 1, 2, 3 };
+        articleWindow.reset(otherArticleIds);
+
+        // when
+        loader.complete(loader.requests.get(0), 0);
+
+        // then
+        assertThat(articleWindow.peek(0), is(nullValue()));
+
+        // when
+        loader.complete(loader.requests.get(1), 0);
+
+        // then
+        assertThat(articleWindow.peek(0).getId(), is(1));
+    }
+
+    @Test
+    public void testLeavesDeletedArticlesPending() {
+        // given
+        articleWindow.reset(articleIds);
+        Request request = loader.requests.get(0);
+        request.articleIds.remove(articleIds[2]);
+
+        // when
+        loader.complete(request, 0);
+        articleWindow.moveTo(1);
+
+        // then
+        assertThat(articleWindow.peek(2), is(nullValue()));
+        assertThat(loader.requests.size(), is(1));
+
+        // when
+        articleWindow.get(2);
+
+        // then
+        assertThat(loader.requests.size(), is(2));
+        assertThat(loader.requests.get(1).articleIds, not(hasItem(articleIds[2])));
+    }
+
+    private Set<Long> idsBetween(int first, int last) {
+        Set<Long> ids = new HashSet<>();
+        for (int i = first; i <= last; i++) {
+            ids.add(articleIds[i]);
+        }
+        return ids;
+    }
+
+    private static class Request {
+        private final Set<Long> articleIds;
+        private final ArticleWindow.Loader.Callback callback;
+        private boolean isCompleted = false;
+
+        private Request(Set<Long> articleIds, ArticleWindow.Loader.Callback callback) {
+            this.articleIds = new HashSet<>(articleIds);
+            this.callback = callback;
+        }
+    }
+
+    /**
+     * Holds requests until the test completes them.
+     */
+    private static class QueuedLoader implements ArticleWindow.Loader {
+
+        private final List<Request> requests = new ArrayList<>();
+
+        @Override
+        public void load(Set<Long> articleIds, Callback callback) {
+            requests.add(new Request(articleIds, callback));
+        }
+
+        void completeAll(int bodyLength) {
+            for (Request request : new ArrayList<>(requests)) {
+                if (!request.isCompleted) {
+                    complete(request, bodyLength);
+                }
+            }
+        }
+
+        void complete(Request request, int bodyLength) {
+            Map<Long, Article> loaded = new HashMap<>();
+            for (long articleId : request.articleIds) {
+                loaded.put(articleId, article(articleId, bodyLength));
+            }
+            request.isCompleted = true;
+            request.callback.onLoaded(loaded);
+        }
+
+        private static Article article(long articleId, int bodyLength) {
+            Article.Builder builder = new Article.Builder();
+            builder.setId((int) articleId);
+            builder.setFeed("feed");
+            builder.setTitle("title " + articleId);
+            builder.setLink("http://www.todo.com/articles/" + articleId + ".html");
+            builder.setGuid("http://www.todo.com/articles/" + articleId + ".html");
+            builder.setPublicationDate(new DateTime(articleId));
+            builder.setBody("<p>" + Strings.repeat("x", bodyLength) + "</p>");
+            return builder.build();
+        }
+
+    }
+
+}
@@ -0,0 +1,126 @@
+package net.elprespufferfish.rssreader.db;
+
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+import android.support.test.InstrumentationRegistry;
+import android.support.test.runner.AndroidJUnit4;
+
+import net.elprespufferfish.rssreader.ArticlePagerAdapter;
+import net.elprespufferfish.rssreader.db.DatabaseSchema.ArticleTable;
+import net.elprespufferfish.rssreader.db.DatabaseSchema.FeedFetchStatsTable;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+/**
+ * Checks the query plans of the hot article queries, as run by the app, against a freshly migrated schema.
+ */
+@RunWith(AndroidJUnit4.class)
+public class DatabaseHelperTest {
+
+    private static final String FEED_URL = "http://www.todo.com";
+
+    private DatabaseHelper databaseHelper;
+    private SQLiteDatabase database;
+
+    @Before
+    public void setUp() {
+        databaseHelper = new DatabaseHelper(InstrumentationRegistry.getTargetContext(), null);
+        database = databaseHelper.getWritableDatabase();
+    }
+
+    @After
+    public void tearDown() {
+        databaseHelper.close();
+    }
+
+    @Test
+    public void testPagerUsesIndexes() {
+        // every article is listed, so reading them in index order is the best there is
+        assertOrderedByIndex(ArticlePagerAdapter.articleIdsQuery(false, false));
+        // unread articles are sought out and then sorted
+        assertSearchesArticles(ArticlePagerAdapter.articleIdsQuery(false, true));
+        assertSearchesArticles(ArticlePagerAdapter.articleIdsQuery(true, false), FEED_URL);
+        assertOrderedByIndex(ArticlePagerAdapter.articleIdsQuery(true, false), FEED_URL);
+        assertSearchesArticles(ArticlePagerAdapter.articleIdsQuery(true, true), FEED_URL);
+        assertOrderedByIndex(ArticlePagerAdapter.articleIdsQuery(true, true), FEED_URL);
+    }
+
+    @Test
+    public void testCountsUseIndexes() {
+        assertSearchesArticles(FeedManager.UNREAD_COUNTS_QUERY);
+        assertSearchesArticles(FeedManager.RECENT_PUBLICATION_DATES_QUERY, "1", "10");
+    }
+
+    @Test
+    public void testMaintenanceUsesIndexes() {
+        assertSearchesArticles(FeedManager.DELETE_OLD_ARTICLES_SQL, "0");
+        assertSearchesArticles(FeedManager.FINALIZE_GREY_ARTICLES_SQL);
+        assertSearchesArticles(FeedManager.MARK_ALL_READ_SQL);
+        assertSearchesArticles(FeedManager.MARK_FEED_READ_SQL, FEED_URL);
+    }
+
+    @Test
+    public void testStatisticsUseIndexes() {
+        assertSearches(FeedFetchStatsTable.TABLE_NAME, FeedManager.REFRESH_CANDIDATES_QUERY, "0");
+        assertSearches(FeedFetchStatsTable.TABLE_NAME, FeedManager.FEED_COSTS_QUERY);
+        assertSearches(FeedFetchStatsTable.TABLE_NAME, FeedManager.DELETE_OLD_FETCH_STATS_SQL, "0");
+    }
+
+    /**
+     * Articles may be read in index order, but the results must not be sorted afterwards.
+     */
+    private void assertOrderedByIndex(String sql, String... args) {
+        List<String> plan = explain(sql, args);
+        for (String step : plan) {
+            if (isStepOn(ArticleTable.TABLE_NAME, step)) {
+                assertThat(plan.toString(), step, containsString("INDEX"));
+            }
+            assertThat(sql, step, not(containsString("TEMP B-TREE")));
+        }
+    }
+
+    private void assertSearchesArticles(String sql, String... args) {
+        assertSearches(ArticleTable.TABLE_NAME, sql, args);
+    }
+
+    /**
+     * Rows of the table must be looked up through an index, rather than read in full, even in index order.
+     */
+    private void assertSearches(String table, String sql, String... args) {
+        List<String> plan = explain(sql, args);
+        for (String step : plan) {
+            if (isStepOn(table, step)) {
+                // e.g. "SEARCH TABLE articles USING INDEX ..." rather than "SCAN TABLE articles USING INDEX ..."
+                assertThat(plan.toString(), step, startsWith("SEARCH"));
+            }
+        }
+    }
+
+    private static boolean isStepOn(String table, String step) {
+        return (step.startsWith("SCAN") || step.startsWith("SEARCH")) && step.matches(".*\\b" + table + "\\b.*");
+    }
+
+    private List<String> explain(String sql, String... args) {
+        Cursor planCursor = database.rawQuery("EXPLAIN QUERY PLAN " + sql, args);
+        try {
+            List<String> plan = new ArrayList<>();
+            int detailIndex = planCursor.getColumnIndexOrThrow("detail");
+            while (planCursor.moveToNext()) {
+                plan.add(planCursor.getString(detailIndex));
+            }
+            return plan;
+        } finally {
+            planCursor.close();
+        }
+    }
+
+}
@@ -0,0 +1,220 @@
+package net.elprespufferfish.rssreader.db;
+
+import android.content.ContentValues;
+import android.database.Cursor;
+import android.database.DatabaseUtils;
+import android.database.sqlite.SQLiteConstraintException;
+import android.database.sqlite.SQLiteDatabase;
+import android.support.test.InstrumentationRegistry;
+import android.support.test.runner.AndroidJUnit4;
+
+import net.elprespufferfish.rssreader.db.DatabaseSchema.ArticleSearchTable;
+import net.elprespufferfish.rssreader.db.DatabaseSchema.ArticleTable;
+import net.elprespufferfish.rssreader.db.DatabaseSchema.FeedFetchStatsTable;
+import net.elprespufferfish.rssreader.db.DatabaseSchema.FeedTable;
+import net.elprespufferfish.rssreader.db.DatabaseSchema.OpenGraphImageCacheTable;
+import net.elprespufferfish.rssreader.parsing.Articles;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+/**
+ * Upgrades databases created by earlier versions of the app, with articles in them.
+ */
+@RunWith(AndroidJUnit4.class)
+public class DatabaseMigrationTest {
+
+    private DatabaseHelper databaseHelper;
+    private SQLiteDatabase database;
+
+    @Before
+    public void setUp() {
+        databaseHelper = new DatabaseHelper(InstrumentationRegistry.getTargetContext(), null);
+        database = SQLiteDatabase.create(null);
+        // the schema as first released, before any upgrade
+        database.execSQL("CREATE TABLE feeds ("
+                + "_id INTEGER PRIMARY KEY,"
+                + "feed_name TEXT NOT NULL,"
+                + "feed_url TEXT NOT NULL UNIQUE"
+                + ")");
+        database.execSQL("CREATE TABLE articles ("
+                + "_id INTEGER PRIMARY KEY,"
+                + "article_feed INTEGER NOT NULL,"
+                + "article_name TEXT NOT NULL,"
+                + "article_url TEXT NOT NULL,"
+                + "article_pubdate INTEGER NOT NULL,"
+                + "article_description TEXT NOT NULL,"
+                + "article_image_url TEXT,"
+                + "article_guid TEXT NOT NULL,"
+                + "article_is_read INTEGER NOT NULL,"
+                + "FOREIGN KEY(article_feed) REFERENCES feeds(_id)"
+                + ")");
+    }
+
+    @After
+    public void tearDown() {
+        database.close();
+    }
+
+    @Test
+    public void testUpgradesFirstVersionWithArticles() {
+        // given
+        addFeed(1);
+        addFeed(2);
+        addArticle(1, 1, "http://www.todo.com/a");
+        addArticle(2, 1, "http://www.todo.com/b");
+        addArticle(3, 1, "http://www.todo.com/a");
+        addArticle(4, 2, "http://www.todo.com/a");
+
+        // when
+        databaseHelper.onUpgrade(database, 1, DatabaseHelper.DATABASE_VERSION);
+
+        // then
+        Map<Long, Long> guidHashes = getGuidHashes();
+        assertThat(guidHashes.keySet(), containsInAnyOrder(1L, 2L, 4L));
+        assertThat(guidHashes.get(2L), is(Articles.hashGuid("http://www.todo.com/b")));
+        // left for the background backfill
+        assertThat(DatabaseUtils.queryNumEntries(database, ArticleTable.TABLE_NAME,
+                ArticleTable.ARTICLE_CONTENT_HASH + "=0 AND " + ArticleTable.ARTICLE_BODY + "=''"), is(3L));
+        assertThat(DatabaseUtils.queryNumEntries(database, ArticleSearchTable.TABLE_NAME), is(0L));
+        // existing articles keep their feed image and are not scraped
+        assertThat(DatabaseUtils.queryNumEntries(database, ArticleTable.TABLE_NAME,
+                ArticleTable.ARTICLE_IMAGE_STATE + "=" + DatabaseSchema.ImageState.RESOLVED), is(3L));
+        assertThat(getIndexes(ArticleTable.TABLE_NAME), hasItems(
+                "article_image_state_index",
+                "article_feed_guid_hash_index",
+                "article_feed_pubdate_index",
+                "article_is_read_pubdate_index",
+                "article_pubdate_index"));
+        assertThat(getIndexes(OpenGraphImageCacheTable.TABLE_NAME), hasItem("cache_last_used_index"));
+        assertThat(getIndexes(FeedFetchStatsTable.TABLE_NAME), hasItems("fetch_stats_feed_index", "fetch_stats_run_index"));
+    }
+
+    @Test
+    public void testDeletingArticleRemovesItsSearchEntry() {
+        // given
+        addFeed(1);
+        addArticle(1, 1, "http://www.todo.com/a");
+        addArticle(2, 1, "http://www.todo.com/b");
+        databaseHelper.onUpgrade(database, 1, DatabaseHelper.DATABASE_VERSION);
+        database.execSQL("INSERT INTO " + ArticleSearchTable.TABLE_NAME + "("
+                + ArticleSearchTable.DOCID + "," + ArticleSearchTable.SEARCH_TITLE + "," + ArticleSearchTable.SEARCH_TEXT + ") "
+                + "SELECT " + ArticleTable._ID + "," + ArticleTable.ARTICLE_NAME + ",'' FROM " + ArticleTable.TABLE_NAME);
+
+        // when
+        database.delete(ArticleTable.TABLE_NAME, ArticleTable._ID + "=1", null);
+
+        // then
+        assertThat(DatabaseUtils.queryNumEntries(database, ArticleSearchTable.TABLE_NAME), is(1L));
+        assertThat(DatabaseUtils.queryNumEntries(database, ArticleSearchTable.TABLE_NAME, ArticleSearchTable.DOCID + "=2"), is(1L));
+    }
+
+    @Test
+    public void testDropsDuplicateGuidsWithinFeed() {
+        // given
+        databaseHelper.onUpgrade(database, 1, 8);
+        addFeed(1);
+        addFeed(2);
+        addArticle(1, 1, "http://www.todo.com/a");
+        addArticle(2, 1, "http://www.todo.com/b");
+        addArticle(3, 1, "http://www.todo.com/a");
+        addArticle(4, 2, "http://www.todo.com/a");
+
+        // when
+        databaseHelper.onUpgrade(database, 8, DatabaseHelper.DATABASE_VERSION);
+
+        // then
+        Map<Long, Long> guidHashes = getGuidHashes();
+        assertThat(guidHashes.keySet(), containsInAnyOrder(1L, 2L, 4L));
+        assertThat(guidHashes.get(1L), is(Articles.hashGuid("http://www.todo.com/a")));
+        assertThat(guidHashes.get(2L), is(Articles.hashGuid("http://www.todo.com/b")));
+        assertThat(guidHashes.get(4L), is(Articles.hashGuid("http://www.todo.com/a")));
+    }
+
+    @Test(expected = SQLiteConstraintException.class)
+    public void testRejectsDuplicateGuidAfterUpgrade() {
+        // given
+        databaseHelper.onUpgrade(database, 1, 8);
+        addFeed(1);
+        addArticle(1, 1, "http://www.todo.com/a");
+        databaseHelper.onUpgrade(database, 8, DatabaseHelper.DATABASE_VERSION);
+
+        // when
+        ContentValues values = articleValues(2, 1, "http://www.todo.com/a");
+        values.put(ArticleTable.ARTICLE_GUID_HASH, Articles.hashGuid("http://www.todo.com/a"));
+        database.insertOrThrow(ArticleTable.TABLE_NAME, null, values);
+    }
+
+    private void addFeed(long feedId) {
+        ContentValues values = new ContentValues();
+        values.put(FeedTable._ID, feedId);
+        values.put(FeedTable.FEED_NAME, "Feed " + feedId);
+        values.put(FeedTable.FEED_URL, "http://www.todo.com/feed/" + feedId);
+        database.insertOrThrow(FeedTable.TABLE_NAME, null, values);
+    }
+
+    private void addArticle(long articleId, long feedId, String guid) {
+        database.insertOrThrow(ArticleTable.TABLE_NAME, null, articleValues(articleId, feedId, guid));
+    }
+
+    private static ContentValues articleValues(long articleId, long feedId, String guid) {
+        ContentValues values = new ContentValues();
+        values.put(ArticleTable._ID, articleId);
+        values.put(ArticleTable.ARTICLE_FEED, feedId);
+        values.put(ArticleTable.ARTICLE_NAME, "Article " + articleId);
+        values.put(ArticleTable.ARTICLE_URL, guid);
+        values.put(ArticleTable.ARTICLE_PUBLICATION_DATE, articleId);
+        values.put(ArticleTable.ARTICLE_DESCRIPTION, "<p>Article " + articleId + "</p>");
+        values.put(ArticleTable.ARTICLE_GUID, guid);
+        values.put(ArticleTable.ARTICLE_IS_READ, 0);
+        return values;
+    }
+
+    private List<String> getIndexes(String table) {
+        Cursor indexCursor = database.rawQuery("PRAGMA index_list(" + table + ")", null);
+        try {
+            List<String> indexes = new ArrayList<>();
+            int nameIndex = indexCursor.getColumnIndexOrThrow("name");
+            while (indexCursor.moveToNext()) {
+                indexes.add(indexCursor.getString(nameIndex));
+            }
+            return indexes;
+        } finally {
+            indexCursor.close();
+        }
+    }
+
+    /**
+     * @return GUID hash of each stored article, keyed by its id.
+     */
+    private Map<Long, Long> getGuidHashes() {
+        Cursor hashCursor = database.query(
+                ArticleTable.TABLE_NAME,
+                new String[] { ArticleTable._ID, ArticleTable.ARTICLE_GUID_HASH },
+                null,
+                null,
+                null,
+                null,
+                null);
+        try {
+            Map<Long, Long> guidHashes = new HashMap<>();
+            while (hashCursor.moveToNext()) {
+                guidHashes.put(hashCursor.getLong(0), hashCursor.getLong(1));
+            }
+            return guidHashes;
+        } finally {
+            hashCursor.close();
+        }
+    }
+
+}
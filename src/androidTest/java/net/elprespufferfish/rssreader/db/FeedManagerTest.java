@@ -0,0 +1,93 @@
+package net.elprespufferfish.rssreader.db;
+
+import android.content.ContentValues;
+import android.content.Context;
+import android.database.Cursor;
+import android.database.DatabaseUtils;
+import android.database.sqlite.SQLiteDatabase;
+import android.preference.PreferenceManager;
+import android.support.test.InstrumentationRegistry;
+import android.support.test.runner.AndroidJUnit4;
+
+import net.elprespufferfish.rssreader.db.DatabaseSchema.ArticleSearchTable;
+import net.elprespufferfish.rssreader.db.DatabaseSchema.ArticleTable;
+import net.elprespufferfish.rssreader.db.DatabaseSchema.FeedTable;
+import net.elprespufferfish.rssreader.parsing.Articles;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+@RunWith(AndroidJUnit4.class)
+public class FeedManagerTest {
+
+    private static final String TITLE = "Kotlin release notes";
+    private static final String DESCRIPTION = "<p>The language team shipped a new compiler today.</p>";
+    private static final String URL = "http://www.todo.com/1";
+
+    private DatabaseHelper databaseHelper;
+    private SQLiteDatabase database;
+    private FeedManager feedManager;
+
+    @Before
+    public void setUp() {
+        Context context = InstrumentationRegistry.getTargetContext();
+        databaseHelper = new DatabaseHelper(context, null);
+        database = databaseHelper.getWritableDatabase();
+        feedManager = new FeedManager(context, databaseHelper, PreferenceManager.getDefaultSharedPreferences(context));
+
+        ContentValues feedValues = new ContentValues();
+        feedValues.put(FeedTable._ID, 1);
+        feedValues.put(FeedTable.FEED_NAME, "Feed");
+        feedValues.put(FeedTable.FEED_URL, "http://www.todo.com/feed");
+        database.insertOrThrow(FeedTable.TABLE_NAME, null, feedValues);
+    }
+
+    @After
+    public void tearDown() {
+        databaseHelper.close();
+    }
+
+    @Test
+    public void testBackfillsArticlesStoredBeforeUpgrade() {
+        // given
+        // as left by the upgrade: no body, content hash or search entry
+        ContentValues articleValues = new ContentValues();
+        articleValues.put(ArticleTable._ID, 1);
+        articleValues.put(ArticleTable.ARTICLE_FEED, 1);
+        articleValues.put(ArticleTable.ARTICLE_NAME, TITLE);
+        articleValues.put(ArticleTable.ARTICLE_URL, URL);
+        articleValues.put(ArticleTable.ARTICLE_PUBLICATION_DATE, 0);
+        articleValues.put(ArticleTable.ARTICLE_DESCRIPTION, DESCRIPTION);
+        articleValues.put(ArticleTable.ARTICLE_GUID, URL);
+        articleValues.put(ArticleTable.ARTICLE_IS_READ, 0);
+        articleValues.put(ArticleTable.ARTICLE_GUID_HASH, Articles.hashGuid(URL));
+        database.insertOrThrow(ArticleTable.TABLE_NAME, null, articleValues);
+
+        // when
+        feedManager.backfillArticles();
+
+        // then
+        Cursor articleCursor = database.query(
+                ArticleTable.TABLE_NAME,
+                new String[] { ArticleTable.ARTICLE_BODY, ArticleTable.ARTICLE_CONTENT_HASH },
+                null,
+                null,
+                null,
+                null,
+                null);
+        try {
+            assertThat(articleCursor.moveToNext(), is(true));
+            assertThat(articleCursor.getString(0), containsString("compiler"));
+            assertThat(articleCursor.getLong(1), is(Articles.hashContent(TITLE, DESCRIPTION, URL)));
+        } finally {
+            articleCursor.close();
+        }
+        assertThat(DatabaseUtils.queryNumEntries(database, ArticleSearchTable.TABLE_NAME), is(1L));
+    }
+
+}
@@ -0,0 +1,204 @@
+package net.elprespufferfish.rssreader.search;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteStatement;
+import android.support.test.InstrumentationRegistry;
+import android.support.test.runner.AndroidJUnit4;
+
+import net.elprespufferfish.rssreader.db.DatabaseHelper;
+import net.elprespufferfish.rssreader.db.DatabaseSchema.ArticleSearchTable;
+import net.elprespufferfish.rssreader.db.DatabaseSchema.ArticleTable;
+import net.elprespufferfish.rssreader.db.DatabaseSchema.FeedTable;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+/**
+ * Compares the full-text index, ranking every match and loading the first page of results, with a scan
+ * for the same words over 50,000 articles.  Timings are logged rather than asserted, since they depend on
+ * the device and whatever else it is doing.
+ */
+@RunWith(AndroidJUnit4.class)
+public class ArticleSearchBenchmarkTest {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ArticleSearchBenchmarkTest.class);
+
+    private static final int NUM_ARTICLES = 50000;
+    private static final int NUM_WORDS = 5000;
+    private static final int WORDS_PER_ARTICLE = 150;
+    private static final int NUM_RUNS = 5;
+
+    private DatabaseHelper databaseHelper;
+    private SQLiteDatabase database;
+    private String[] words;
+
+    @Before
+    public void setUp() {
+        databaseHelper = new DatabaseHelper(InstrumentationRegistry.getTargetContext(), null);
+        database = databaseHelper.getWritableDatabase();
+
+        Random random = new Random(0);
+        words = new String[NUM_WORDS];
+        for (int i = 0; i < NUM_WORDS; i++) {
+            words[i] = word(random);
+        }
+
+        SQLiteStatement articleStatement = database.compileStatement("INSERT INTO " + ArticleTable.TABLE_NAME + "("
+                + ArticleTable.ARTICLE_FEED + ","
+                + ArticleTable.ARTICLE_NAME + ","
+                + ArticleTable.ARTICLE_URL + ","
+                + ArticleTable.ARTICLE_PUBLICATION_DATE + ","
+                + ArticleTable.ARTICLE_DESCRIPTION + ","
+                + ArticleTable.ARTICLE_GUID + ","
+                + ArticleTable.ARTICLE_IS_READ + ","
+                + ArticleTable.ARTICLE_GUID_HASH
+                + ") VALUES (1,?,?,?,?,?,0,?)");
+        SQLiteStatement searchStatement = database.compileStatement("INSERT INTO " + ArticleSearchTable.TABLE_NAME + "("
+                + ArticleSearchTable.DOCID + ","
+                + ArticleSearchTable.SEARCH_TITLE + ","
+                + ArticleSearchTable.SEARCH_TEXT
+                + ") VALUES (?,?,?)");
+        database.beginTransaction();
+        try {
+            database.execSQL("INSERT INTO " + FeedTable.TABLE_NAME + "(" + FeedTable._ID + "," + FeedTable.FEED_NAME + "," + FeedTable.FEED_URL + ") "
+                    + "VALUES (1, 'Feed', 'http://www.todo.com/feed')");
+            for (int i = 0; i < NUM_ARTICLES; i++) {
+                String title = sentence(random, 8);
+                String text = sentence(random, WORDS_PER_ARTICLE);
+                String url = "http://www.todo.com/" + i;
+                articleStatement.bindString(1, title);
+                articleStatement.bindString(2, url);
+                articleStatement.bindLong(3, i);
+                articleStatement.bindString(4, "<p>" + text + "</p>");
+                articleStatement.bindString(5, url);
+                articleStatement.bindLong(6, i);
+                long articleId = articleStatement.executeInsert();
+
+                searchStatement.bindLong(1, articleId);
+                searchStatement.bindString(2, title);
+                searchStatement.bindString(3, text);
+                searchStatement.executeInsert();
+            }
+            database.setTransactionSuccessful();
+        } finally {
+            database.endTransaction();
+        }
+    }
+
+    @After
+    public void tearDown() {
+        databaseHelper.close();
+    }
+
+    @Test
+    public void testFullTextIndexFindsSameArticlesAsScan() {
+        // a rare word, a word in a few percent of articles, and a prefix
+        for (String term : new String[] { words[NUM_WORDS - 1], words[NUM_WORDS / 5], words[NUM_WORDS - 2].substring(0, 3) + "*" }) {
+            // given
+            long[] scanMs = new long[NUM_RUNS];
+            long[] searchMs = new long[NUM_RUNS];
+            int numScanResults = 0;
+            int numSearchResults = 0;
+
+            // when
+            for (int run = 0; run < NUM_RUNS; run++) {
+                long startTime = System.nanoTime();
+                numScanResults = scan(term);
+                scanMs[run] = MILLISECONDS.convert(System.nanoTime() - startTime, NANOSECONDS);
+
+                startTime = System.nanoTime();
+                long[] articleIds = ArticleSearch.rank(database, term);
+                ArticleSearch.load(database, term, Arrays.copyOf(articleIds, Math.min(articleIds.length, 20)));
+                numSearchResults = articleIds.length;
+                searchMs[run] = MILLISECONDS.convert(System.nanoTime() - startTime, NANOSECONDS);
+            }
+
+            // then
+            LOGGER.info("'{}' over {} articles: scan {}ms for {} results, full-text {}ms for {} results",
+                    term, NUM_ARTICLES, median(scanMs), numScanResults, median(searchMs), numSearchResults);
+            assertThat(numSearchResults, greaterThan(0));
+            assertThat(term, numSearchResults, is(numScanResults));
+        }
+    }
+
+    /**
+     * The scan used before the full-text index, matching words as the tokenizer splits them.  GLOB rather
+     * than LIKE, so that a word may be bounded by markup as well as by spaces.  Generated words are lower
+     * case letters only, so GLOB being case sensitive makes no difference.
+     *
+     * @param term word, or word prefix ending in {@code *}.
+     */
+    private int scan(String term) {
+        String pattern = term.endsWith("*")
+                ? "*[^a-z]" + term.substring(0, term.length() - 1) + "*"
+                : "*[^a-z]" + term + "[^a-z]*";
+        Cursor cursor = database.rawQuery("SELECT "
+                + ArticleTable.TABLE_NAME + "." + ArticleTable._ID + ", "
+                + FeedTable.TABLE_NAME + "." + FeedTable.FEED_NAME + ", "
+                + ArticleTable.TABLE_NAME + "." + ArticleTable.ARTICLE_NAME + ", "
+                + ArticleTable.TABLE_NAME + "." + ArticleTable.ARTICLE_URL + ", "
+                + ArticleTable.TABLE_NAME + "." + ArticleTable.ARTICLE_PUBLICATION_DATE + ", "
+                + ArticleTable.TABLE_NAME + "." + ArticleTable.ARTICLE_DESCRIPTION + ", "
+                + ArticleTable.TABLE_NAME + "." + ArticleTable.ARTICLE_IMAGE_URL + ", "
+                + ArticleTable.TABLE_NAME + "." + ArticleTable.ARTICLE_GUID + " "
+                + "FROM " + ArticleTable.TABLE_NAME + " "
+                + "JOIN " + FeedTable.TABLE_NAME + " "
+                + "ON " + ArticleTable.TABLE_NAME + "." + ArticleTable.ARTICLE_FEED + "=" + FeedTable.TABLE_NAME + "." + FeedTable._ID + " "
+                + "WHERE ' ' || " + ArticleTable.ARTICLE_NAME + " || ' ' GLOB ? "
+                + "OR ' ' || " + ArticleTable.ARTICLE_DESCRIPTION + " || ' ' GLOB ? "
+                + "ORDER BY " + ArticleTable.ARTICLE_PUBLICATION_DATE + " DESC ",
+                new String[] { pattern, pattern });
+        try {
+            int numResults = 0;
+            while (cursor.moveToNext()) {
+                cursor.getString(5);
+                numResults++;
+            }
+            return numResults;
+        } finally {
+            cursor.close();
+        }
+    }
+
+    /**
+     * @return words skewed towards the start of the vocabulary, roughly as in natural text.
+     */
+    private String sentence(Random random, int numWords) {
+        StringBuilder sentence = new StringBuilder();
+        for (int i = 0; i < numWords; i++) {
+            double skewed = Math.pow(random.nextDouble(), 3);
+            sentence.append(i == 0 ? "" : " ").append(words[(int) (skewed * NUM_WORDS)]);
+        }
+        return sentence.toString();
+    }
+
+    private static String word(Random random) {
+        int length = 4 + random.nextInt(6);
+        StringBuilder word = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            word.append((char) ('a' + random.nextInt(26)));
+        }
+        return word.toString();
+    }
+
+    private static long median(long[] values) {
+        long[] sorted = values.clone();
+        Arrays.sort(sorted);
+        return sorted[sorted.length / 2];
+    }
+
+}
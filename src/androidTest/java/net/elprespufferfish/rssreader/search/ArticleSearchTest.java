@@ -0,0 +1,100 @@
+package net.elprespufferfish.rssreader.search;
+
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteStatement;
+import android.support.test.InstrumentationRegistry;
+import android.support.test.runner.AndroidJUnit4;
+
+import net.elprespufferfish.rssreader.db.DatabaseHelper;
+import net.elprespufferfish.rssreader.db.DatabaseSchema.ArticleSearchTable;
+import net.elprespufferfish.rssreader.db.DatabaseSchema.ArticleTable;
+import net.elprespufferfish.rssreader.db.DatabaseSchema.FeedTable;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+@RunWith(AndroidJUnit4.class)
+public class ArticleSearchTest {
+
+    private DatabaseHelper databaseHelper;
+    private SQLiteDatabase database;
+
+    @Before
+    public void setUp() {
+        databaseHelper = new DatabaseHelper(InstrumentationRegistry.getTargetContext(), null);
+        database = databaseHelper.getWritableDatabase();
+        database.execSQL("INSERT INTO " + FeedTable.TABLE_NAME + "(" + FeedTable._ID + "," + FeedTable.FEED_NAME + "," + FeedTable.FEED_URL + ") "
+                + "VALUES (1, 'Feed', 'http://www.todo.com/feed')");
+        addArticle(1, "Kotlin release notes", "The language team shipped a new compiler today.");
+    }
+
+    @After
+    public void tearDown() {
+        databaseHelper.close();
+    }
+
+    @Test
+    public void testHighlightsMatchInText() {
+        // when
+        List<SearchResult> results = search("compiler");
+
+        // then
+        assertThat(results, hasSize(1));
+        assertThat(results.get(0).getSnippet(),
+                containsString(ArticleSearch.HIGHLIGHT_START + "compiler" + ArticleSearch.HIGHLIGHT_END));
+    }
+
+    @Test
+    public void testSnippetIsEmptyWhenOnlyTitleMatches() {
+        // when
+        List<SearchResult> results = search("kotlin");
+
+        // then
+        assertThat(results, hasSize(1));
+        assertThat(results.get(0).getSnippet(), isEmptyString());
+    }
+
+    private List<SearchResult> search(String query) {
+        return ArticleSearch.load(database, query, ArticleSearch.rank(database, query));
+    }
+
+    private void addArticle(long articleId, String title, String text) {
+        SQLiteStatement articleStatement = database.compileStatement("INSERT INTO " + ArticleTable.TABLE_NAME + "("
+                + ArticleTable._ID + ","
+                + ArticleTable.ARTICLE_FEED + ","
+                + ArticleTable.ARTICLE_NAME + ","
+                + ArticleTable.ARTICLE_URL + ","
+                + ArticleTable.ARTICLE_PUBLICATION_DATE + ","
+                + ArticleTable.ARTICLE_DESCRIPTION + ","
+                + ArticleTable.ARTICLE_GUID + ","
+                + ArticleTable.ARTICLE_IS_READ + ","
+                + ArticleTable.ARTICLE_GUID_HASH
+                + ") VALUES (?,1,?,?,0,?,?,0,?)");
+        String url = "http://www.todo.com/" + articleId;
+        articleStatement.bindLong(1, articleId);
+        articleStatement.bindString(2, title);
+        articleStatement.bindString(3, url);
+        articleStatement.bindString(4, "<p>" + text + "</p>");
+        articleStatement.bindString(5, url);
+        articleStatement.bindLong(6, articleId);
+        articleStatement.executeInsert();
+
+        SQLiteStatement searchStatement = database.compileStatement("INSERT INTO " + ArticleSearchTable.TABLE_NAME + "("
+                + ArticleSearchTable.DOCID + ","
+                + ArticleSearchTable.SEARCH_TITLE + ","
+                + ArticleSearchTable.SEARCH_TEXT
+                + ") VALUES (?,?,?)");
+        searchStatement.bindLong(1, articleId);
+        searchStatement.bindString(2, title);
+        searchStatement.bindString(3, text);
+        searchStatement.executeInsert();
+    }
+
+}
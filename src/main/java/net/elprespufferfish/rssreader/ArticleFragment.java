@@ -1,6 +1,5 @@
 package net.elprespufferfish.rssreader;
 
-import android.annotation.SuppressLint;
 import android.content.Intent;
 import android.database.Cursor;
 import android.database.sqlite.SQLiteDatabase;
@@ -11,7 +10,6 @@ import android.view.LayoutInflater;
 import android.view.View;
 import android.view.View.OnClickListener;
 import android.view.ViewGroup;
-import android.webkit.WebChromeClient;
 import android.webkit.WebView;
 import android.widget.ImageView;
 import android.widget.TextView;
@@ -23,7 +21,6 @@ import com.google.common.eventbus.Subscribe;
 import net.elprespufferfish.rssreader.db.DatabaseHelper;
 import net.elprespufferfish.rssreader.db.DatabaseSchema;
 
-import org.joda.time.DateTime;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -34,9 +31,8 @@ import butterknife.ButterKnife;
 
 public class ArticleFragment extends Fragment {
 
-    public static final String ARTICLE_FEED_URL_KEY = "article_feed_url";
+    public static final String ARTICLE_ID_KEY = "article_id";
     public static final String ARTICLE_INDEX_KEY = "article_index";
-    public static final String ARTICLE_IS_HIDING_READ_ARTICLES_KEY = "article_is_hiding_read_articles";
 
     private static final Logger LOGGER = LoggerFactory.getLogger(ArticleFragment.class);
     private static final String ARTICLE_KEY = "article";
@@ -45,7 +41,10 @@ public class ArticleFragment extends Fragment {
     EventBus eventBus;
     @Inject
     DatabaseHelper databaseHelper;
+    @Inject
+    ArticleWindow articleWindow;
     private int articleIndex;
+    private long articleId;
     private int lastSelected = -1;
     private Article article;
     @Bind(R.id.title)
@@ -64,8 +63,9 @@ public class ArticleFragment extends Fragment {
         eventBus.register(this);
 
         articleIndex = getArguments().getInt(ARTICLE_INDEX_KEY);
+        articleId = getArguments().getLong(ARTICLE_ID_KEY);
 
-        article = (savedInstanceState != null) ? (Article) savedInstanceState.getParcelable(ARTICLE_KEY) : null;
+        article = (savedInstanceState != null) ? (Article) savedInstanceState.getSerializable(ARTICLE_KEY) : null;
     }
 
     @Override
@@ -76,11 +76,15 @@ public class ArticleFragment extends Fragment {
 
         if (article != null) {
             onArticleLoad(article);
+        } else if (articleWindow.contains(articleIndex, articleId)) {
+            Article cached = articleWindow.get(articleIndex);
+            if (cached != null) {
+                onArticleLoad(cached);
+            }
+            // otherwise displayed once the window loads it
         } else {
-            String feedUrl = getArguments().getString(ARTICLE_FEED_URL_KEY);
-            boolean isHidingReadArticles = getArguments().getBoolean(ARTICLE_IS_HIDING_READ_ARTICLES_KEY);
-            new FetchArticleTask(feedUrl, articleIndex, isHidingReadArticles).execute();
-
+            // restored from an earlier pager
+            new FetchArticleTask(articleId).execute();
         }
         return view;
     }
@@ -88,7 +92,7 @@ public class ArticleFragment extends Fragment {
     @Override
     public void onSaveInstanceState(Bundle state) {
         super.onSaveInstanceState(state);
-        state.putParcelable(ARTICLE_KEY, article);
+        state.putSerializable(ARTICLE_KEY, article);
     }
 
     @Override
@@ -115,6 +119,20 @@ public class ArticleFragment extends Fragment {
         }
     }
 
+    /**
+     * Display this fragment's article if it was just loaded into the window.
+     */
+    @Subscribe
+    public void onWindowLoaded(ArticleWindowLoadedEvent articleWindowLoadedEvent) {
+        if (article != null || titleView == null || !articleWindow.contains(articleIndex, articleId)) {
+            return;
+        }
+        Article loaded = articleWindow.peek(articleIndex);
+        if (loaded != null) {
+            onArticleLoad(loaded);
+        }
+    }
+
     /**
      * Article loaded from disk.  If this is the currently visible article, post update so
      * the UI can update.
@@ -151,76 +169,32 @@ public class ArticleFragment extends Fragment {
             imageView.setVisibility(ImageView.GONE);
             webView.setVisibility(WebView.VISIBLE);
 
-            final String description = article.getDescription();
-            webView.setWebChromeClient(new WebChromeClient()); // HTML5 video requires a WebChromeClient
-            enableJavaScript(webView);
-            webView.loadData(description, "text/html", null);
+            // the body was sanitized when the article was stored, and JavaScript is left disabled regardless
+            String body = article.getBody() != null ? article.getBody() : article.getDescription();
+            webView.loadDataWithBaseURL(article.getLink(), body, "text/html", "UTF-8", null);
         }
     }
 
-    /* JavaScript is required to play youtube videos */
-    @SuppressLint("SetJavaScriptEnabled")
-    private void enableJavaScript(WebView webView) {
-        webView.getSettings().setJavaScriptEnabled(true);
-    }
-
     private class FetchArticleTask extends AsyncTask<Void, Void, Article> {
 
-        private final String feedUrl;
-        private final int offset;
-        private final boolean isHidingReadArticles;
+        private final long articleId;
 
-        public FetchArticleTask(String feedUrl, int offset, boolean isHidingReadArticles) {
-            this.feedUrl = feedUrl;
-            this.offset = offset;
-            this.isHidingReadArticles = isHidingReadArticles;
+        public FetchArticleTask(long articleId) {
+            this.articleId = articleId;
         }
 
         @Override
         protected Article doInBackground(Void... params) {
-            String[] selectionArgs = new String[0];
-            String query = "SELECT "
-                    + DatabaseSchema.ArticleTable.TABLE_NAME + "." + DatabaseSchema.ArticleTable._ID + ", "
-                    + DatabaseSchema.FeedTable.TABLE_NAME + "." + DatabaseSchema.FeedTable.FEED_NAME + ", "
-                    + DatabaseSchema.ArticleTable.TABLE_NAME + "." + DatabaseSchema.ArticleTable.ARTICLE_NAME + ", "
-                    + DatabaseSchema.ArticleTable.TABLE_NAME + "." + DatabaseSchema.ArticleTable.ARTICLE_URL + ", "
-                    + DatabaseSchema.ArticleTable.TABLE_NAME + "." + DatabaseSchema.ArticleTable.ARTICLE_PUBLICATION_DATE + ", "
-                    + DatabaseSchema.ArticleTable.TABLE_NAME + "." + DatabaseSchema.ArticleTable.ARTICLE_DESCRIPTION + ", "
-                    + DatabaseSchema.ArticleTable.TABLE_NAME + "." + DatabaseSchema.ArticleTable.ARTICLE_IMAGE_URL + ", "
-                    + DatabaseSchema.ArticleTable.TABLE_NAME + "." + DatabaseSchema.ArticleTable.ARTICLE_GUID + " "
-                    + "FROM " + DatabaseSchema.ArticleTable.TABLE_NAME + " "
-                    +  "JOIN " + DatabaseSchema.FeedTable.TABLE_NAME + " "
-                    + "ON " + DatabaseSchema.ArticleTable.TABLE_NAME + "." + DatabaseSchema.ArticleTable.ARTICLE_FEED + "=" + DatabaseSchema.FeedTable.TABLE_NAME + "." + DatabaseSchema.FeedTable._ID + " ";
-            if (feedUrl != null) {
-                query += "WHERE " + DatabaseSchema.FeedTable.FEED_URL + "=? ";
-                selectionArgs = new String[] { feedUrl };
-
-                if (isHidingReadArticles) {
-                    query += "AND " + DatabaseSchema.ArticleTable.ARTICLE_IS_READ + "!=" + DatabaseSchema.ReadStatus.READ + " ";
-                }
-            } else {
-                if (isHidingReadArticles) {
-                    query += "WHERE " + DatabaseSchema.ArticleTable.ARTICLE_IS_READ + "!=" + DatabaseSchema.ReadStatus.READ + " ";
-                }
-            }
-            query += "ORDER BY " + DatabaseSchema.ArticleTable.ARTICLE_PUBLICATION_DATE + " DESC "
-                    + "LIMIT 1 "
-                    + "OFFSET " + offset;
+            String query = ArticleWindow.SELECT_ARTICLES
+                    + "WHERE " + DatabaseSchema.ArticleTable.TABLE_NAME + "." + DatabaseSchema.ArticleTable._ID + "=?";
             SQLiteDatabase database = databaseHelper.getReadableDatabase();
-            Cursor articleCursor = database.rawQuery(query, selectionArgs);
+            Cursor articleCursor = database.rawQuery(query, new String[] { String.valueOf(articleId) });
             try {
-                articleCursor.moveToNext();
-
-                Article.Builder articleBuilder = new Article.Builder();
-                articleBuilder.setId(articleCursor.getInt(0));
-                articleBuilder.setFeed(articleCursor.getString(1));
-                articleBuilder.setTitle(articleCursor.getString(2));
-                articleBuilder.setLink(articleCursor.getString(3));
-                articleBuilder.setPublicationDate(new DateTime(articleCursor.getLong(4)));
-                articleBuilder.setDescription(articleCursor.getString(5));
-                articleBuilder.setImageUrl(articleCursor.getString(6));
-                articleBuilder.setGuid(articleCursor.getString(7));
-                return articleBuilder.build();
+                if (!articleCursor.moveToNext()) {
+                    // removed since the pager was loaded, e.g. by retention or by removing its feed
+                    return null;
+                }
+                return ArticleWindow.readArticle(articleCursor);
             } finally {
                 articleCursor.close();
                 database.close();
@@ -229,6 +203,10 @@ public class ArticleFragment extends Fragment {
 
         @Override
         protected void onPostExecute(Article article) {
+            if (article == null) {
+                LOGGER.warn("Article {} no longer exists", articleId);
+                return;
+            }
             ArticleFragment.this.onArticleLoad(article);
         }
     }
@@ -21,52 +21,67 @@ public class ArticlePagerAdapter extends FragmentStatePagerAdapter {
      */
     private final String feedUrl;
     private final int numFeeds;
-    private final int count;
+    /**
+     * Articles to page through, newest first.  Loaded once so that positions stay stable while
+     * refreshes add or remove articles.
+     */
+    private final long[] articleIds;
     private final boolean isHidingReadArticles;
 
     /**
      * Instantiate a new adapter.
      */
-    public ArticlePagerAdapter(FragmentManager fm, DatabaseHelper databaseHelper, String feedUrl, boolean isHidingReadArticles) {
+    public ArticlePagerAdapter(FragmentManager fm, DatabaseHelper databaseHelper, ArticleWindow articleWindow, String feedUrl, boolean isHidingReadArticles) {
         super(fm);
         this.databaseHelper = databaseHelper;
         this.feedUrl = feedUrl;
         this.isHidingReadArticles = isHidingReadArticles;
         this.numFeeds = getNumFeeds();
-        this.count = computeCount();
+        this.articleIds = loadArticleIds();
+        articleWindow.reset(articleIds);
     }
 
-    private int computeCount() {
+    private long[] loadArticleIds() {
         if (numFeeds == 0) {
-            return 1;
+            return new long[0];
         }
 
-        String[] selectionArgs = new String[0];
-        String query = "SELECT COUNT(*)"
+        String query = articleIdsQuery(feedUrl != null, isHidingReadArticles);
+        String[] selectionArgs = feedUrl != null ? new String[] { feedUrl } : new String[0];
+        SQLiteDatabase database = databaseHelper.getReadableDatabase();
+        Cursor articleCursor = database.rawQuery(query, selectionArgs);
+        try {
+            long[] ids = new long[articleCursor.getCount()];
+            for (int i = 0; articleCursor.moveToNext(); i++) {
+                ids[i] = articleCursor.getLong(0);
+            }
+            return ids;
+        } finally {
+            articleCursor.close();
+            database.close();
+        }
+    }
+
+    /**
+     * @param isFeedSelected whether the query takes the URL of a single feed to page through.
+     * @return query for the ids of the articles to page through, newest first.
+     */
+    public static String articleIdsQuery(boolean isFeedSelected, boolean isHidingReadArticles) {
+        String query = "SELECT " + ArticleTable.TABLE_NAME + "." + ArticleTable._ID + " "
                 + "FROM " + ArticleTable.TABLE_NAME + " ";
-        if (feedUrl != null) {
+        if (isFeedSelected) {
             query += "JOIN " + FeedTable.TABLE_NAME + " "
                     + "ON " + ArticleTable.TABLE_NAME + "." + ArticleTable.ARTICLE_FEED + "=" + FeedTable.TABLE_NAME + "." + FeedTable._ID + " "
                     + "WHERE " + FeedTable.FEED_URL + "=? ";
-            selectionArgs = new String[] { feedUrl };
             if (isHidingReadArticles) {
-                query += "AND " + DatabaseSchema.ArticleTable.ARTICLE_IS_READ + "!=" + DatabaseSchema.ReadStatus.READ + " ";
+                query += "AND " + DatabaseSchema.ARTICLE_IS_NOT_READ + " ";
             }
         } else {
             if (isHidingReadArticles) {
-                query += "WHERE " + DatabaseSchema.ArticleTable.ARTICLE_IS_READ + "!=" + DatabaseSchema.ReadStatus.READ + " ";
+                query += "WHERE " + DatabaseSchema.ARTICLE_IS_NOT_READ + " ";
             }
         }
-
-        SQLiteDatabase database = databaseHelper.getReadableDatabase();
-        Cursor articleCountCursor = database.rawQuery(query, selectionArgs);
-        try {
-            articleCountCursor.moveToNext();
-            return articleCountCursor.getInt(0);
-        } finally {
-            articleCountCursor.close();
-            database.close();
-        }
+        return query + "ORDER BY " + ArticleTable.ARTICLE_PUBLICATION_DATE + " DESC";
     }
 
     private int getNumFeeds() {
@@ -88,14 +103,13 @@ public class ArticlePagerAdapter extends FragmentStatePagerAdapter {
         if (numFeeds == 0) {
             return new NoFeedsFragment();
         }
-        if (index == count) {
+        if (index == articleIds.length) {
             return new EndOfLineFragment();
         }
 
         Bundle bundle = new Bundle();
-        bundle.putString(ArticleFragment.ARTICLE_FEED_URL_KEY, feedUrl);
+        bundle.putLong(ArticleFragment.ARTICLE_ID_KEY, articleIds[index]);
         bundle.putInt(ArticleFragment.ARTICLE_INDEX_KEY, index);
-        bundle.putBoolean(ArticleFragment.ARTICLE_IS_HIDING_READ_ARTICLES_KEY, isHidingReadArticles);
 
         Fragment fragment = new ArticleFragment();
         fragment.setArguments(bundle);
@@ -108,7 +122,7 @@ public class ArticlePagerAdapter extends FragmentStatePagerAdapter {
             return 1;
         }
         // add an extra item for the 'end of the line' message
-        return count + 1;
+        return articleIds.length + 1;
     }
 
 }
@@ -0,0 +1,379 @@
+package net.elprespufferfish.rssreader;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+import android.os.AsyncTask;
+
+import com.google.common.eventbus.EventBus;
+
+import net.elprespufferfish.rssreader.db.DatabaseHelper;
+import net.elprespufferfish.rssreader.db.DatabaseSchema.ArticleTable;
+import net.elprespufferfish.rssreader.db.DatabaseSchema.FeedTable;
+import net.elprespufferfish.rssreader.parsing.ArticleBodies;
+
+import org.joda.time.DateTime;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Articles around the current pager position, loaded in batches ahead of the user.
+ *
+ * <p>Articles further than {@link #RADIUS} pages from the current position are evicted, as are the
+ * furthest articles whenever the cache grows beyond {@link #MAX_BYTES}.  Articles within {@code RADIUS / 2}
+ * pages are never evicted by size, since moving would only load them again.  A {@link ArticleWindowLoadedEvent}
+ * is posted after each batch so that fragments waiting on an article can display it.
+ *
+ * <p>Only accessed from the main thread.
+ */
+public class ArticleWindow {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ArticleWindow.class);
+
+    /** Pages kept on either side of the current position. */
+    static final int RADIUS = 10;
+    /** Approximate memory held by cached articles. */
+    static final int MAX_BYTES = 2 * 1024 * 1024;
+
+    /**
+     * Columns read by {@link #readArticle(Cursor)}.  Callers append a WHERE clause.
+     */
+    static final String SELECT_ARTICLES = "SELECT "
+            + ArticleTable.TABLE_NAME + "." + ArticleTable._ID + ", "
+            + FeedTable.TABLE_NAME + "." + FeedTable.FEED_NAME + ", "
+            + ArticleTable.TABLE_NAME + "." + ArticleTable.ARTICLE_NAME + ", "
+            + ArticleTable.TABLE_NAME + "." + ArticleTable.ARTICLE_URL + ", "
+            + ArticleTable.TABLE_NAME + "." + ArticleTable.ARTICLE_PUBLICATION_DATE + ", "
+            // the description is only needed to render articles stored without a body
+            + "CASE WHEN " + ArticleTable.TABLE_NAME + "." + ArticleTable.ARTICLE_BODY + "='' "
+            + "THEN " + ArticleTable.TABLE_NAME + "." + ArticleTable.ARTICLE_DESCRIPTION + " END, "
+            + ArticleTable.TABLE_NAME + "." + ArticleTable.ARTICLE_IMAGE_URL + ", "
+            + ArticleTable.TABLE_NAME + "." + ArticleTable.ARTICLE_GUID + ", "
+            + ArticleTable.TABLE_NAME + "." + ArticleTable.ARTICLE_BODY + " "
+            + "FROM " + ArticleTable.TABLE_NAME + " "
+            + "JOIN " + FeedTable.TABLE_NAME + " "
+            + "ON " + ArticleTable.TABLE_NAME + "." + ArticleTable.ARTICLE_FEED + "=" + FeedTable.TABLE_NAME + "." + FeedTable._ID + " ";
+
+    /**
+     * Loads batches of articles away from the main thread.
+     */
+    public interface Loader {
+
+        /**
+         * Load the articles with the provided ids, then pass those that still exist to the callback on the
+         * main thread.
+         */
+        void load(Set<Long> articleIds, Callback callback);
+
+        interface Callback {
+            void onLoaded(Map<Long, Article> loaded);
+        }
+
+    }
+
+    private final Loader loader;
+    private final EventBus eventBus;
+
+    private long[] articleIds = new long[0];
+    /** Incremented on reset so that batches for a previous pager are discarded. */
+    private int generation = 0;
+    private int position = 0;
+    private final TreeMap<Integer, Article> articles = new TreeMap<>();
+    private final Set<Integer> pending = new HashSet<>();
+    private long cachedBytes = 0;
+
+    // time from selecting a page that was not yet loaded until its article arrives
+    private int waitingIndex = -1;
+    private long waitingSince = 0;
+
+    private int numHits = 0;
+    private int numMisses = 0;
+    private int numBatches = 0;
+    private int numSwipes = 0;
+    private long totalSwipeMs = 0;
+    private long maxSwipeMs = 0;
+
+    public ArticleWindow(Loader loader, EventBus eventBus) {
+        this.loader = loader;
+        this.eventBus = eventBus;
+    }
+
+    /**
+     * Start paging through a new set of articles.
+     */
+    public void reset(long[] articleIds) {
+        if (numHits + numMisses > 0) {
+            logStatistics();
+        }
+        this.articleIds = articleIds;
+        generation++;
+        position = 0;
+        articles.clear();
+        pending.clear();
+        cachedBytes = 0;
+        waitingIndex = -1;
+        numHits = 0;
+        numMisses = 0;
+        numBatches = 0;
+        numSwipes = 0;
+        totalSwipeMs = 0;
+        maxSwipeMs = 0;
+        moveTo(0);
+    }
+
+    /**
+     * @return true if the article is at this index of the current pager.
+     */
+    public boolean contains(int index, long articleId) {
+        return index >= 0 && index < articleIds.length && articleIds[index] == articleId;
+    }
+
+    /**
+     * @return article at the index, or null if it has not been loaded yet.
+     */
+    public Article get(int index) {
+        Article article = articles.get(index);
+        if (article != null) {
+            numHits++;
+        } else {
+            numMisses++;
+            load(index);
+        }
+        return article;
+    }
+
+    /**
+     * @return article at the index, or null if it has not been loaded yet.  Unlike {@link #get(int)},
+     * neither counts towards the hit rate nor loads the article.
+     */
+    public Article peek(int index) {
+        return articles.get(index);
+    }
+
+    /**
+     * Slide the window to the page being viewed.
+     */
+    public void moveTo(int index) {
+        if (index < 0 || index >= articleIds.length) {
+            return;
+        }
+        position = index;
+
+        if (articles.containsKey(index)) {
+            recordSwipe(0);
+        } else {
+            waitingIndex = index;
+            waitingSince = System.nanoTime();
+        }
+
+        // evict by distance
+        articles.headMap(index - RADIUS).clear();
+        articles.tailMap(index + RADIUS, false).clear();
+        cachedBytes = 0;
+        for (Article article : articles.values()) {
+            cachedBytes += sizeOf(article);
+        }
+
+        // refill once the nearer half of the window has gaps
+        for (int i = Math.max(0, index - RADIUS / 2); i <= Math.min(articleIds.length - 1, index + RADIUS / 2); i++) {
+            if (!articles.containsKey(i) && !pending.contains(i)) {
+                load(index);
+                return;
+            }
+        }
+    }
+
+    /**
+     * Load every missing article within the window around the index.
+     */
+    private void load(int index) {
+        final Map<Long, Integer> indexesById = new HashMap<>();
+        int start = Math.max(0, index - RADIUS);
+        int end = Math.min(articleIds.length - 1, index + RADIUS);
+        for (int i = start; i <= end; i++) {
+            if (!articles.containsKey(i) && !pending.contains(i)) {
+                indexesById.put(articleIds[i], i);
+            }
+        }
+        if (indexesById.isEmpty()) {
+            return;
+        }
+        pending.addAll(indexesById.values());
+        numBatches++;
+        final int batchGeneration = generation;
+        loader.load(indexesById.keySet(), new Loader.Callback() {
+            @Override
+            public void onLoaded(Map<Long, Article> loaded) {
+                onBatchLoaded(batchGeneration, indexesById, loaded);
+            }
+        });
+    }
+
+    private void onBatchLoaded(int batchGeneration, Map<Long, Integer> indexesById, Map<Long, Article> loaded) {
+        if (batchGeneration != generation) {
+            return;
+        }
+        // articles that were not found have been deleted since the pager was loaded, and are left
+        // pending so that they are not requested again
+        for (Map.Entry<Long, Article> entry : loaded.entrySet()) {
+            int index = indexesById.get(entry.getKey());
+            pending.remove(index);
+            if (Math.abs(index - position) > RADIUS) {
+                // user has already moved on
+                continue;
+            }
+            articles.put(index, entry.getValue());
+            cachedBytes += sizeOf(entry.getValue());
+        }
+        evictBySize();
+
+        if (waitingIndex != -1 && articles.containsKey(waitingIndex)) {
+            recordSwipe(MILLISECONDS.convert(System.nanoTime() - waitingSince, NANOSECONDS));
+            waitingIndex = -1;
+        }
+        eventBus.post(new ArticleWindowLoadedEvent());
+    }
+
+    private void evictBySize() {
+        while (cachedBytes > MAX_BYTES && !articles.isEmpty()) {
+            int first = articles.firstKey();
+            int last = articles.lastKey();
+            int furthest = (position - first > last - position) ? first : last;
+            if (Math.abs(furthest - position) <= RADIUS / 2) {
+                // moveTo refills gaps in the nearer half, so evicting there would reload on every swipe
+                return;
+            }
+            cachedBytes -= sizeOf(articles.remove(furthest));
+        }
+    }
+
+    private void recordSwipe(long swipeMs) {
+        numSwipes++;
+        totalSwipeMs += swipeMs;
+        maxSwipeMs = Math.max(maxSwipeMs, swipeMs);
+    }
+
+    private void logStatistics() {
+        int hitRate = 100 * numHits / (numHits + numMisses);
+        long meanSwipeMs = numSwipes == 0 ? 0 : totalSwipeMs / numSwipes;
+        LOGGER.info("Article window: {}% hit rate ({} hits, {} misses) in {} batches, swipe to content mean {}ms max {}ms over {} swipes",
+                hitRate, numHits, numMisses, numBatches, meanSwipeMs, maxSwipeMs, numSwipes);
+    }
+
+    /**
+     * @return rough number of bytes held by the article's strings.
+     */
+    private static long sizeOf(Article article) {
+        long numChars = length(article.getTitle())
+                + length(article.getLink())
+                + length(article.getDescription())
+                + length(article.getBody())
+                + length(article.getImageUrl())
+                + length(article.getGuid())
+                + length(article.getFeed());
+        return 2 * numChars;
+    }
+
+    private static int length(String value) {
+        return value == null ? 0 : value.length();
+    }
+
+    /**
+     * Read the current row of a cursor over {@link #SELECT_ARTICLES}.  The description is only read for articles
+     * stored before bodies were rendered at ingest, and not yet backfilled.  Those are rendered here, so this
+     * must not run on the main thread.
+     */
+    static Article readArticle(Cursor articleCursor) {
+        Article.Builder articleBuilder = new Article.Builder();
+        articleBuilder.setId(articleCursor.getInt(0));
+        articleBuilder.setFeed(articleCursor.getString(1));
+        articleBuilder.setTitle(articleCursor.getString(2));
+        articleBuilder.setLink(articleCursor.getString(3));
+        articleBuilder.setPublicationDate(new DateTime(articleCursor.getLong(4)));
+        articleBuilder.setDescription(articleCursor.getString(5));
+        articleBuilder.setImageUrl(articleCursor.getString(6));
+        articleBuilder.setGuid(articleCursor.getString(7));
+        articleBuilder.setBody(articleCursor.getString(8));
+        Article article = articleBuilder.build();
+        if (!article.getBody().isEmpty()) {
+            return article;
+        }
+        // only the rendered body is held, as for articles which were stored with one
+        Article.Builder renderedBuilder = new Article.Builder(ArticleBodies.render(article));
+        renderedBuilder.setDescription(null);
+        renderedBuilder.setText(null);
+        return renderedBuilder.build();
+    }
+
+    /**
+     * Loads articles from the database with an {@link AsyncTask}.
+     */
+    public static class DatabaseLoader implements Loader {
+
+        private final DatabaseHelper databaseHelper;
+
+        public DatabaseLoader(DatabaseHelper databaseHelper) {
+            this.databaseHelper = databaseHelper;
+        }
+
+        @Override
+        public void load(Set<Long> articleIds, Callback callback) {
+            new LoadBatchTask(databaseHelper, articleIds, callback).execute();
+        }
+
+    }
+
+    private static class LoadBatchTask extends AsyncTask<Void, Void, Map<Long, Article>> {
+
+        private final DatabaseHelper databaseHelper;
+        private final Set<Long> articleIds;
+        private final Loader.Callback callback;
+
+        public LoadBatchTask(DatabaseHelper databaseHelper, Set<Long> articleIds, Loader.Callback callback) {
+            this.databaseHelper = databaseHelper;
+            this.articleIds = articleIds;
+            this.callback = callback;
+        }
+
+        @Override
+        protected Map<Long, Article> doInBackground(Void... params) {
+            StringBuilder query = new StringBuilder(SELECT_ARTICLES)
+                    .append("WHERE ").append(ArticleTable.TABLE_NAME).append(".").append(ArticleTable._ID).append(" IN (");
+            String[] selectionArgs = new String[articleIds.size()];
+            int i = 0;
+            for (Long articleId : articleIds) {
+                query.append(i == 0 ? "?" : ",?");
+                selectionArgs[i++] = String.valueOf(articleId);
+            }
+            query.append(")");
+
+            SQLiteDatabase database = databaseHelper.getReadableDatabase();
+            Cursor articleCursor = database.rawQuery(query.toString(), selectionArgs);
+            try {
+                Map<Long, Article> loaded = new HashMap<>();
+                while (articleCursor.moveToNext()) {
+                    Article article = readArticle(articleCursor);
+                    loaded.put((long) article.getId(), article);
+                }
+                return loaded;
+            } finally {
+                articleCursor.close();
+                database.close();
+            }
+        }
+
+        @Override
+        protected void onPostExecute(Map<Long, Article> loaded) {
+            callback.onLoaded(loaded);
+        }
+    }
+
+}
@@ -0,0 +1,8 @@
+package net.elprespufferfish.rssreader;
+
+/**
+ * Notify that a batch of articles around the pager position has been loaded.
+ */
+public class ArticleWindowLoadedEvent {
+
+}
@@ -53,6 +53,7 @@ import java.util.ArrayList;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.regex.Pattern;
 
 import javax.inject.Inject;
@@ -112,6 +113,8 @@ public class MainActivity extends AppCompatActivity {
     FeedManager feedManager;
     @Inject
     DatabaseHelper databaseHelper;
+    @Inject
+    ArticleWindow articleWindow;
     @Bind(R.id.drawer_layout)
     DrawerLayout drawerLayout;
     @Bind(R.id.pager)
@@ -168,8 +171,16 @@ public class MainActivity extends AppCompatActivity {
 
         this.shareActionProvider = new ToggleableShareActionProvider(this);
 
-        nullFeed = Feed.nullFeed(this);
+        nullFeed = Feed.nullFeed(getString(R.string.all_feeds));
         reloadPager(nullFeed);
+
+        // articles stored by older versions are rendered in the background rather than during the upgrade
+        AsyncTask.THREAD_POOL_EXECUTOR.execute(new Runnable() {
+            @Override
+            public void run() {
+                feedManager.backfillArticles();
+            }
+        });
     }
 
     @Override
@@ -271,7 +282,7 @@ public class MainActivity extends AppCompatActivity {
 
         viewPager.clearOnPageChangeListeners();
 
-        articlePagerAdapter = new ArticlePagerAdapter(getSupportFragmentManager(), databaseHelper, feed.getUrl(), isHidingReadArticles);
+        articlePagerAdapter = new ArticlePagerAdapter(getSupportFragmentManager(), databaseHelper, articleWindow, feed.getUrl(), isHidingReadArticles);
         final ViewPager.OnPageChangeListener pageChangeListener = new ViewPager.OnPageChangeListener() {
             @Override
             public void onPageScrolled(int position, float positionOffset, int positionOffsetPixels) {
@@ -280,6 +291,7 @@ public class MainActivity extends AppCompatActivity {
 
             @Override
             public void onPageSelected(int position) {
+                articleWindow.moveTo(position);
                 int numArticles = articlePagerAdapter.getCount()
                         - 1; // subtract 1 for the 'no more articles' page
                 if (position < numArticles) {
@@ -454,12 +466,18 @@ public class MainActivity extends AppCompatActivity {
             allFeeds.put(nullFeed, totalUnread);
             allFeeds.putAll(feeds);
 
+            Set<String> quarantinedFeedUrls = feedManager.getQuarantinedFeedUrls();
+
             int currentFeedIndex = 0;
             int index = 0;
             List<String> feedNames = new ArrayList<>(allFeeds.size());
             for (Map.Entry<Feed, Integer> entry : allFeeds.entrySet()) {
                 Feed feed = entry.getKey();
-                feedNames.add(feed.getName() + " (" + entry.getValue() + ")");
+                String feedName = feed.getName() + " (" + entry.getValue() + ")";
+                if (quarantinedFeedUrls.contains(feed.getUrl())) {
+                    feedName = getString(R.string.quarantined_feed, feedName);
+                }
+                feedNames.add(feedName);
 
                 if (feed.equals(currentFeed)) {
                     currentFeedIndex = index;
@@ -80,7 +80,7 @@ public class RssReaderApplication extends Application {
     }
 
     /**
-     * (Re)schedule an automated refresh of all feeds.
+     * (Re)schedule an automated refresh of feeds that are due.
      */
     public void scheduleRefresh() {
         scheduleRefresh(false);
@@ -5,6 +5,7 @@ import net.elprespufferfish.rssreader.MainActivity;
 import net.elprespufferfish.rssreader.backup.RssReaderBackupAgent;
 import net.elprespufferfish.rssreader.refresh.RefreshService;
 import net.elprespufferfish.rssreader.search.SearchResultsActivity;
+import net.elprespufferfish.rssreader.settings.FeedStatisticsActivity;
 
 import javax.inject.Singleton;
 
@@ -22,5 +23,6 @@ public interface ApplicationComponent {
     void inject(RefreshService service);
     void inject(RssReaderBackupAgent backupAgent);
     void inject(SearchResultsActivity activity);
+    void inject(FeedStatisticsActivity activity);
 
 }
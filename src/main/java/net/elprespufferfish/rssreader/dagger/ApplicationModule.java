@@ -5,10 +5,15 @@ import com.google.common.eventbus.EventBus;
 import android.content.SharedPreferences;
 import android.preference.PreferenceManager;
 
+import net.elprespufferfish.rssreader.ArticleWindow;
 import net.elprespufferfish.rssreader.RssReaderApplication;
 import net.elprespufferfish.rssreader.db.DatabaseHelper;
 import net.elprespufferfish.rssreader.db.FeedManager;
 import net.elprespufferfish.rssreader.net.FeedFetcher;
+import net.elprespufferfish.rssreader.net.ImageEnricher;
+import net.elprespufferfish.rssreader.net.OkHttpTransport;
+import net.elprespufferfish.rssreader.net.Transport;
+import net.elprespufferfish.rssreader.settings.PreferenceRefreshSettings;
 
 import javax.inject.Singleton;
 
@@ -41,14 +46,32 @@ public class ApplicationModule {
 
     @Provides
     @Singleton
-    FeedManager feedManager() {
-        return new FeedManager(application, databaseHelper(), sharedPreferences());
+    FeedManager feedManager(DatabaseHelper databaseHelper, SharedPreferences sharedPreferences) {
+        return new FeedManager(application, databaseHelper, sharedPreferences);
     }
 
     @Provides
     @Singleton
-    FeedFetcher feedFetcher() {
-        return new FeedFetcher(feedManager(), sharedPreferences());
+    FeedFetcher feedFetcher(FeedManager feedManager, SharedPreferences sharedPreferences, Transport transport) {
+        return new FeedFetcher(feedManager, new PreferenceRefreshSettings(sharedPreferences), transport);
+    }
+
+    @Provides
+    @Singleton
+    ImageEnricher imageEnricher(FeedManager feedManager, Transport transport) {
+        return new ImageEnricher(feedManager, transport);
+    }
+
+    @Provides
+    @Singleton
+    Transport transport() {
+        return new OkHttpTransport();
+    }
+
+    @Provides
+    @Singleton
+    ArticleWindow articleWindow(DatabaseHelper databaseHelper, EventBus eventBus) {
+        return new ArticleWindow(new ArticleWindow.DatabaseLoader(databaseHelper), eventBus);
     }
 
     @Provides
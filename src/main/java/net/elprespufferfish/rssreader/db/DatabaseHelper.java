@@ -1,19 +1,33 @@
 package net.elprespufferfish.rssreader.db;
 
 import android.content.Context;
+import android.database.Cursor;
 import android.database.sqlite.SQLiteDatabase;
 import android.database.sqlite.SQLiteOpenHelper;
+import android.database.sqlite.SQLiteStatement;
 
+import net.elprespufferfish.rssreader.db.DatabaseSchema.ArticleSearchTable;
 import net.elprespufferfish.rssreader.db.DatabaseSchema.ArticleTable;
+import net.elprespufferfish.rssreader.db.DatabaseSchema.FeedFetchStatsTable;
 import net.elprespufferfish.rssreader.db.DatabaseSchema.FeedTable;
+import net.elprespufferfish.rssreader.db.DatabaseSchema.OpenGraphImageCacheTable;
+import net.elprespufferfish.rssreader.db.DatabaseSchema.RefreshRunTable;
+import net.elprespufferfish.rssreader.parsing.Articles;
 
 public class DatabaseHelper extends SQLiteOpenHelper {
 
     private static final String DATABASE_NAME = "rssReader.db";
-    private static final int DATABASE_VERSION = 1;
+    static final int DATABASE_VERSION = 15;
 
     public DatabaseHelper(Context context) {
-        super(context, DATABASE_NAME, null, DATABASE_VERSION);
+        this(context, DATABASE_NAME);
+    }
+
+    /**
+     * @param name file name of the database, or null for an in-memory database.
+     */
+    public DatabaseHelper(Context context, String name) {
+        super(context, name, null, DATABASE_VERSION);
     }
 
     @Override
@@ -36,11 +50,193 @@ public class DatabaseHelper extends SQLiteOpenHelper {
                 + ArticleTable.ARTICLE_IS_READ + " INTEGER NOT NULL,"
                 + "FOREIGN KEY(" + ArticleTable.ARTICLE_FEED + ") REFERENCES " + FeedTable.TABLE_NAME + "(" + FeedTable._ID + ")"
                 + ")");
+
+        // bring the initial schema up to date
+        onUpgrade(db, 1, DATABASE_VERSION);
     }
 
     @Override
     public void onUpgrade(SQLiteDatabase db, int oldVersion, int newVersion) {
-        // TODO Auto-generated method stub
+        for (int version = oldVersion + 1; version <= newVersion; version++) {
+            switch (version) {
+                case 2: {
+                    // HTTP cache validators for conditional GETs
+                    db.execSQL("ALTER TABLE " + FeedTable.TABLE_NAME + " ADD COLUMN " + FeedTable.FEED_ETAG + " TEXT");
+                    db.execSQL("ALTER TABLE " + FeedTable.TABLE_NAME + " ADD COLUMN " + FeedTable.FEED_LAST_MODIFIED + " TEXT");
+                    break;
+                }
+                case 3: {
+                    // per-feed refresh scheduling
+                    db.execSQL("ALTER TABLE " + FeedTable.TABLE_NAME + " ADD COLUMN " + FeedTable.FEED_REFRESH_INTERVAL + " INTEGER");
+                    db.execSQL("ALTER TABLE " + FeedTable.TABLE_NAME + " ADD COLUMN " + FeedTable.FEED_NEXT_REFRESH + " INTEGER NOT NULL DEFAULT 0");
+                    break;
+                }
+                case 4: {
+                    // refresh history and per-feed fetch statistics
+                    db.execSQL("CREATE TABLE " + RefreshRunTable.TABLE_NAME + " ("
+                            + RefreshRunTable._ID + " INTEGER PRIMARY KEY,"
+                            + RefreshRunTable.RUN_START + " INTEGER NOT NULL,"
+                            + RefreshRunTable.RUN_DURATION + " INTEGER,"
+                            + RefreshRunTable.RUN_FEEDS_UPDATED + " INTEGER,"
+                            + RefreshRunTable.RUN_FEEDS_UNCHANGED + " INTEGER,"
+                            + RefreshRunTable.RUN_FEEDS_FAILED + " INTEGER,"
+                            + RefreshRunTable.RUN_ARTICLES_INSERTED + " INTEGER,"
+                            + RefreshRunTable.RUN_WIRE_BYTES + " INTEGER,"
+                            + RefreshRunTable.RUN_DECODED_BYTES + " INTEGER,"
+                            + RefreshRunTable.RUN_PEAK_CONCURRENCY + " INTEGER,"
+                            + RefreshRunTable.RUN_CONNECTIONS_OPENED + " INTEGER,"
+                            + RefreshRunTable.RUN_CONNECTIONS_REUSED + " INTEGER"
+                            + ")");
+                    db.execSQL("CREATE TABLE " + FeedFetchStatsTable.TABLE_NAME + " ("
+                            + FeedFetchStatsTable._ID + " INTEGER PRIMARY KEY,"
+                            + FeedFetchStatsTable.STATS_RUN + " INTEGER NOT NULL,"
+                            + FeedFetchStatsTable.STATS_FEED + " INTEGER NOT NULL,"
+                            + FeedFetchStatsTable.STATS_FETCH_TIME + " INTEGER NOT NULL,"
+                            + FeedFetchStatsTable.STATS_CONNECT_MS + " INTEGER NOT NULL,"
+                            + FeedFetchStatsTable.STATS_FIRST_BYTE_MS + " INTEGER NOT NULL,"
+                            + FeedFetchStatsTable.STATS_WIRE_BYTES + " INTEGER NOT NULL,"
+                            + FeedFetchStatsTable.STATS_DECODED_BYTES + " INTEGER NOT NULL,"
+                            + FeedFetchStatsTable.STATS_PARSE_MS + " INTEGER NOT NULL,"
+                            + FeedFetchStatsTable.STATS_WRITE_MS + " INTEGER NOT NULL,"
+                            + FeedFetchStatsTable.STATS_TOTAL_MS + " INTEGER NOT NULL,"
+                            + FeedFetchStatsTable.STATS_ARTICLES_INSERTED + " INTEGER NOT NULL,"
+                            + FeedFetchStatsTable.STATS_HTTP_STATUS + " INTEGER NOT NULL,"
+                            + FeedFetchStatsTable.STATS_ERROR_CLASS + " TEXT," // null if the fetch succeeded
+                            + "FOREIGN KEY(" + FeedFetchStatsTable.STATS_RUN + ") REFERENCES " + RefreshRunTable.TABLE_NAME + "(" + RefreshRunTable._ID + "),"
+                            + "FOREIGN KEY(" + FeedFetchStatsTable.STATS_FEED + ") REFERENCES " + FeedTable.TABLE_NAME + "(" + FeedTable._ID + ")"
+                            + ")");
+                    break;
+                }
+                case 5: {
+                    // consecutive failure tracking for backoff and quarantine
+                    db.execSQL("ALTER TABLE " + FeedTable.TABLE_NAME + " ADD COLUMN " + FeedTable.FEED_FAILURE_COUNT + " INTEGER NOT NULL DEFAULT 0");
+                    db.execSQL("ALTER TABLE " + FeedTable.TABLE_NAME + " ADD COLUMN " + FeedTable.FEED_FIRST_FAILURE + " INTEGER NOT NULL DEFAULT 0");
+                    db.execSQL("ALTER TABLE " + FeedTable.TABLE_NAME + " ADD COLUMN " + FeedTable.FEED_QUARANTINED + " INTEGER NOT NULL DEFAULT 0");
+                    break;
+                }
+                case 6: {
+                    // inputs to refresh prioritisation
+                    db.execSQL("ALTER TABLE " + FeedTable.TABLE_NAME + " ADD COLUMN " + FeedTable.FEED_READ_COUNT + " INTEGER NOT NULL DEFAULT 0");
+                    db.execSQL("ALTER TABLE " + RefreshRunTable.TABLE_NAME + " ADD COLUMN " + RefreshRunTable.RUN_FEEDS_DEFERRED + " INTEGER");
+                    break;
+                }
+                case 7: {
+                    // images are resolved after articles are stored, existing articles already have theirs
+                    db.execSQL("ALTER TABLE " + ArticleTable.TABLE_NAME + " ADD COLUMN " + ArticleTable.ARTICLE_IMAGE_STATE + " INTEGER NOT NULL DEFAULT " + DatabaseSchema.ImageState.RESOLVED);
+                    db.execSQL("CREATE INDEX article_image_state_index ON " + ArticleTable.TABLE_NAME + "(" + ArticleTable.ARTICLE_IMAGE_STATE + ")");
+                    db.execSQL("CREATE TABLE " + OpenGraphImageCacheTable.TABLE_NAME + " ("
+                            + OpenGraphImageCacheTable.CACHE_PAGE_URL + " TEXT PRIMARY KEY,"
+                            + OpenGraphImageCacheTable.CACHE_IMAGE_URL + " TEXT," // null if the page has no image
+                            + OpenGraphImageCacheTable.CACHE_LAST_USED + " INTEGER NOT NULL"
+                            + ")");
+                    db.execSQL("CREATE INDEX cache_last_used_index ON " + OpenGraphImageCacheTable.TABLE_NAME + "(" + OpenGraphImageCacheTable.CACHE_LAST_USED + ")");
+                    break;
+                }
+                case 8: {
+                    // where article images come from
+                    db.execSQL("ALTER TABLE " + FeedTable.TABLE_NAME + " ADD COLUMN " + FeedTable.FEED_IMAGES_FROM_FEED + " INTEGER NOT NULL DEFAULT 0");
+                    db.execSQL("ALTER TABLE " + FeedTable.TABLE_NAME + " ADD COLUMN " + FeedTable.FEED_IMAGES_SCRAPED + " INTEGER NOT NULL DEFAULT 0");
+                    break;
+                }
+                case 9: {
+                    // identify articles by a hash of their GUID, unique within a feed
+                    db.execSQL("ALTER TABLE " + ArticleTable.TABLE_NAME + " ADD COLUMN " + ArticleTable.ARTICLE_GUID_HASH + " INTEGER NOT NULL DEFAULT 0");
+                    hashGuids(db);
+                    // drop duplicates left behind by feeds that reordered items, keeping the first copy
+                    db.execSQL("DELETE FROM " + ArticleTable.TABLE_NAME + " "
+                            + "WHERE " + ArticleTable._ID + " NOT IN "
+                            + "(SELECT MIN(" + ArticleTable._ID + ") FROM " + ArticleTable.TABLE_NAME + " "
+                            + "GROUP BY " + ArticleTable.ARTICLE_FEED + ", " + ArticleTable.ARTICLE_GUID_HASH + ")");
+                    db.execSQL("CREATE UNIQUE INDEX article_feed_guid_hash_index ON " + ArticleTable.TABLE_NAME
+                            + "(" + ArticleTable.ARTICLE_FEED + ", " + ArticleTable.ARTICLE_GUID_HASH + ")");
+                    break;
+                }
+                case 10: {
+                    // detect edits to stored articles
+                    db.execSQL("ALTER TABLE " + ArticleTable.TABLE_NAME + " ADD COLUMN " + ArticleTable.ARTICLE_CONTENT_HASH + " INTEGER NOT NULL DEFAULT 0");
+                    // stored articles are hashed in the background, see FeedManager.backfillArticles()
+                    break;
+                }
+                case 11: {
+                    // change detection for feeds served without validators
+                    db.execSQL("ALTER TABLE " + FeedTable.TABLE_NAME + " ADD COLUMN " + FeedTable.FEED_BODY_HASH + " INTEGER");
+                    break;
+                }
+                case 12: {
+                    // render-ready article bodies, prepared when articles are stored
+                    db.execSQL("ALTER TABLE " + ArticleTable.TABLE_NAME + " ADD COLUMN " + ArticleTable.ARTICLE_BODY + " TEXT NOT NULL DEFAULT ''");
+                    db.execSQL("ALTER TABLE " + ArticleTable.TABLE_NAME + " ADD COLUMN " + ArticleTable.ARTICLE_EXCERPT + " TEXT NOT NULL DEFAULT ''");
+                    db.execSQL("ALTER TABLE " + ArticleTable.TABLE_NAME + " ADD COLUMN " + ArticleTable.ARTICLE_WORD_COUNT + " INTEGER NOT NULL DEFAULT 0");
+                    // stored articles are rendered in the background, see FeedManager.backfillArticles()
+                    break;
+                }
+                case 13: {
+                    // indexes for the pager, unread counts and retention
+                    // partial indexes need SQLite 3.8 (Android 5.0), so unread articles are found through the read state index
+                    db.execSQL("CREATE INDEX article_feed_pubdate_index ON " + ArticleTable.TABLE_NAME
+                            + "(" + ArticleTable.ARTICLE_FEED + ", " + ArticleTable.ARTICLE_PUBLICATION_DATE + ", " + ArticleTable.ARTICLE_IS_READ + ")");
+                    db.execSQL("CREATE INDEX article_is_read_pubdate_index ON " + ArticleTable.TABLE_NAME
+                            + "(" + ArticleTable.ARTICLE_IS_READ + ", " + ArticleTable.ARTICLE_PUBLICATION_DATE + ")");
+                    db.execSQL("CREATE INDEX article_pubdate_index ON " + ArticleTable.TABLE_NAME
+                            + "(" + ArticleTable.ARTICLE_PUBLICATION_DATE + ")");
+                    break;
+                }
+                case 14: {
+                    // full-text search, written alongside articles and removed with them
+                    db.execSQL("CREATE VIRTUAL TABLE " + ArticleSearchTable.TABLE_NAME + " USING fts4("
+                            + ArticleSearchTable.SEARCH_TITLE + ", "
+                            + ArticleSearchTable.SEARCH_TEXT
+                            + ")");
+                    db.execSQL("CREATE TRIGGER article_search_delete AFTER DELETE ON " + ArticleTable.TABLE_NAME + " BEGIN "
+                            + "DELETE FROM " + ArticleSearchTable.TABLE_NAME + " WHERE " + ArticleSearchTable.DOCID + "=old." + ArticleTable._ID + "; "
+                            + "END");
+                    // stored articles are indexed in the background, see FeedManager.backfillArticles()
+                    break;
+                }
+                case 15: {
+                    // indexes for per-feed statistics and their retention
+                    db.execSQL("CREATE INDEX fetch_stats_feed_index ON " + FeedFetchStatsTable.TABLE_NAME
+                            + "(" + FeedFetchStatsTable.STATS_FEED + ")");
+                    db.execSQL("CREATE INDEX fetch_stats_run_index ON " + FeedFetchStatsTable.TABLE_NAME
+                            + "(" + FeedFetchStatsTable.STATS_RUN + ")");
+                    break;
+                }
+                default: {
+                    throw new IllegalStateException("No upgrade path to version " + version);
+                }
+            }
+        }
+    }
+
+    /**
+     * Populate the GUID hash of every stored article.
+     *
+     * <p>Unlike other derived columns this cannot be left to a background backfill: duplicates are
+     * found and the unique index is built from these hashes, which SQLite cannot compute itself.  Only
+     * the id and GUID are read, and each row is written once.
+     */
+    private static void hashGuids(SQLiteDatabase db) {
+        SQLiteStatement statement = db.compileStatement("UPDATE " + ArticleTable.TABLE_NAME + " "
+                + "SET " + ArticleTable.ARTICLE_GUID_HASH + "=? "
+                + "WHERE " + ArticleTable._ID + "=?");
+        Cursor guidCursor = db.query(
+                ArticleTable.TABLE_NAME,
+                new String[] { ArticleTable._ID, ArticleTable.ARTICLE_GUID },
+                null,
+                null,
+                null,
+                null,
+                null);
+        try {
+            while (guidCursor.moveToNext()) {
+                statement.bindLong(1, Articles.hashGuid(guidCursor.getString(1)));
+                statement.bindLong(2, guidCursor.getLong(0));
+                statement.execute();
+            }
+        } finally {
+            guidCursor.close();
+            statement.close();
+        }
     }
 
     @Override
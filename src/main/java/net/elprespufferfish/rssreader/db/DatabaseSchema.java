@@ -8,6 +8,17 @@ public class DatabaseSchema {
         String TABLE_NAME = "feeds";
         String FEED_NAME = "feed_name";
         String FEED_URL = "feed_url";
+        String FEED_ETAG = "feed_etag";
+        String FEED_LAST_MODIFIED = "feed_last_modified";
+        String FEED_REFRESH_INTERVAL = "feed_refresh_interval";
+        String FEED_NEXT_REFRESH = "feed_next_refresh";
+        String FEED_FAILURE_COUNT = "feed_failure_count";
+        String FEED_FIRST_FAILURE = "feed_first_failure";
+        String FEED_QUARANTINED = "feed_quarantined";
+        String FEED_READ_COUNT = "feed_read_count";
+        String FEED_IMAGES_FROM_FEED = "feed_images_from_feed";
+        String FEED_IMAGES_SCRAPED = "feed_images_scraped";
+        String FEED_BODY_HASH = "feed_body_hash";
     }
 
     public interface ArticleTable extends BaseColumns {
@@ -20,6 +31,62 @@ public class DatabaseSchema {
         String ARTICLE_IMAGE_URL = "article_image_url";
         String ARTICLE_GUID = "article_guid";
         String ARTICLE_IS_READ = "article_is_read";
+        String ARTICLE_IMAGE_STATE = "article_image_state";
+        String ARTICLE_GUID_HASH = "article_guid_hash";
+        String ARTICLE_CONTENT_HASH = "article_content_hash";
+        String ARTICLE_BODY = "article_body";
+        String ARTICLE_EXCERPT = "article_excerpt";
+        String ARTICLE_WORD_COUNT = "article_word_count";
+    }
+
+    /**
+     * Full-text index of article titles and text, keyed by article id.
+     */
+    public interface ArticleSearchTable {
+        String TABLE_NAME = "article_search";
+        String DOCID = "docid";
+        String SEARCH_TITLE = "search_title";
+        String SEARCH_TEXT = "search_text";
+    }
+
+    public interface OpenGraphImageCacheTable {
+        String TABLE_NAME = "og_image_cache";
+        String CACHE_PAGE_URL = "cache_page_url";
+        String CACHE_IMAGE_URL = "cache_image_url";
+        String CACHE_LAST_USED = "cache_last_used";
+    }
+
+    public interface RefreshRunTable extends BaseColumns {
+        String TABLE_NAME = "refresh_runs";
+        String RUN_START = "run_start";
+        String RUN_DURATION = "run_duration";
+        String RUN_FEEDS_UPDATED = "run_feeds_updated";
+        String RUN_FEEDS_UNCHANGED = "run_feeds_unchanged";
+        String RUN_FEEDS_FAILED = "run_feeds_failed";
+        String RUN_FEEDS_DEFERRED = "run_feeds_deferred";
+        String RUN_ARTICLES_INSERTED = "run_articles_inserted";
+        String RUN_WIRE_BYTES = "run_wire_bytes";
+        String RUN_DECODED_BYTES = "run_decoded_bytes";
+        String RUN_PEAK_CONCURRENCY = "run_peak_concurrency";
+        String RUN_CONNECTIONS_OPENED = "run_connections_opened";
+        String RUN_CONNECTIONS_REUSED = "run_connections_reused";
+    }
+
+    public interface FeedFetchStatsTable extends BaseColumns {
+        String TABLE_NAME = "feed_fetch_stats";
+        String STATS_RUN = "stats_run";
+        String STATS_FEED = "stats_feed";
+        String STATS_FETCH_TIME = "stats_fetch_time";
+        String STATS_CONNECT_MS = "stats_connect_ms";
+        String STATS_FIRST_BYTE_MS = "stats_first_byte_ms";
+        String STATS_WIRE_BYTES = "stats_wire_bytes";
+        String STATS_DECODED_BYTES = "stats_decoded_bytes";
+        String STATS_PARSE_MS = "stats_parse_ms";
+        String STATS_WRITE_MS = "stats_write_ms";
+        String STATS_TOTAL_MS = "stats_total_ms";
+        String STATS_ARTICLES_INSERTED = "stats_articles_inserted";
+        String STATS_HTTP_STATUS = "stats_http_status";
+        String STATS_ERROR_CLASS = "stats_error_class";
     }
 
     /**
@@ -46,6 +113,36 @@ public class DatabaseSchema {
 
     }
 
+    /**
+     * Selects articles which have not been {@link ReadStatus#READ}.  Written as a list of states, rather than
+     * excluding READ, so that indexes on the read state are searched instead of scanned.
+     */
+    public static final String ARTICLE_IS_NOT_READ = ArticleTable.ARTICLE_IS_READ + " IN (" + ReadStatus.UNREAD + "," + ReadStatus.GREY + ")";
+
+    /**
+     * Enumeration of states for resolving an article's image from its page.
+     */
+    public enum ImageState {
+        /** Article page has not been checked for an image yet. */
+        PENDING(0),
+        /** Image, if any, has been determined. */
+        RESOLVED(1),
+        /** Article page could not be fetched. */
+        FAILED(2);
+
+        private final int value;
+
+        ImageState(int value) {
+            this.value = value;
+        }
+
+        @Override
+        public String toString() {
+            return String.valueOf(value);
+        }
+
+    }
+
     private DatabaseSchema() {
         // prevent instantiations
     }
@@ -0,0 +1,74 @@
+package net.elprespufferfish.rssreader.db;
+
+/**
+ * Aggregated refresh cost of a single feed over the recorded fetch history.
+ */
+public class FeedCost {
+
+    private final String feedName;
+    private final int numFetches;
+    private final int numFailures;
+    private final long totalMs;
+    private final long wireBytes;
+    private final int numImagesFromFeed;
+    private final int numImagesScraped;
+
+    public FeedCost(String feedName, int numFetches, int numFailures, long totalMs, long wireBytes, int numImagesFromFeed, int numImagesScraped) {
+        this.feedName = feedName;
+        this.numFetches = numFetches;
+        this.numFailures = numFailures;
+        this.totalMs = totalMs;
+        this.wireBytes = wireBytes;
+        this.numImagesFromFeed = numImagesFromFeed;
+        this.numImagesScraped = numImagesScraped;
+    }
+
+    public String getFeedName() {
+        return feedName;
+    }
+
+    public int getNumFetches() {
+        return numFetches;
+    }
+
+    public int getNumFailures() {
+        return numFailures;
+    }
+
+    /**
+     * @return time spent fetching, parsing and storing the feed across all recorded fetches.
+     */
+    public long getTotalMs() {
+        return totalMs;
+    }
+
+    /**
+     * @return bytes transferred across all recorded fetches.
+     */
+    public long getWireBytes() {
+        return wireBytes;
+    }
+
+    /**
+     * @return number of article images supplied by the feed itself.
+     */
+    public int getNumImagesFromFeed() {
+        return numImagesFromFeed;
+    }
+
+    /**
+     * @return number of article images found by scraping article pages.
+     */
+    public int getNumImagesScraped() {
+        return numImagesScraped;
+    }
+
+    /**
+     * @return percentage of article images that did not require scraping, or 0 if no images were found.
+     */
+    public int getPercentImagesFromFeed() {
+        int numImages = numImagesFromFeed + numImagesScraped;
+        return numImages == 0 ? 0 : Math.round(100f * numImagesFromFeed / numImages);
+    }
+
+}
@@ -13,27 +13,113 @@ import android.database.sqlite.SQLiteStatement;
 
 import net.elprespufferfish.rssreader.Article;
 import net.elprespufferfish.rssreader.Feed;
+import net.elprespufferfish.rssreader.db.DatabaseSchema.ArticleSearchTable;
 import net.elprespufferfish.rssreader.db.DatabaseSchema.ArticleTable;
+import net.elprespufferfish.rssreader.db.DatabaseSchema.FeedFetchStatsTable;
 import net.elprespufferfish.rssreader.db.DatabaseSchema.FeedTable;
+import net.elprespufferfish.rssreader.db.DatabaseSchema.OpenGraphImageCacheTable;
+import net.elprespufferfish.rssreader.db.DatabaseSchema.RefreshRunTable;
+import net.elprespufferfish.rssreader.net.CacheValidators;
+import net.elprespufferfish.rssreader.net.FeedFetchStatistics;
+import net.elprespufferfish.rssreader.net.FeedHealth;
+import net.elprespufferfish.rssreader.net.RefreshCandidate;
+import net.elprespufferfish.rssreader.net.ResolvedImage;
+import net.elprespufferfish.rssreader.net.RefreshStatistics;
+import net.elprespufferfish.rssreader.parsing.ArticleBodies;
+import net.elprespufferfish.rssreader.parsing.Articles;
 import net.elprespufferfish.rssreader.settings.Settings;
 
 import org.joda.time.DateTime;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicBoolean;
 
-public class FeedManager {
+public class FeedManager implements FeedStore {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(FeedManager.class);
 
+    /** Number of refresh runs whose history is kept. */
+    private static final int REFRESH_RUN_HISTORY = 100;
+    /** Number of article pages whose scraped image is remembered. */
+    private static final int IMAGE_CACHE_SIZE = 2000;
+    /** Number of stored articles rendered per transaction when backfilling. */
+    private static final int BACKFILL_BATCH_SIZE = 50;
+
+    // statements on the articles table, whose query plans are checked by DatabaseHelperTest
+    static final String UNREAD_COUNTS_QUERY = "SELECT "
+            + FeedTable.FEED_NAME + ", "
+            + FeedTable.FEED_URL + ", "
+            + "COUNT(CASE WHEN " + ArticleTable.ARTICLE_IS_READ + "=" + DatabaseSchema.ReadStatus.UNREAD + " THEN 1 END) "
+            + "FROM " + FeedTable.TABLE_NAME + " "
+            + "LEFT JOIN " + ArticleTable.TABLE_NAME + " "
+            + "ON " + FeedTable.TABLE_NAME + "." + FeedTable._ID + "=" + ArticleTable.ARTICLE_FEED + " "
+            + "GROUP BY " + FeedTable.TABLE_NAME + "." + FeedTable._ID + " "
+            + "ORDER BY " + FeedTable.FEED_NAME;
+    static final String RECENT_PUBLICATION_DATES_QUERY = "SELECT " + ArticleTable.ARTICLE_PUBLICATION_DATE + " "
+            + "FROM " + ArticleTable.TABLE_NAME + " "
+            + "WHERE " + ArticleTable.ARTICLE_FEED + "=? "
+            + "ORDER BY " + ArticleTable.ARTICLE_PUBLICATION_DATE + " DESC "
+            + "LIMIT ?";
+    static final String FINALIZE_GREY_ARTICLES_SQL = "UPDATE " + ArticleTable.TABLE_NAME + " "
+            + "SET " + ArticleTable.ARTICLE_IS_READ + "=" + DatabaseSchema.ReadStatus.READ + " "
+            + "WHERE " + ArticleTable.ARTICLE_IS_READ + "=" + DatabaseSchema.ReadStatus.GREY;
+    static final String MARK_ALL_READ_SQL = "UPDATE " + ArticleTable.TABLE_NAME + " "
+            + "SET " + ArticleTable.ARTICLE_IS_READ + "=" + DatabaseSchema.ReadStatus.READ + " "
+            + "WHERE " + DatabaseSchema.ARTICLE_IS_NOT_READ;
+    static final String MARK_FEED_READ_SQL = "UPDATE " + ArticleTable.TABLE_NAME + " "
+            + "SET " + ArticleTable.ARTICLE_IS_READ + "=" + DatabaseSchema.ReadStatus.READ + " "
+            + "WHERE " + ArticleTable.ARTICLE_FEED + "="
+            + "(SELECT " + FeedTable._ID + " FROM " + FeedTable.TABLE_NAME + " WHERE " + FeedTable.FEED_URL + "=?) "
+            + "AND " + DatabaseSchema.ARTICLE_IS_NOT_READ;
+    static final String DELETE_OLD_ARTICLES_SQL = "DELETE FROM " + ArticleTable.TABLE_NAME + " "
+            + "WHERE " + ArticleTable.ARTICLE_PUBLICATION_DATE + "<?";
+
+    // statements on the fetch statistics table, whose query plans are checked by DatabaseHelperTest
+    // the average is only computed for due feeds, each through the statistics feed index
+    static final String REFRESH_CANDIDATES_QUERY = "SELECT " + FeedTable.FEED_NAME + ", "
+            + FeedTable.FEED_URL + ", "
+            + FeedTable._ID + ", "
+            + FeedTable.FEED_READ_COUNT + ", "
+            + FeedTable.FEED_NEXT_REFRESH + ", "
+            + FeedTable.FEED_REFRESH_INTERVAL + ", "
+            + "(SELECT AVG(" + FeedFetchStatsTable.STATS_TOTAL_MS + ") "
+            + "FROM " + FeedFetchStatsTable.TABLE_NAME + " "
+            + "WHERE " + FeedFetchStatsTable.STATS_FEED + "=" + FeedTable.TABLE_NAME + "." + FeedTable._ID + ") "
+            + "FROM " + FeedTable.TABLE_NAME + " "
+            + "WHERE " + FeedTable.FEED_NEXT_REFRESH + " <= ?";
+    static final String FEED_COSTS_QUERY = "SELECT " + FeedTable.FEED_NAME + ", "
+            + "COUNT(" + FeedFetchStatsTable.TABLE_NAME + "." + FeedFetchStatsTable._ID + "), "
+            + "COUNT(" + FeedFetchStatsTable.STATS_ERROR_CLASS + "), "
+            + "TOTAL(" + FeedFetchStatsTable.STATS_TOTAL_MS + "), "
+            + "TOTAL(" + FeedFetchStatsTable.STATS_WIRE_BYTES + "), "
+            + FeedTable.FEED_IMAGES_FROM_FEED + ", "
+            + FeedTable.FEED_IMAGES_SCRAPED + " "
+            + "FROM " + FeedTable.TABLE_NAME + " "
+            + "LEFT JOIN " + FeedFetchStatsTable.TABLE_NAME + " "
+            + "ON " + FeedTable.TABLE_NAME + "." + FeedTable._ID + "=" + FeedFetchStatsTable.STATS_FEED + " "
+            + "GROUP BY " + FeedTable.TABLE_NAME + "." + FeedTable._ID + " "
+            + "ORDER BY 4 DESC, " + FeedTable.FEED_NAME;
+    static final String DELETE_OLD_FETCH_STATS_SQL = "DELETE FROM " + FeedFetchStatsTable.TABLE_NAME + " "
+            + "WHERE " + FeedFetchStatsTable.STATS_RUN + "<=?";
+
     private final Context context;
     private final SQLiteDatabase database;
     private final SharedPreferences preferences;
+    // lazily loaded, guarded by itself
+    private final Map<Integer, KnownArticles> knownArticlesByFeed = new HashMap<>();
+    private final AtomicBoolean isBackfilling = new AtomicBoolean(false);
 
     public FeedManager(
             Context context,
@@ -102,6 +188,30 @@ public class FeedManager {
         }
     }
 
+    /**
+     * @return feeds whose next scheduled refresh is at or before the provided time.
+     */
+    @Override
+    public List<RefreshCandidate> getRefreshCandidates(long time) {
+        Cursor feedCursor = database.rawQuery(REFRESH_CANDIDATES_QUERY, new String[]{String.valueOf(time)});
+        try {
+            List<RefreshCandidate> candidates = new ArrayList<>(feedCursor.getCount());
+            while (feedCursor.moveToNext()) {
+                Feed feed = new Feed.Builder().withName(feedCursor.getString(0)).withUrl(feedCursor.getString(1)).build();
+                candidates.add(new RefreshCandidate(
+                        feed,
+                        feedCursor.getInt(2),
+                        feedCursor.getLong(3),
+                        feedCursor.getLong(4),
+                        feedCursor.getLong(5),
+                        feedCursor.getLong(6)));
+            }
+            return candidates;
+        } finally {
+            feedCursor.close();
+        }
+    }
+
     /**
      * @return Map of all added FeedManager to the number of unread articles for that feed.
      */
@@ -113,14 +223,7 @@ public class FeedManager {
             }
         });
 
-        Cursor feedCursor = database.rawQuery(
-                "SELECT " + FeedTable.FEED_NAME + ", " + FeedTable.FEED_URL + ", COUNT(CASE WHEN " + ArticleTable.ARTICLE_IS_READ + "=" + DatabaseSchema.ReadStatus.UNREAD + " THEN 1 END) "
-                        + "FROM " + FeedTable.TABLE_NAME + " "
-                        + "LEFT JOIN " + ArticleTable.TABLE_NAME + " "
-                        + "ON " + FeedTable.TABLE_NAME + "." + FeedTable._ID + "=" + ArticleTable.ARTICLE_FEED + " "
-                        + "GROUP BY " + FeedTable.TABLE_NAME + "." + FeedTable._ID + " "
-                        + "ORDER BY " + FeedTable.FEED_NAME,
-                new String[0]);
+        Cursor feedCursor = database.rawQuery(UNREAD_COUNTS_QUERY, new String[0]);
         try {
             feedCursor.moveToFirst();
 
@@ -148,6 +251,12 @@ public class FeedManager {
                             + "FROM " + FeedTable.TABLE_NAME + " "
                             + "WHERE " + FeedTable.FEED_URL + "=?)",
                     new String[0]);
+            database.execSQL(
+                    "DELETE FROM " + FeedFetchStatsTable.TABLE_NAME + " "
+                            + "WHERE " + FeedFetchStatsTable.STATS_FEED + "=" + "(SELECT " + FeedTable._ID + " "
+                            + "FROM " + FeedTable.TABLE_NAME + " "
+                            + "WHERE " + FeedTable.FEED_URL + "=?)",
+                    new String[]{feed.getUrl()});
             database.delete(
                     FeedTable.TABLE_NAME,
                     FeedTable.FEED_URL + "=?",
@@ -157,6 +266,11 @@ public class FeedManager {
         } finally {
             database.endTransaction();
         }
+
+        // ids of removed feeds may be reused
+        synchronized (knownArticlesByFeed) {
+            knownArticlesByFeed.clear();
+        }
     }
 
     public int getFeedId(String feedAddress) {
@@ -177,30 +291,289 @@ public class FeedManager {
         }
     }
 
-    public String getLatestGuid(int feedId) {
-        Cursor latestGuidCursor = database.query(
+    /**
+     * @return index of the articles already stored for the feed.
+     */
+    @Override
+    public KnownArticles getKnownArticles(int feedId) {
+        synchronized (knownArticlesByFeed) {
+            KnownArticles knownArticles = knownArticlesByFeed.get(feedId);
+            if (knownArticles == null) {
+                knownArticles = new KnownArticles(getContentHashes(feedId));
+                knownArticlesByFeed.put(feedId, knownArticles);
+            }
+            return knownArticles;
+        }
+    }
+
+    private Map<Long, Long> getContentHashes(int feedId) {
+        Cursor hashCursor = database.query(
                 ArticleTable.TABLE_NAME,
-                new String[] { ArticleTable.ARTICLE_GUID },
+                new String[] { ArticleTable.ARTICLE_GUID_HASH, ArticleTable.ARTICLE_CONTENT_HASH },
                 ArticleTable.ARTICLE_FEED + " = ?",
                 new String[] { String.valueOf(feedId) },
                 null,
                 null,
-                ArticleTable.ARTICLE_PUBLICATION_DATE + " DESC",
-                "1");
+                null);
+        try {
+            Map<Long, Long> contentHashByGuidHash = new HashMap<>();
+            while (hashCursor.moveToNext()) {
+                contentHashByGuidHash.put(hashCursor.getLong(0), hashCursor.getLong(1));
+            }
+            return contentHashByGuidHash;
+        } finally {
+            hashCursor.close();
+        }
+    }
+
+    /**
+     * @return validators from the last successful fetch of the feed.
+     */
+    @Override
+    public CacheValidators getCacheValidators(int feedId) {
+        Cursor validatorCursor = database.query(
+                FeedTable.TABLE_NAME,
+                new String[] { FeedTable.FEED_ETAG, FeedTable.FEED_LAST_MODIFIED, FeedTable.FEED_BODY_HASH },
+                FeedTable._ID + " = ?",
+                new String[] { String.valueOf(feedId) },
+                null,
+                null,
+                null);
         try {
-            if (latestGuidCursor.isAfterLast()) {
-                // no results, new feed
-                return null;
+            if (!validatorCursor.moveToFirst()) {
+                return CacheValidators.NONE;
             }
-            latestGuidCursor.moveToFirst();
-            return latestGuidCursor.getString(0);
+            Long bodyHash = validatorCursor.isNull(2) ? null : validatorCursor.getLong(2);
+            return new CacheValidators(validatorCursor.getString(0), validatorCursor.getString(1), bodyHash);
         } finally {
-            latestGuidCursor.close();
+            validatorCursor.close();
         }
     }
 
-    public void addArticles(long feedId, List<Article> articles) {
-        String insertSql = "INSERT INTO " + DatabaseSchema.ArticleTable.TABLE_NAME
+    /**
+     * Record validators to be sent with the next fetch of the feed.
+     */
+    @Override
+    public void setCacheValidators(int feedId, CacheValidators validators) {
+        ContentValues values = new ContentValues();
+        values.put(FeedTable.FEED_ETAG, validators.getEtag());
+        values.put(FeedTable.FEED_LAST_MODIFIED, validators.getLastModified());
+        values.put(FeedTable.FEED_BODY_HASH, validators.getBodyHash());
+        database.update(FeedTable.TABLE_NAME,
+                values,
+                FeedTable._ID + "=?",
+                new String[] { String.valueOf(feedId) });
+    }
+
+    /**
+     * @return publication times of the most recent articles in the feed, newest first.
+     */
+    @Override
+    public List<Long> getRecentPublicationDates(int feedId, int limit) {
+        Cursor dateCursor = database.rawQuery(
+                RECENT_PUBLICATION_DATES_QUERY,
+                new String[] { String.valueOf(feedId), String.valueOf(limit) });
+        try {
+            List<Long> dates = new ArrayList<>(dateCursor.getCount());
+            while (dateCursor.moveToNext()) {
+                dates.add(dateCursor.getLong(0));
+            }
+            return dates;
+        } finally {
+            dateCursor.close();
+        }
+    }
+
+    /**
+     * Record when the feed should next be fetched.
+     */
+    @Override
+    public void scheduleNextRefresh(int feedId, long intervalMs, long nextRefresh) {
+        ContentValues values = new ContentValues();
+        values.put(FeedTable.FEED_REFRESH_INTERVAL, intervalMs);
+        values.put(FeedTable.FEED_NEXT_REFRESH, nextRefresh);
+        database.update(FeedTable.TABLE_NAME,
+                values,
+                FeedTable._ID + "=?",
+                new String[] { String.valueOf(feedId) });
+    }
+
+    /**
+     * @return record of consecutive failures fetching the feed.
+     */
+    @Override
+    public FeedHealth getFeedHealth(int feedId) {
+        Cursor healthCursor = database.query(
+                FeedTable.TABLE_NAME,
+                new String[] { FeedTable.FEED_FAILURE_COUNT, FeedTable.FEED_FIRST_FAILURE, FeedTable.FEED_QUARANTINED },
+                FeedTable._ID + " = ?",
+                new String[] { String.valueOf(feedId) },
+                null,
+                null,
+                null);
+        try {
+            if (!healthCursor.moveToFirst()) {
+                return FeedHealth.HEALTHY;
+            }
+            return new FeedHealth(healthCursor.getInt(0), healthCursor.getLong(1), healthCursor.getInt(2) != 0);
+        } finally {
+            healthCursor.close();
+        }
+    }
+
+    /**
+     * Record a failed fetch and when the feed should next be attempted.
+     */
+    @Override
+    public void recordFailure(int feedId, FeedHealth health, long nextAttempt) {
+        ContentValues values = new ContentValues();
+        values.put(FeedTable.FEED_FAILURE_COUNT, health.getFailureCount());
+        values.put(FeedTable.FEED_FIRST_FAILURE, health.getFirstFailureTime());
+        values.put(FeedTable.FEED_QUARANTINED, health.isQuarantined() ? 1 : 0);
+        values.put(FeedTable.FEED_NEXT_REFRESH, nextAttempt);
+        database.update(FeedTable.TABLE_NAME,
+                values,
+                FeedTable._ID + "=?",
+                new String[] { String.valueOf(feedId) });
+    }
+
+    /**
+     * Forget previous failures after a successful fetch.
+     */
+    @Override
+    public void clearFailures(int feedId) {
+        ContentValues values = new ContentValues();
+        values.put(FeedTable.FEED_FAILURE_COUNT, 0);
+        values.put(FeedTable.FEED_FIRST_FAILURE, 0);
+        values.put(FeedTable.FEED_QUARANTINED, 0);
+        database.update(FeedTable.TABLE_NAME,
+                values,
+                FeedTable._ID + "=?",
+                new String[] { String.valueOf(feedId) });
+    }
+
+    /**
+     * @return URLs of feeds that have been quarantined after failing repeatedly.
+     */
+    public Set<String> getQuarantinedFeedUrls() {
+        Cursor feedCursor = database.query(
+                FeedTable.TABLE_NAME,
+                new String[] { FeedTable.FEED_URL },
+                FeedTable.FEED_QUARANTINED + " != 0",
+                new String[0],
+                null,
+                null,
+                null);
+        try {
+            Set<String> feedUrls = new HashSet<>();
+            while (feedCursor.moveToNext()) {
+                feedUrls.add(feedCursor.getString(0));
+            }
+            return feedUrls;
+        } finally {
+            feedCursor.close();
+        }
+    }
+
+    /**
+     * Record the start of a refresh run.
+     * @return id of the run, to be passed to {@link #addFetchStatistics} and {@link #finishRefreshRun}.
+     */
+    @Override
+    public long startRefreshRun(long startTime) {
+        ContentValues values = new ContentValues();
+        values.put(RefreshRunTable.RUN_START, startTime);
+        return database.insertOrThrow(RefreshRunTable.TABLE_NAME, null, values);
+    }
+
+    /**
+     * Record the outcome of a refresh run and discard history beyond the most recent runs.
+     */
+    @Override
+    public void finishRefreshRun(long runId, long durationMs, RefreshStatistics statistics) {
+        ContentValues values = new ContentValues();
+        values.put(RefreshRunTable.RUN_DURATION, durationMs);
+        values.put(RefreshRunTable.RUN_FEEDS_UPDATED, statistics.getUpdatedFeeds());
+        values.put(RefreshRunTable.RUN_FEEDS_UNCHANGED, statistics.getUnchangedFeeds());
+        values.put(RefreshRunTable.RUN_FEEDS_FAILED, statistics.getFailedFeeds());
+        values.put(RefreshRunTable.RUN_FEEDS_DEFERRED, statistics.getDeferredFeeds());
+        values.put(RefreshRunTable.RUN_ARTICLES_INSERTED, statistics.getNewArticles());
+        values.put(RefreshRunTable.RUN_WIRE_BYTES, statistics.getWireBytes());
+        values.put(RefreshRunTable.RUN_DECODED_BYTES, statistics.getDecodedBytes());
+        values.put(RefreshRunTable.RUN_PEAK_CONCURRENCY, statistics.getPeakConcurrency());
+        values.put(RefreshRunTable.RUN_CONNECTIONS_OPENED, statistics.getConnectionsOpened());
+        values.put(RefreshRunTable.RUN_CONNECTIONS_REUSED, statistics.getConnectionsReused());
+
+        database.beginTransactionNonExclusive();
+        try {
+            database.update(RefreshRunTable.TABLE_NAME,
+                    values,
+                    RefreshRunTable._ID + "=?",
+                    new String[] { String.valueOf(runId) });
+
+            String oldestRunId = String.valueOf(runId - REFRESH_RUN_HISTORY);
+            database.execSQL(DELETE_OLD_FETCH_STATS_SQL, new Object[] { oldestRunId });
+            database.delete(RefreshRunTable.TABLE_NAME,
+                    RefreshRunTable._ID + " <= ?",
+                    new String[] { oldestRunId });
+            database.setTransactionSuccessful();
+        } finally {
+            database.endTransaction();
+        }
+    }
+
+    /**
+     * Record the measurements of fetching a single feed.
+     */
+    @Override
+    public void addFetchStatistics(long runId, int feedId, FeedFetchStatistics statistics) {
+        ContentValues values = new ContentValues();
+        values.put(FeedFetchStatsTable.STATS_RUN, runId);
+        values.put(FeedFetchStatsTable.STATS_FEED, feedId);
+        values.put(FeedFetchStatsTable.STATS_FETCH_TIME, statistics.getFetchTime());
+        values.put(FeedFetchStatsTable.STATS_CONNECT_MS, statistics.getConnectMs());
+        values.put(FeedFetchStatsTable.STATS_FIRST_BYTE_MS, statistics.getFirstByteMs());
+        values.put(FeedFetchStatsTable.STATS_WIRE_BYTES, statistics.getWireBytes());
+        values.put(FeedFetchStatsTable.STATS_DECODED_BYTES, statistics.getDecodedBytes());
+        values.put(FeedFetchStatsTable.STATS_PARSE_MS, statistics.getParseMs());
+        values.put(FeedFetchStatsTable.STATS_WRITE_MS, statistics.getWriteMs());
+        values.put(FeedFetchStatsTable.STATS_TOTAL_MS, statistics.getTotalMs());
+        values.put(FeedFetchStatsTable.STATS_ARTICLES_INSERTED, statistics.getArticlesInserted());
+        values.put(FeedFetchStatsTable.STATS_HTTP_STATUS, statistics.getHttpStatus());
+        values.put(FeedFetchStatsTable.STATS_ERROR_CLASS, statistics.getErrorClass());
+        database.insertOrThrow(FeedFetchStatsTable.TABLE_NAME, null, values);
+    }
+
+    /**
+     * @return refresh cost of every feed over the recorded history, most expensive first.
+     */
+    public List<FeedCost> getFeedCosts() {
+        Cursor costCursor = database.rawQuery(FEED_COSTS_QUERY, new String[0]);
+        try {
+            List<FeedCost> costs = new ArrayList<>(costCursor.getCount());
+            while (costCursor.moveToNext()) {
+                costs.add(new FeedCost(
+                        costCursor.getString(0),
+                        costCursor.getInt(1),
+                        costCursor.getInt(2),
+                        costCursor.getLong(3),
+                        costCursor.getLong(4),
+                        costCursor.getInt(5),
+                        costCursor.getInt(6)));
+            }
+            return costs;
+        } finally {
+            costCursor.close();
+        }
+    }
+
+    /**
+     * Store new articles and update stored articles whose content has changed, preserving their read state.
+     * @return number of new articles stored.
+     */
+    @Override
+    public int addArticles(int feedId, List<Article> articles) {
+        String insertSql = "INSERT OR IGNORE INTO " + DatabaseSchema.ArticleTable.TABLE_NAME
                 + "("
                 + DatabaseSchema.ArticleTable.ARTICLE_FEED + ","
                 + DatabaseSchema.ArticleTable.ARTICLE_NAME + ","
@@ -209,25 +582,413 @@ public class FeedManager {
                 + DatabaseSchema.ArticleTable.ARTICLE_DESCRIPTION + ","
                 + DatabaseSchema.ArticleTable.ARTICLE_IMAGE_URL + ","
                 + DatabaseSchema.ArticleTable.ARTICLE_GUID + ","
-                + DatabaseSchema.ArticleTable.ARTICLE_IS_READ
-                + ") VALUES (?,?,?,?,?,?,?, ?);";
-        SQLiteStatement statement = database.compileStatement(insertSql);
+                + DatabaseSchema.ArticleTable.ARTICLE_IS_READ + ","
+                + DatabaseSchema.ArticleTable.ARTICLE_IMAGE_STATE + ","
+                + DatabaseSchema.ArticleTable.ARTICLE_GUID_HASH + ","
+                + DatabaseSchema.ArticleTable.ARTICLE_CONTENT_HASH + ","
+                + DatabaseSchema.ArticleTable.ARTICLE_BODY + ","
+                + DatabaseSchema.ArticleTable.ARTICLE_EXCERPT + ","
+                + DatabaseSchema.ArticleTable.ARTICLE_WORD_COUNT
+                + ") VALUES (?,?,?,?,?,?,?,?,?,?,?,?,?,?);";
+        // publication date and read state are left alone, and a previously found image is kept unless the feed now provides one
+        String updateSql = "UPDATE " + ArticleTable.TABLE_NAME + " SET "
+                + ArticleTable.ARTICLE_NAME + "=?,"
+                + ArticleTable.ARTICLE_URL + "=?,"
+                + ArticleTable.ARTICLE_DESCRIPTION + "=?,"
+                + ArticleTable.ARTICLE_IMAGE_URL + "=COALESCE(?," + ArticleTable.ARTICLE_IMAGE_URL + "),"
+                + ArticleTable.ARTICLE_IMAGE_STATE + "=COALESCE(?," + ArticleTable.ARTICLE_IMAGE_STATE + "),"
+                + ArticleTable.ARTICLE_CONTENT_HASH + "=?,"
+                + ArticleTable.ARTICLE_BODY + "=?,"
+                + ArticleTable.ARTICLE_EXCERPT + "=?,"
+                + ArticleTable.ARTICLE_WORD_COUNT + "=? "
+                + "WHERE " + ArticleTable.ARTICLE_FEED + "=? AND " + ArticleTable.ARTICLE_GUID_HASH + "=?";
+        // the search index is keyed by article id, which updates look up from the feed and GUID
+        String searchInsertSql = "INSERT INTO " + ArticleSearchTable.TABLE_NAME + "("
+                + ArticleSearchTable.DOCID + ","
+                + ArticleSearchTable.SEARCH_TITLE + ","
+                + ArticleSearchTable.SEARCH_TEXT
+                + ") VALUES (?,?,?)";
+        String searchDeleteSql = "DELETE FROM " + ArticleSearchTable.TABLE_NAME + " "
+                + "WHERE " + ArticleSearchTable.DOCID + "="
+                + "(SELECT " + ArticleTable._ID + " FROM " + ArticleTable.TABLE_NAME + " "
+                + "WHERE " + ArticleTable.ARTICLE_FEED + "=? AND " + ArticleTable.ARTICLE_GUID_HASH + "=?)";
+        String searchReplaceSql = "INSERT INTO " + ArticleSearchTable.TABLE_NAME + "("
+                + ArticleSearchTable.DOCID + ","
+                + ArticleSearchTable.SEARCH_TITLE + ","
+                + ArticleSearchTable.SEARCH_TEXT
+                + ") SELECT " + ArticleTable._ID + ",?,? FROM " + ArticleTable.TABLE_NAME + " "
+                + "WHERE " + ArticleTable.ARTICLE_FEED + "=? AND " + ArticleTable.ARTICLE_GUID_HASH + "=?";
+        SQLiteStatement insertStatement = database.compileStatement(insertSql);
+        SQLiteStatement updateStatement = database.compileStatement(updateSql);
+        SQLiteStatement searchInsertStatement = database.compileStatement(searchInsertSql);
+        SQLiteStatement searchDeleteStatement = database.compileStatement(searchDeleteSql);
+        SQLiteStatement searchReplaceStatement = database.compileStatement(searchReplaceSql);
+        KnownArticles knownArticles = getKnownArticles(feedId);
+        int numImagesFromFeed = 0;
+        int numInserted = 0;
+        int numChanged = 0;
+        long[] guidHashes = new long[articles.size()];
+        long[] contentHashes = new long[articles.size()];
         database.beginTransactionNonExclusive();
         try {
             for (Article article : articles) {
-                LOGGER.info("Parsed article: " + article.getGuid());
-                statement.clearBindings();
-                statement.bindLong(1, feedId);
-                statement.bindString(2, article.getTitle());
-                statement.bindString(3, article.getLink());
-                statement.bindLong(4, article.getPublicationDate().getMillis());
-                statement.bindString(5, article.getDescription());
-                if (article.getImageUrl() != null) {
-                    statement.bindString(6, article.getImageUrl());
+                if (article.getText() == null) {
+                    // normally rendered as the feed is parsed
+                    article = ArticleBodies.render(article);
+                }
+                long guidHash = Articles.hashGuid(article.getGuid());
+                long contentHash = Articles.hashContent(article);
+                boolean isUpdated = false;
+                if (knownArticles.contains(guidHash)) {
+                    updateStatement.clearBindings();
+                    updateStatement.bindString(1, article.getTitle());
+                    updateStatement.bindString(2, article.getLink());
+                    updateStatement.bindString(3, article.getDescription());
+                    if (article.getImageUrl() != null) {
+                        updateStatement.bindString(4, article.getImageUrl());
+                        updateStatement.bindString(5, DatabaseSchema.ImageState.RESOLVED.toString());
+                    }
+                    updateStatement.bindLong(6, contentHash);
+                    updateStatement.bindString(7, article.getBody());
+                    updateStatement.bindString(8, article.getExcerpt());
+                    updateStatement.bindLong(9, article.getWordCount());
+                    updateStatement.bindLong(10, feedId);
+                    updateStatement.bindLong(11, guidHash);
+                    isUpdated = updateStatement.executeUpdateDelete() > 0;
+                    if (isUpdated) {
+                        LOGGER.info("Updated article: " + article.getGuid());
+                        searchDeleteStatement.bindLong(1, feedId);
+                        searchDeleteStatement.bindLong(2, guidHash);
+                        searchDeleteStatement.executeUpdateDelete();
+                        searchReplaceStatement.bindString(1, article.getTitle());
+                        searchReplaceStatement.bindString(2, article.getText());
+                        searchReplaceStatement.bindLong(3, feedId);
+                        searchReplaceStatement.bindLong(4, guidHash);
+                        searchReplaceStatement.executeInsert();
+                    } else {
+                        // the stored article was deleted since it was remembered, store it again
+                        LOGGER.info("Known article is gone, re-adding: " + article.getGuid());
+                    }
+                }
+                if (!isUpdated) {
+                    LOGGER.info("Parsed article: " + article.getGuid());
+                    insertStatement.clearBindings();
+                    insertStatement.bindLong(1, feedId);
+                    insertStatement.bindString(2, article.getTitle());
+                    insertStatement.bindString(3, article.getLink());
+                    insertStatement.bindLong(4, article.getPublicationDate().getMillis());
+                    insertStatement.bindString(5, article.getDescription());
+                    if (article.getImageUrl() != null) {
+                        insertStatement.bindString(6, article.getImageUrl());
+                    }
+                    insertStatement.bindString(7, article.getGuid());
+                    insertStatement.bindLong(8, 0);
+                    // articles without an image are left for the enrichment stage to scrape
+                    insertStatement.bindString(9, (article.getImageUrl() != null ? DatabaseSchema.ImageState.RESOLVED : DatabaseSchema.ImageState.PENDING).toString());
+                    insertStatement.bindLong(10, guidHash);
+                    insertStatement.bindLong(11, contentHash);
+                    insertStatement.bindString(12, article.getBody());
+                    insertStatement.bindString(13, article.getExcerpt());
+                    insertStatement.bindLong(14, article.getWordCount());
+                    long articleId = insertStatement.executeInsert();
+                    if (articleId == -1) {
+                        continue;
+                    }
+                    searchInsertStatement.bindLong(1, articleId);
+                    searchInsertStatement.bindString(2, article.getTitle());
+                    searchInsertStatement.bindString(3, article.getText());
+                    searchInsertStatement.executeInsert();
+                    numInserted++;
+                    if (article.getImageUrl() != null) {
+                        numImagesFromFeed++;
+                    }
+                }
+                guidHashes[numChanged] = guidHash;
+                contentHashes[numChanged] = contentHash;
+                numChanged++;
+            }
+            if (numImagesFromFeed > 0) {
+                database.execSQL("UPDATE " + FeedTable.TABLE_NAME + " "
+                        + "SET " + FeedTable.FEED_IMAGES_FROM_FEED + "=" + FeedTable.FEED_IMAGES_FROM_FEED + "+" + numImagesFromFeed + " "
+                        + "WHERE " + FeedTable._ID + "=" + feedId);
+            }
+            database.setTransactionSuccessful();
+        } finally {
+            database.endTransaction();
+            insertStatement.close();
+            updateStatement.close();
+            searchInsertStatement.close();
+            searchDeleteStatement.close();
+            searchReplaceStatement.close();
+        }
+
+        // only remember hashes once they have been committed
+        for (int i = 0; i < numChanged; i++) {
+            knownArticles.put(guidHashes[i], contentHashes[i]);
+        }
+        return numInserted;
+    }
+
+    /**
+     * Render the bodies of articles stored before bodies were rendered at ingest, hash the content of articles
+     * stored before edits were detected, and add articles stored before the search index existed to it.  Runs until none are left, a batch at a time so the database
+     * is only held while each batch is written.  Must not be called from the UI thread, and returns
+     * immediately if a backfill is already running.
+     */
+    public void backfillArticles() {
+        if (!isBackfilling.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            long startTime = System.nanoTime();
+            int numBackfilled = 0;
+            long lastId = 0;
+            int batchSize;
+            do {
+                List<Article> batch = getArticlesPendingBackfill(lastId);
+                batchSize = batch.size();
+                if (batchSize > 0) {
+                    storeBackfill(batch);
+                    numBackfilled += batchSize;
+                    lastId = batch.get(batchSize - 1).getId();
+                }
+            } while (batchSize == BACKFILL_BATCH_SIZE);
+            if (numBackfilled > 0) {
+                long backfillDuration = MILLISECONDS.convert(System.nanoTime() - startTime, NANOSECONDS);
+                LOGGER.info("Backfilled " + numBackfilled + " stored articles in " + backfillDuration + "ms");
+            }
+        } finally {
+            isBackfilling.set(false);
+        }
+    }
+
+    /**
+     * @return articles following the provided id whose body or content hash is empty or which are missing from
+     * the search index, in id order, with their body and text filled in.
+     */
+    private List<Article> getArticlesPendingBackfill(long afterId) {
+        Cursor articleCursor = database.query(
+                ArticleTable.TABLE_NAME,
+                new String[] {
+                        ArticleTable._ID,
+                        ArticleTable.ARTICLE_NAME,
+                        ArticleTable.ARTICLE_DESCRIPTION,
+                        ArticleTable.ARTICLE_URL,
+                        ArticleTable.ARTICLE_BODY },
+                ArticleTable._ID + ">? AND (" + ArticleTable.ARTICLE_BODY + "='' OR " + ArticleTable.ARTICLE_CONTENT_HASH + "=0 OR NOT EXISTS "
+                        + "(SELECT 1 FROM " + ArticleSearchTable.TABLE_NAME + " "
+                        + "WHERE " + ArticleSearchTable.DOCID + "=" + ArticleTable.TABLE_NAME + "." + ArticleTable._ID + "))",
+                new String[] { Long.toString(afterId) },
+                null,
+                null,
+                ArticleTable._ID,
+                String.valueOf(BACKFILL_BATCH_SIZE));
+        try {
+            List<Article> articles = new ArrayList<>(articleCursor.getCount());
+            while (articleCursor.moveToNext()) {
+                Article.Builder builder = new Article.Builder();
+                builder.setId(articleCursor.getInt(0));
+                builder.setTitle(articleCursor.getString(1));
+                builder.setDescription(articleCursor.getString(2));
+                builder.setLink(articleCursor.getString(3));
+                String body = articleCursor.getString(4);
+                if (body.isEmpty()) {
+                    articles.add(ArticleBodies.render(builder.build()));
+                } else {
+                    // already rendered, only the text for the search index is needed
+                    builder.setBody(body);
+                    builder.setText(ArticleBodies.text(body));
+                    articles.add(builder.build());
+                }
+            }
+            return articles;
+        } finally {
+            articleCursor.close();
+        }
+    }
+
+    /**
+     * Store rendered bodies, content hashes and search index entries, unless a refresh stored them in the
+     * meantime or the article has since been removed.
+     */
+    private void storeBackfill(List<Article> articles) {
+        SQLiteStatement bodyStatement = database.compileStatement("UPDATE " + ArticleTable.TABLE_NAME + " "
+                + "SET " + ArticleTable.ARTICLE_BODY + "=?, "
+                + ArticleTable.ARTICLE_EXCERPT + "=?, "
+                + ArticleTable.ARTICLE_WORD_COUNT + "=? "
+                + "WHERE " + ArticleTable._ID + "=? AND " + ArticleTable.ARTICLE_BODY + "=''");
+        SQLiteStatement hashStatement = database.compileStatement("UPDATE " + ArticleTable.TABLE_NAME + " "
+                + "SET " + ArticleTable.ARTICLE_CONTENT_HASH + "=? "
+                + "WHERE " + ArticleTable._ID + "=? AND " + ArticleTable.ARTICLE_CONTENT_HASH + "=0");
+        SQLiteStatement searchStatement = database.compileStatement("INSERT INTO " + ArticleSearchTable.TABLE_NAME + "("
+                + ArticleSearchTable.DOCID + ","
+                + ArticleSearchTable.SEARCH_TITLE + ","
+                + ArticleSearchTable.SEARCH_TEXT
+                + ") SELECT " + ArticleTable._ID + ",?,? FROM " + ArticleTable.TABLE_NAME + " "
+                + "WHERE " + ArticleTable._ID + "=? AND NOT EXISTS "
+                + "(SELECT 1 FROM " + ArticleSearchTable.TABLE_NAME + " WHERE " + ArticleSearchTable.DOCID + "=?)");
+        database.beginTransactionNonExclusive();
+        try {
+            for (Article article : articles) {
+                // articles which already had a body were not rendered, and have no excerpt
+                if (article.getExcerpt() != null) {
+                    bodyStatement.bindString(1, article.getBody());
+                    bodyStatement.bindString(2, article.getExcerpt());
+                    bodyStatement.bindLong(3, article.getWordCount());
+                    bodyStatement.bindLong(4, article.getId());
+                    bodyStatement.executeUpdateDelete();
+                }
+                hashStatement.bindLong(1, Articles.hashContent(article));
+                hashStatement.bindLong(2, article.getId());
+                hashStatement.executeUpdateDelete();
+                searchStatement.bindString(1, article.getTitle());
+                searchStatement.bindString(2, article.getText());
+                searchStatement.bindLong(3, article.getId());
+                searchStatement.bindLong(4, article.getId());
+                searchStatement.executeInsert();
+            }
+            database.setTransactionSuccessful();
+        } finally {
+            database.endTransaction();
+            bodyStatement.close();
+            hashStatement.close();
+            searchStatement.close();
+        }
+    }
+
+    /**
+     * @return ids and links of articles whose image has not been resolved yet, newest first.
+     */
+    @Override
+    public Map<Integer, String> getArticlesPendingImages(int limit) {
+        Cursor articleCursor = database.query(
+                ArticleTable.TABLE_NAME,
+                new String[] { ArticleTable._ID, ArticleTable.ARTICLE_URL },
+                ArticleTable.ARTICLE_IMAGE_STATE + " = " + DatabaseSchema.ImageState.PENDING,
+                new String[0],
+                null,
+                null,
+                ArticleTable.ARTICLE_PUBLICATION_DATE + " DESC",
+                String.valueOf(limit));
+        try {
+            Map<Integer, String> articles = new LinkedHashMap<>();
+            while (articleCursor.moveToNext()) {
+                articles.put(articleCursor.getInt(0), articleCursor.getString(1));
+            }
+            return articles;
+        } finally {
+            articleCursor.close();
+        }
+    }
+
+    /**
+     * @return previously scraped images for the provided pages.  Pages without an image map to <code>null</code>,
+     * pages that have not been scraped are absent.
+     */
+    @Override
+    public Map<String, String> getCachedImageUrls(Collection<String> pageUrls) {
+        Map<String, String> imageUrls = new HashMap<>();
+        if (pageUrls.isEmpty()) {
+            return imageUrls;
+        }
+
+        StringBuilder placeholders = new StringBuilder();
+        for (int i = 0; i < pageUrls.size(); i++) {
+            placeholders.append(i == 0 ? "?" : ",?");
+        }
+        Cursor cacheCursor = database.query(
+                OpenGraphImageCacheTable.TABLE_NAME,
+                new String[] { OpenGraphImageCacheTable.CACHE_PAGE_URL, OpenGraphImageCacheTable.CACHE_IMAGE_URL },
+                OpenGraphImageCacheTable.CACHE_PAGE_URL + " IN (" + placeholders + ")",
+                pageUrls.toArray(new String[pageUrls.size()]),
+                null,
+                null,
+                null);
+        try {
+            while (cacheCursor.moveToNext()) {
+                imageUrls.put(cacheCursor.getString(0), cacheCursor.getString(1));
+            }
+            return imageUrls;
+        } finally {
+            cacheCursor.close();
+        }
+    }
+
+    /**
+     * Store scraped images against their articles and remember them for other articles linking to the same page.
+     */
+    @Override
+    public void storeResolvedImages(List<ResolvedImage> images) {
+        SQLiteStatement articleStatement = database.compileStatement(
+                "UPDATE " + ArticleTable.TABLE_NAME + " "
+                        + "SET " + ArticleTable.ARTICLE_IMAGE_URL + "=?, "
+                        + ArticleTable.ARTICLE_IMAGE_STATE + "=" + DatabaseSchema.ImageState.RESOLVED + " "
+                        + "WHERE " + ArticleTable._ID + "=?");
+        SQLiteStatement cacheStatement = database.compileStatement(
+                "INSERT OR REPLACE INTO " + OpenGraphImageCacheTable.TABLE_NAME + " ("
+                        + OpenGraphImageCacheTable.CACHE_PAGE_URL + ","
+                        + OpenGraphImageCacheTable.CACHE_IMAGE_URL + ","
+                        + OpenGraphImageCacheTable.CACHE_LAST_USED
+                        + ") VALUES (?,?,?)");
+        SQLiteStatement feedStatement = database.compileStatement(
+                "UPDATE " + FeedTable.TABLE_NAME + " "
+                        + "SET " + FeedTable.FEED_IMAGES_SCRAPED + "=" + FeedTable.FEED_IMAGES_SCRAPED + "+1 "
+                        + "WHERE " + FeedTable._ID + "="
+                        + "(SELECT " + ArticleTable.ARTICLE_FEED + " FROM " + ArticleTable.TABLE_NAME + " WHERE " + ArticleTable._ID + "=?)");
+        long now = System.currentTimeMillis();
+        database.beginTransactionNonExclusive();
+        try {
+            for (ResolvedImage image : images) {
+                articleStatement.clearBindings();
+                if (image.getImageUrl() != null) {
+                    articleStatement.bindString(1, image.getImageUrl());
+                }
+                articleStatement.bindLong(2, image.getArticleId());
+                articleStatement.execute();
+
+                if (image.getImageUrl() != null) {
+                    feedStatement.bindLong(1, image.getArticleId());
+                    feedStatement.execute();
                 }
-                statement.bindString(7, article.getGuid());
-                statement.bindLong(8, 0);
-                statement.execute();
+
+                cacheStatement.clearBindings();
+                cacheStatement.bindString(1, image.getPageUrl());
+                if (image.getImageUrl() != null) {
+                    cacheStatement.bindString(2, image.getImageUrl());
+                }
+                cacheStatement.bindLong(3, now);
+                cacheStatement.execute();
+            }
+
+            // evict least recently used pages
+            database.execSQL("DELETE FROM " + OpenGraphImageCacheTable.TABLE_NAME + " "
+                    + "WHERE " + OpenGraphImageCacheTable.CACHE_PAGE_URL + " IN "
+                    + "(SELECT " + OpenGraphImageCacheTable.CACHE_PAGE_URL + " FROM " + OpenGraphImageCacheTable.TABLE_NAME + " "
+                    + "ORDER BY " + OpenGraphImageCacheTable.CACHE_LAST_USED + " DESC "
+                    + "LIMIT -1 OFFSET " + IMAGE_CACHE_SIZE + ")");
+            database.setTransactionSuccessful();
+        } finally {
+            database.endTransaction();
+            articleStatement.close();
+            cacheStatement.close();
+            feedStatement.close();
+        }
+    }
+
+    /**
+     * Give up on scraping images for the provided articles.
+     */
+    @Override
+    public void markImagesFailed(Collection<Integer> articleIds) {
+        ContentValues values = new ContentValues();
+        values.put(ArticleTable.ARTICLE_IMAGE_STATE, DatabaseSchema.ImageState.FAILED.toString());
+        database.beginTransactionNonExclusive();
+        try {
+            for (int articleId : articleIds) {
+                database.update(ArticleTable.TABLE_NAME,
+                        values,
+                        ArticleTable._ID + "=?",
+                        new String[] { Integer.toString(articleId) });
             }
             database.setTransactionSuccessful();
         } finally {
@@ -242,23 +1003,33 @@ public class FeedManager {
         ContentValues values = new ContentValues();
         values.put(ArticleTable.ARTICLE_IS_READ, DatabaseSchema.ReadStatus.GREY.toString());
         LOGGER.debug("Marking {} as grey", article.getId());
-        database.update(ArticleTable.TABLE_NAME,
-                values,
-                ArticleTable._ID + "=?",
-                new String[] { Integer.toString(article.getId()) });
+        String[] articleId = new String[] { Integer.toString(article.getId()) };
+        database.beginTransactionNonExclusive();
+        try {
+            int numUpdated = database.update(ArticleTable.TABLE_NAME,
+                    values,
+                    ArticleTable._ID + "=? AND " + ArticleTable.ARTICLE_IS_READ + "=" + DatabaseSchema.ReadStatus.UNREAD,
+                    articleId);
+            if (numUpdated != 0) {
+                // first read of this article counts towards its feed's refresh priority
+                database.execSQL("UPDATE " + FeedTable.TABLE_NAME + " "
+                        + "SET " + FeedTable.FEED_READ_COUNT + "=" + FeedTable.FEED_READ_COUNT + "+1 "
+                        + "WHERE " + FeedTable._ID + "="
+                        + "(SELECT " + ArticleTable.ARTICLE_FEED + " FROM " + ArticleTable.TABLE_NAME + " WHERE " + ArticleTable._ID + "=?)",
+                        articleId);
+            }
+            database.setTransactionSuccessful();
+        } finally {
+            database.endTransaction();
+        }
     }
 
     /**
      * Mark all grey articles as read so that they will not show up.
      */
     public void finalizeGreyArticles() {
-        ContentValues values = new ContentValues();
-        values.put(ArticleTable.ARTICLE_IS_READ, DatabaseSchema.ReadStatus.READ.toString());
         LOGGER.debug("Transitioning grey articles to read");
-        database.update(ArticleTable.TABLE_NAME,
-                values,
-                ArticleTable.ARTICLE_IS_READ + "=" + DatabaseSchema.ReadStatus.GREY,
-                new String[0]);
+        database.execSQL(FINALIZE_GREY_ARTICLES_SQL);
     }
 
     /**
@@ -266,29 +1037,33 @@ public class FeedManager {
      */
     public void markAllAsRead(Feed feed) {
         if (feed.getUrl() == null) {
-            ContentValues values = new ContentValues();
-            values.put(ArticleTable.ARTICLE_IS_READ, DatabaseSchema.ReadStatus.READ.toString());
-            database.update(ArticleTable.TABLE_NAME,
-                    values,
-                    "", new String[0]);
+            database.execSQL(MARK_ALL_READ_SQL);
         } else {
-            database.execSQL("UPDATE " + ArticleTable.TABLE_NAME + " "
-                    + "SET " + ArticleTable.ARTICLE_IS_READ + "=" + DatabaseSchema.ReadStatus.READ + " "
-                    + "WHERE " + ArticleTable.ARTICLE_FEED + "= "
-                    + "(SELECT " + FeedTable._ID + " FROM " + FeedTable.TABLE_NAME + " WHERE " + FeedTable.FEED_URL + "='" + feed.getUrl() + "')");
+            database.execSQL(MARK_FEED_READ_SQL, new Object[] { feed.getUrl() });
         }
     }
 
+    @Override
     public void removeOldArticles() {
         long startTime = System.nanoTime();
 
         int maxAge = preferences.getInt(Settings.RETENTION_PERIOD.first, Settings.RETENTION_PERIOD.second);
         DateTime oldestDate = DateTime.now().minusDays(maxAge);
         LOGGER.info("Deleting old articles older than {}", oldestDate.getMillis());
-        int deletedRows = database.delete(
-                ArticleTable.TABLE_NAME,
-                ArticleTable.ARTICLE_PUBLICATION_DATE + " < ?",
-                new String[] { String.valueOf(oldestDate.getMillis()) });
+        SQLiteStatement deleteStatement = database.compileStatement(DELETE_OLD_ARTICLES_SQL);
+        int deletedRows;
+        try {
+            deleteStatement.bindLong(1, oldestDate.getMillis());
+            deletedRows = deleteStatement.executeUpdateDelete();
+        } finally {
+            deleteStatement.close();
+        }
+        if (deletedRows > 0) {
+            // forget deleted articles, each feed's known articles are reloaded when it is next refreshed
+            synchronized (knownArticlesByFeed) {
+                knownArticlesByFeed.clear();
+            }
+        }
 
         long endTime = System.nanoTime();
         long durationMs = MILLISECONDS.convert(endTime - startTime, NANOSECONDS);
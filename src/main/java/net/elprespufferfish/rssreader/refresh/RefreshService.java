@@ -2,6 +2,7 @@ package net.elprespufferfish.rssreader.refresh;
 
 import static java.util.concurrent.TimeUnit.MILLISECONDS;
 import static java.util.concurrent.TimeUnit.NANOSECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
 
 import android.annotation.TargetApi;
 import android.app.IntentService;
@@ -19,7 +20,9 @@ import android.support.v4.app.NotificationCompat;
 import android.support.v4.content.LocalBroadcastManager;
 
 import net.elprespufferfish.rssreader.net.FeedFetcher;
+import net.elprespufferfish.rssreader.net.ImageEnricher;
 import net.elprespufferfish.rssreader.db.DatabaseHelper;
+import net.elprespufferfish.rssreader.db.FeedManager;
 import net.elprespufferfish.rssreader.util.ForegroundStatus;
 import net.elprespufferfish.rssreader.MainActivity;
 import net.elprespufferfish.rssreader.R;
@@ -45,6 +48,10 @@ public class RefreshService extends IntentService {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(RefreshService.class);
     private static final int ONGOING_REFRESH_NOTIFICATION_ID = 1;
+    /** Longest a refresh may spend starting fetches; anything left over is picked up by the next refresh. */
+    private static final long REFRESH_BUDGET_MS = SECONDS.toMillis(60);
+    /** Longest to spend scraping article pages for images after a refresh. */
+    private static final long IMAGE_ENRICHMENT_BUDGET_MS = SECONDS.toMillis(60);
 
     public class RefreshServiceBinder extends Binder {
         public boolean isRefreshInProgress() {
@@ -58,6 +65,10 @@ public class RefreshService extends IntentService {
     FeedFetcher feedFetcher;
     @Inject
     DatabaseHelper databaseHelper;
+    @Inject
+    ImageEnricher imageEnricher;
+    @Inject
+    FeedManager feedManager;
 
     public RefreshService() {
         super("RefreshService");
@@ -102,11 +113,27 @@ public class RefreshService extends IntentService {
         PendingIntent.getActivity(this, 0, notificationIntent, 0);
         startForeground(ONGOING_REFRESH_NOTIFICATION_ID, refreshNotification);
 
-        boolean didRefreshComplete = false;
-        boolean wasRefreshStarted = false;
         try {
-            wasRefreshStarted = feedFetcher.refresh();
-            didRefreshComplete = true;
+            boolean didRefreshComplete = false;
+            boolean wasRefreshStarted = false;
+            try {
+                wasRefreshStarted = feedFetcher.refresh(forceRefresh, REFRESH_BUDGET_MS);
+                didRefreshComplete = true;
+            } finally {
+                isRefreshInProgress.set(false);
+
+                // notify the UI that the refresh is complete
+                Intent completionNotification = new Intent(COMPLETION_NOTIFICATION);
+                completionNotification.putExtra(WAS_REFRESH_STARTED, wasRefreshStarted);
+                completionNotification.putExtra(DID_REFRESH_COMPLETE, didRefreshComplete);
+                LocalBroadcastManager.getInstance(this).sendBroadcast(completionNotification);
+            }
+
+            // new articles are already visible, fill in their images afterwards
+            imageEnricher.enrich(IMAGE_ENRICHMENT_BUDGET_MS);
+
+            // render any articles stored by older versions that have not been viewed since
+            feedManager.backfillArticles();
 
             if (!forceRefresh) {
                 // Was a scheduled refresh.  Take a little longer to clean up the database
@@ -118,16 +145,8 @@ public class RefreshService extends IntentService {
                 }
             }
         } finally {
-            isRefreshInProgress.set(false);
-
-            // tear down ongoing notification
+            // tear down ongoing notification once the follow-up work is done too
             stopForeground(true);
-
-            // notify the UI that the refresh is complete
-            Intent completionNotification = new Intent(COMPLETION_NOTIFICATION);
-            completionNotification.putExtra(WAS_REFRESH_STARTED, wasRefreshStarted);
-            completionNotification.putExtra(DID_REFRESH_COMPLETE, didRefreshComplete);
-            LocalBroadcastManager.getInstance(this).sendBroadcast(completionNotification);
         }
     }
 
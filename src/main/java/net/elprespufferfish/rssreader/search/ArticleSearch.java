@@ -0,0 +1,185 @@
+package net.elprespufferfish.rssreader.search;
+
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+
+import net.elprespufferfish.rssreader.Article;
+import net.elprespufferfish.rssreader.db.DatabaseSchema.ArticleSearchTable;
+import net.elprespufferfish.rssreader.db.DatabaseSchema.ArticleTable;
+import net.elprespufferfish.rssreader.db.DatabaseSchema.FeedTable;
+
+import org.joda.time.DateTime;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Searches article titles and text through the full-text index.
+ *
+ * <p>A search is run in two steps.  {@link #rank(SQLiteDatabase, String)} reads only the ids and match
+ * statistics of every match, and {@link #load(SQLiteDatabase, String, long[])} then reads the columns a
+ * result displays for a page of those ids at a time.
+ *
+ * @see SearchQuery for the supported syntax.
+ */
+public class ArticleSearch {
+
+    /** Marks the start of a match within a snippet. */
+    public static final String HIGHLIGHT_START = "\u0002";
+    /** Marks the end of a match within a snippet. */
+    public static final String HIGHLIGHT_END = "\u0003";
+
+    private static final String ELLIPSIS = "\u2026";
+    private static final int SNIPPET_TOKENS = 16;
+    private static final double TITLE_WEIGHT = 4;
+    private static final double TEXT_WEIGHT = 1;
+
+    private static final String RANK_QUERY = "SELECT "
+            + ArticleSearchTable.TABLE_NAME + "." + ArticleSearchTable.DOCID + ", "
+            + ArticleTable.TABLE_NAME + "." + ArticleTable.ARTICLE_PUBLICATION_DATE + ", "
+            + "matchinfo(" + ArticleSearchTable.TABLE_NAME + ", '" + SearchRanking.MATCHINFO_FORMAT + "') "
+            + "FROM " + ArticleSearchTable.TABLE_NAME + " "
+            + "JOIN " + ArticleTable.TABLE_NAME + " "
+            + "ON " + ArticleTable.TABLE_NAME + "." + ArticleTable._ID + "=" + ArticleSearchTable.TABLE_NAME + "." + ArticleSearchTable.DOCID + " "
+            + "WHERE " + ArticleSearchTable.TABLE_NAME + " MATCH ?";
+
+    private static final String LOAD_QUERY = "SELECT "
+            + ArticleTable.TABLE_NAME + "." + ArticleTable._ID + ", "
+            + FeedTable.TABLE_NAME + "." + FeedTable.FEED_NAME + ", "
+            + ArticleTable.TABLE_NAME + "." + ArticleTable.ARTICLE_NAME + ", "
+            + ArticleTable.TABLE_NAME + "." + ArticleTable.ARTICLE_URL + ", "
+            + ArticleTable.TABLE_NAME + "." + ArticleTable.ARTICLE_PUBLICATION_DATE + ", "
+            + ArticleTable.TABLE_NAME + "." + ArticleTable.ARTICLE_EXCERPT + ", "
+            // snippet from the text column, the title is displayed anyway
+            + "snippet(" + ArticleSearchTable.TABLE_NAME + ", ?, ?, ?, 1, " + SNIPPET_TOKENS + ") "
+            + "FROM " + ArticleSearchTable.TABLE_NAME + " "
+            + "JOIN " + ArticleTable.TABLE_NAME + " "
+            + "ON " + ArticleTable.TABLE_NAME + "." + ArticleTable._ID + "=" + ArticleSearchTable.TABLE_NAME + "." + ArticleSearchTable.DOCID + " "
+            + "JOIN " + FeedTable.TABLE_NAME + " "
+            + "ON " + ArticleTable.TABLE_NAME + "." + ArticleTable.ARTICLE_FEED + "=" + FeedTable.TABLE_NAME + "." + FeedTable._ID + " "
+            + "WHERE " + ArticleSearchTable.TABLE_NAME + " MATCH ? "
+            + "AND " + ArticleSearchTable.TABLE_NAME + "." + ArticleSearchTable.DOCID + " IN ";
+
+    /**
+     * Score of a single match.
+     */
+    private static class Match {
+
+        private final long articleId;
+        private final long publicationDate;
+        private final double score;
+
+        Match(long articleId, long publicationDate, double score) {
+            this.articleId = articleId;
+            this.publicationDate = publicationDate;
+            this.score = score;
+        }
+
+    }
+
+    /**
+     * Most relevant first, then newest first.
+     */
+    private static final Comparator<Match> RANKING = new Comparator<Match>() {
+        @Override
+        public int compare(Match lhs, Match rhs) {
+            int byScore = Double.compare(rhs.score, lhs.score);
+            if (byScore != 0) {
+                return byScore;
+            }
+            return Long.compare(rhs.publicationDate, lhs.publicationDate);
+        }
+    };
+
+    /**
+     * @return ids of the articles matching the query, most relevant first.
+     */
+    public static long[] rank(SQLiteDatabase database, String query) {
+        String expression = SearchQuery.toMatchExpression(query);
+        if (expression.isEmpty()) {
+            return new long[0];
+        }
+
+        List<Match> matches;
+        Cursor matchCursor = database.rawQuery(RANK_QUERY, new String[] { expression });
+        try {
+            matches = new ArrayList<>(matchCursor.getCount());
+            while (matchCursor.moveToNext()) {
+                double score = SearchRanking.score(matchCursor.getBlob(2), TITLE_WEIGHT, TEXT_WEIGHT);
+                matches.add(new Match(matchCursor.getLong(0), matchCursor.getLong(1), score));
+            }
+        } finally {
+            matchCursor.close();
+        }
+
+        Collections.sort(matches, RANKING);
+        long[] articleIds = new long[matches.size()];
+        for (int i = 0; i < articleIds.length; i++) {
+            articleIds[i] = matches.get(i).articleId;
+        }
+        return articleIds;
+    }
+
+    /**
+     * @return results for the provided ids, in the same order.  Articles deleted since they were ranked
+     * are left out.
+     */
+    public static List<SearchResult> load(SQLiteDatabase database, String query, long[] articleIds) {
+        if (articleIds.length == 0) {
+            return Collections.emptyList();
+        }
+
+        StringBuilder sql = new StringBuilder(LOAD_QUERY).append("(");
+        String[] selectionArgs = new String[4 + articleIds.length];
+        selectionArgs[0] = HIGHLIGHT_START;
+        selectionArgs[1] = HIGHLIGHT_END;
+        selectionArgs[2] = ELLIPSIS;
+        selectionArgs[3] = SearchQuery.toMatchExpression(query);
+        Map<Long, Integer> positions = new HashMap<>();
+        for (int i = 0; i < articleIds.length; i++) {
+            sql.append(i == 0 ? "?" : ",?");
+            selectionArgs[4 + i] = String.valueOf(articleIds[i]);
+            positions.put(articleIds[i], i);
+        }
+        sql.append(")");
+
+        SearchResult[] results = new SearchResult[articleIds.length];
+        Cursor resultCursor = database.rawQuery(sql.toString(), selectionArgs);
+        try {
+            while (resultCursor.moveToNext()) {
+                Article.Builder articleBuilder = new Article.Builder();
+                articleBuilder.setId(resultCursor.getInt(0));
+                articleBuilder.setFeed(resultCursor.getString(1));
+                articleBuilder.setTitle(resultCursor.getString(2));
+                articleBuilder.setLink(resultCursor.getString(3));
+                articleBuilder.setPublicationDate(new DateTime(resultCursor.getLong(4)));
+                articleBuilder.setExcerpt(resultCursor.getString(5));
+
+                String snippet = resultCursor.getString(6);
+                if (!snippet.contains(HIGHLIGHT_START)) {
+                    // only the title matched, and snippet() fell back to the start of the text
+                    snippet = "";
+                }
+
+                int position = positions.get(resultCursor.getLong(0));
+                results[position] = new SearchResult(articleBuilder.build(), snippet);
+            }
+        } finally {
+            resultCursor.close();
+        }
+
+        List<SearchResult> found = new ArrayList<>(Arrays.asList(results));
+        found.removeAll(Collections.singleton(null));
+        return found;
+    }
+
+    private ArticleSearch() {
+        // prevent instantiation
+    }
+
+}
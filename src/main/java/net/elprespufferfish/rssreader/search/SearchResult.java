@@ -0,0 +1,30 @@
+package net.elprespufferfish.rssreader.search;
+
+import net.elprespufferfish.rssreader.Article;
+
+/**
+ * Article matching a search, with the matching part of its text.
+ */
+public class SearchResult {
+
+    private final Article article;
+    private final String snippet;
+
+    public SearchResult(Article article, String snippet) {
+        this.article = article;
+        this.snippet = snippet;
+    }
+
+    public Article getArticle() {
+        return article;
+    }
+
+    /**
+     * @return text around the matches, with each match between {@link ArticleSearch#HIGHLIGHT_START} and
+     * {@link ArticleSearch#HIGHLIGHT_END}.  Empty if only the title matched.
+     */
+    public String getSnippet() {
+        return snippet;
+    }
+
+}
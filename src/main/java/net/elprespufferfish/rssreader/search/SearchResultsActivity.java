@@ -1,17 +1,23 @@
 package net.elprespufferfish.rssreader.search;
 
 import static butterknife.ButterKnife.findById;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
 
 import android.app.SearchManager;
 import android.content.Intent;
-import android.database.Cursor;
 import android.database.sqlite.SQLiteDatabase;
+import android.graphics.Typeface;
 import android.os.AsyncTask;
 import android.os.Bundle;
 import android.support.v7.app.AppCompatActivity;
 import android.support.v7.widget.CardView;
 import android.support.v7.widget.LinearLayoutManager;
 import android.support.v7.widget.RecyclerView;
+import android.text.SpannableStringBuilder;
+import android.text.Spanned;
+import android.text.format.DateUtils;
+import android.text.style.StyleSpan;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
@@ -19,16 +25,15 @@ import android.widget.TextView;
 
 import net.elprespufferfish.rssreader.Article;
 import net.elprespufferfish.rssreader.db.DatabaseHelper;
-import net.elprespufferfish.rssreader.db.DatabaseSchema;
 import net.elprespufferfish.rssreader.R;
 import net.elprespufferfish.rssreader.RssReaderApplication;
 import net.elprespufferfish.rssreader.WebViewActivity;
 
-import org.joda.time.DateTime;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 
 import javax.inject.Inject;
 
@@ -43,6 +48,7 @@ import butterknife.ButterKnife;
 public class SearchResultsActivity extends AppCompatActivity {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(SearchResultsActivity.class);
+    private static final int PAGE_SIZE = 20;
 
     @Bind(R.id.search_results)
     RecyclerView recyclerView;
@@ -82,74 +88,105 @@ public class SearchResultsActivity extends AppCompatActivity {
         new SearchTask().execute(query);
     }
 
-    private class SearchTask extends AsyncTask<String, Void, ArrayList<Article>> {
+    private class SearchTask extends AsyncTask<String, Void, SearchResultsAdapter> {
 
         @Override
-        protected ArrayList<Article> doInBackground(String... strings) {
-            String term = strings[0];
-            // TODO - split query
-            // TODO - OR or AND?
-
-            String query = "SELECT "
-                    + DatabaseSchema.ArticleTable.TABLE_NAME + "." + DatabaseSchema.ArticleTable._ID + ", "
-                    + DatabaseSchema.FeedTable.TABLE_NAME + "." + DatabaseSchema.FeedTable.FEED_NAME + ", "
-                    + DatabaseSchema.ArticleTable.TABLE_NAME + "." + DatabaseSchema.ArticleTable.ARTICLE_NAME + ", "
-                    + DatabaseSchema.ArticleTable.TABLE_NAME + "." + DatabaseSchema.ArticleTable.ARTICLE_URL + ", "
-                    + DatabaseSchema.ArticleTable.TABLE_NAME + "." + DatabaseSchema.ArticleTable.ARTICLE_PUBLICATION_DATE + ", "
-                    + DatabaseSchema.ArticleTable.TABLE_NAME + "." + DatabaseSchema.ArticleTable.ARTICLE_DESCRIPTION + ", "
-                    + DatabaseSchema.ArticleTable.TABLE_NAME + "." + DatabaseSchema.ArticleTable.ARTICLE_IMAGE_URL + ", "
-                    + DatabaseSchema.ArticleTable.TABLE_NAME + "." + DatabaseSchema.ArticleTable.ARTICLE_GUID + " "
-                    + "FROM " + DatabaseSchema.ArticleTable.TABLE_NAME + " "
-                    + "JOIN " + DatabaseSchema.FeedTable.TABLE_NAME + " "
-                    + "ON " + DatabaseSchema.ArticleTable.TABLE_NAME + "." + DatabaseSchema.ArticleTable.ARTICLE_FEED + "=" + DatabaseSchema.FeedTable.TABLE_NAME + "." + DatabaseSchema.FeedTable._ID + " "
-                    + "WHERE " + DatabaseSchema.ArticleTable.ARTICLE_NAME + " LIKE ? "
-                    + "OR " + DatabaseSchema.ArticleTable.ARTICLE_DESCRIPTION + " LIKE ? "
-                    + "ORDER BY " + DatabaseSchema.ArticleTable.ARTICLE_PUBLICATION_DATE + " DESC ";
-
+        protected SearchResultsAdapter doInBackground(String... strings) {
+            String query = strings[0];
             SQLiteDatabase database = databaseHelper.getReadableDatabase();
-            Cursor articleCursor = database.rawQuery(query, new String[] { "% "+term+" %", "% "+term+" %" });
             try {
-                ArrayList<Article> articles = new ArrayList<>(articleCursor.getCount());
-                articleCursor.moveToNext();
-                while (!articleCursor.isAfterLast()) {
-                    Article.Builder articleBuilder = new Article.Builder();
-                    articleBuilder.setId(articleCursor.getInt(0));
-                    articleBuilder.setFeed(articleCursor.getString(1));
-                    articleBuilder.setTitle(articleCursor.getString(2));
-                    articleBuilder.setLink(articleCursor.getString(3));
-                    articleBuilder.setPublicationDate(new DateTime(articleCursor.getLong(4)));
-                    articleBuilder.setDescription(articleCursor.getString(5));
-                    articleBuilder.setImageUrl(articleCursor.getString(6));
-                    articleBuilder.setGuid(articleCursor.getString(7));
-
-                    articles.add(articleBuilder.build());
-
-                    articleCursor.moveToNext();
+                long startTime = System.nanoTime();
+                long[] articleIds = ArticleSearch.rank(database, query);
+                SearchResultsAdapter adapter = new SearchResultsAdapter(query, articleIds);
+                if (articleIds.length != 0) {
+                    adapter.setPage(0, ArticleSearch.load(database, query, adapter.pageIds(0)));
                 }
-                return articles;
+                long searchTime = MILLISECONDS.convert(System.nanoTime() - startTime, NANOSECONDS);
+                LOGGER.info("Found {} results in {}ms", articleIds.length, searchTime);
+                return adapter;
             } finally {
-                articleCursor.close();
                 database.close();
             }
         }
 
         @Override
-        protected void onPostExecute(ArrayList<Article> articles) {
-            if (articles.isEmpty()) {
+        protected void onPostExecute(SearchResultsAdapter adapter) {
+            if (adapter.getItemCount() == 0) {
                 SearchResultsActivity.this.setContentView(R.layout.no_search_results);
             } else {
-                recyclerView.setAdapter(new SearchResultsAdapter(articles));
+                recyclerView.setAdapter(adapter);
+            }
+        }
+
+    }
+
+    /**
+     * Loads the cards for a page of ranked results.
+     */
+    private class LoadPageTask extends AsyncTask<Void, Void, List<SearchResult>> {
+
+        private final SearchResultsAdapter adapter;
+        private final int page;
+
+        public LoadPageTask(SearchResultsAdapter adapter, int page) {
+            this.adapter = adapter;
+            this.page = page;
+        }
+
+        @Override
+        protected List<SearchResult> doInBackground(Void... voids) {
+            SQLiteDatabase database = databaseHelper.getReadableDatabase();
+            try {
+                return ArticleSearch.load(database, adapter.query, adapter.pageIds(page));
+            } finally {
+                database.close();
             }
         }
 
+        @Override
+        protected void onPostExecute(List<SearchResult> results) {
+            adapter.setPage(page, results);
+            adapter.notifyItemRangeChanged(page * PAGE_SIZE, adapter.pageIds(page).length);
+        }
+
     }
 
+    /**
+     * Holds the ids of every result, and loads their cards a page at a time as they are scrolled to.
+     */
     private class SearchResultsAdapter extends RecyclerView.Adapter<SearchResultsViewHolder> {
 
-        private final ArrayList<Article> articles;
+        private final String query;
+        private final long[] articleIds;
+        private final SearchResult[] results;
+        private final boolean[] requestedPages;
+        private final boolean[] loadedPages;
+
+        public SearchResultsAdapter(String query, long[] articleIds) {
+            this.query = query;
+            this.articleIds = articleIds;
+            this.results = new SearchResult[articleIds.length];
+            this.requestedPages = new boolean[(articleIds.length + PAGE_SIZE - 1) / PAGE_SIZE];
+            this.loadedPages = new boolean[requestedPages.length];
+        }
+
+        private long[] pageIds(int page) {
+            int start = page * PAGE_SIZE;
+            return Arrays.copyOfRange(articleIds, start, Math.min(start + PAGE_SIZE, articleIds.length));
+        }
 
-        public SearchResultsAdapter(ArrayList<Article> articles) {
-            this.articles = articles;
+        private void setPage(int page, List<SearchResult> pageResults) {
+            requestedPages[page] = true;
+            loadedPages[page] = true;
+            // results of deleted articles are missing, so match them up by id
+            int start = page * PAGE_SIZE;
+            int position = start;
+            for (SearchResult result : pageResults) {
+                while (articleIds[position] != result.getArticle().getId()) {
+                    position++;
+                }
+                results[position] = result;
+            }
         }
 
         @Override
@@ -163,9 +200,38 @@ public class SearchResultsActivity extends AppCompatActivity {
 
         @Override
         public void onBindViewHolder(SearchResultsViewHolder viewHolder, int position) {
-            final Article article = articles.get(position);
+            SearchResult result = results[position];
+            if (result == null) {
+                int page = position / PAGE_SIZE;
+                if (!requestedPages[page]) {
+                    requestedPages[page] = true;
+                    new LoadPageTask(this, page).execute();
+                }
+                // once its page has loaded, a missing result is an article deleted since the search
+                viewHolder.title.setText(loadedPages[page] ? getString(R.string.search_result_unavailable) : null);
+                viewHolder.feed.setText(null);
+                viewHolder.snippet.setVisibility(View.GONE);
+                viewHolder.card.setOnClickListener(null);
+                return;
+            }
+
+            final Article article = result.getArticle();
             viewHolder.title.setText(article.getTitle());
-            viewHolder.feed.setText(article.getFeed());
+            String date = DateUtils.formatDateTime(
+                    SearchResultsActivity.this,
+                    article.getPublicationDate().getMillis(),
+                    DateUtils.FORMAT_SHOW_DATE | DateUtils.FORMAT_ABBREV_MONTH);
+            viewHolder.feed.setText(getString(R.string.search_result_source, article.getFeed(), date));
+            if (!result.getSnippet().isEmpty()) {
+                viewHolder.snippet.setVisibility(View.VISIBLE);
+                viewHolder.snippet.setText(highlight(result.getSnippet()));
+            } else if (!article.getExcerpt().isEmpty()) {
+                // only the title matched
+                viewHolder.snippet.setVisibility(View.VISIBLE);
+                viewHolder.snippet.setText(article.getExcerpt());
+            } else {
+                viewHolder.snippet.setVisibility(View.GONE);
+            }
 
             viewHolder.card.setOnClickListener(new View.OnClickListener() {
                 @Override
@@ -179,16 +245,38 @@ public class SearchResultsActivity extends AppCompatActivity {
 
         @Override
         public int getItemCount() {
-            return articles.size();
+            return articleIds.length;
         }
 
     }
 
+    /**
+     * @return snippet with the highlight markers replaced by bold text.
+     */
+    private static CharSequence highlight(String snippet) {
+        SpannableStringBuilder highlighted = new SpannableStringBuilder();
+        int start = 0;
+        while (true) {
+            int highlightStart = snippet.indexOf(ArticleSearch.HIGHLIGHT_START, start);
+            int highlightEnd = snippet.indexOf(ArticleSearch.HIGHLIGHT_END, highlightStart + 1);
+            if (highlightStart == -1 || highlightEnd == -1) {
+                highlighted.append(snippet, start, snippet.length());
+                return highlighted;
+            }
+            highlighted.append(snippet, start, highlightStart);
+            int spanStart = highlighted.length();
+            highlighted.append(snippet, highlightStart + 1, highlightEnd);
+            highlighted.setSpan(new StyleSpan(Typeface.BOLD), spanStart, highlighted.length(), Spanned.SPAN_EXCLUSIVE_EXCLUSIVE);
+            start = highlightEnd + 1;
+        }
+    }
+
     private static class SearchResultsViewHolder extends RecyclerView.ViewHolder {
 
         public final CardView card;
         public final TextView title;
         public final TextView feed;
+        public final TextView snippet;
 
         public SearchResultsViewHolder(View itemView) {
             super(itemView);
@@ -196,6 +284,7 @@ public class SearchResultsActivity extends AppCompatActivity {
             card = findById(itemView, R.id.card_view);
             title = findById(itemView, R.id.search_result_title);
             feed = findById(itemView, R.id.search_result_feed);
+            snippet = findById(itemView, R.id.search_result_snippet);
         }
 
     }
@@ -0,0 +1,121 @@
+package net.elprespufferfish.rssreader.settings;
+
+import static butterknife.ButterKnife.findById;
+
+import android.os.AsyncTask;
+import android.os.Bundle;
+import android.support.v7.app.AppCompatActivity;
+import android.support.v7.widget.LinearLayoutManager;
+import android.support.v7.widget.RecyclerView;
+import android.view.LayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.TextView;
+
+import net.elprespufferfish.rssreader.R;
+import net.elprespufferfish.rssreader.RssReaderApplication;
+import net.elprespufferfish.rssreader.db.FeedCost;
+import net.elprespufferfish.rssreader.db.FeedManager;
+
+import java.util.List;
+
+import javax.inject.Inject;
+
+import butterknife.Bind;
+import butterknife.ButterKnife;
+
+/**
+ * Ranks feeds by how much time their refreshes have cost.
+ *
+ * @author elprespufferfish
+ */
+public class FeedStatisticsActivity extends AppCompatActivity {
+
+    @Bind(R.id.feed_statistics)
+    RecyclerView recyclerView;
+    @Inject
+    FeedManager feedManager;
+
+    @Override
+    public void onCreate(Bundle savedInstanceState) {
+        super.onCreate(savedInstanceState);
+        setContentView(R.layout.feed_statistics);
+
+        ButterKnife.bind(this);
+        RssReaderApplication.fromContext(this).getApplicationComponent().inject(this);
+
+        getSupportActionBar().setTitle(R.string.feed_statistics_title);
+        getSupportActionBar().setDisplayHomeAsUpEnabled(true);
+
+        recyclerView.setHasFixedSize(true);
+        recyclerView.setLayoutManager(new LinearLayoutManager(this));
+
+        new LoadCostsTask().execute();
+    }
+
+    private class LoadCostsTask extends AsyncTask<Void, Void, List<FeedCost>> {
+
+        @Override
+        protected List<FeedCost> doInBackground(Void... voids) {
+            return feedManager.getFeedCosts();
+        }
+
+        @Override
+        protected void onPostExecute(List<FeedCost> costs) {
+            recyclerView.setAdapter(new FeedCostAdapter(costs));
+        }
+
+    }
+
+    private class FeedCostAdapter extends RecyclerView.Adapter<FeedCostViewHolder> {
+
+        private final List<FeedCost> costs;
+
+        public FeedCostAdapter(List<FeedCost> costs) {
+            this.costs = costs;
+        }
+
+        @Override
+        public FeedCostViewHolder onCreateViewHolder(ViewGroup parent, int viewType) {
+            View view = LayoutInflater
+                    .from(parent.getContext())
+                    .inflate(R.layout.feed_statistic, parent, false);
+
+            return new FeedCostViewHolder(view);
+        }
+
+        @Override
+        public void onBindViewHolder(FeedCostViewHolder viewHolder, int position) {
+            FeedCost cost = costs.get(position);
+            viewHolder.name.setText(cost.getFeedName());
+            viewHolder.summary.setText(getString(
+                    R.string.feed_statistic_summary,
+                    cost.getTotalMs() / 1000.0,
+                    cost.getWireBytes() / 1024,
+                    cost.getNumFetches(),
+                    cost.getNumFailures(),
+                    cost.getPercentImagesFromFeed()));
+        }
+
+        @Override
+        public int getItemCount() {
+            return costs.size();
+        }
+
+    }
+
+    private static class FeedCostViewHolder extends RecyclerView.ViewHolder {
+
+        public final TextView name;
+        public final TextView summary;
+
+        public FeedCostViewHolder(View itemView) {
+            super(itemView);
+
+            name = findById(itemView, R.id.feed_statistic_name);
+            summary = findById(itemView, R.id.feed_statistic_summary);
+        }
+
+    }
+
+}
@@ -0,0 +1,28 @@
+package net.elprespufferfish.rssreader.settings;
+
+import android.content.SharedPreferences;
+
+import net.elprespufferfish.rssreader.net.RefreshSettings;
+
+/**
+ * {@link RefreshSettings} backed by the user's preferences.
+ */
+public class PreferenceRefreshSettings implements RefreshSettings {
+
+    private final SharedPreferences preferences;
+
+    public PreferenceRefreshSettings(SharedPreferences preferences) {
+        this.preferences = preferences;
+    }
+
+    @Override
+    public long getRefreshFrequencyMs() {
+        return Long.parseLong(preferences.getString(Settings.REFRESH_FREQUENCY.first, Settings.REFRESH_FREQUENCY.second));
+    }
+
+    @Override
+    public int getRetentionDays() {
+        return preferences.getInt(Settings.RETENTION_PERIOD.first, Settings.RETENTION_PERIOD.second);
+    }
+
+}
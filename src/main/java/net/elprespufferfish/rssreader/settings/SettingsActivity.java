@@ -3,6 +3,7 @@ package net.elprespufferfish.rssreader.settings;
 import android.app.ProgressDialog;
 import android.app.backup.BackupManager;
 import android.content.DialogInterface;
+import android.content.Intent;
 import android.os.Bundle;
 import android.preference.Preference;
 import android.preference.PreferenceFragment;
@@ -93,6 +94,13 @@ public class SettingsActivity extends AppCompatActivity {
                     return true;
                 }
             });
+            findPreference("feed_statistics").setOnPreferenceClickListener(new Preference.OnPreferenceClickListener() {
+                @Override
+                public boolean onPreferenceClick(Preference preference) {
+                    startActivity(new Intent(getActivity(), FeedStatisticsActivity.class));
+                    return true;
+                }
+            });
         }
 
     }